@@ -0,0 +1,26 @@
+package dev.feruzlabs.springbootauth.enums;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Har autentifikatsiyalangan requestda filter chaqiradigan authoritylar ro'yxati (stream + ArrayList).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RoleBenchmark {
+
+    @Param({"USER", "SUPER_ADMIN"})
+    private Role role;
+
+    @Benchmark
+    public List<SimpleGrantedAuthority> getSimpleGrantedAuthority() {
+        return role.getSimpleGrantedAuthority();
+    }
+}
@@ -0,0 +1,42 @@
+package dev.feruzlabs.springbootauth.securities;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login (matches) va registratsiya/parol almashtirish (encode) narxi cost bo'yicha.
+ * security.password.target-latency va min-cost ni tanlash uchun: har +1 cost ~2 barobar sekin.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 2)
+public class BCryptBenchmark {
+
+    private static final String PASSWORD = "secret123";
+
+    @Param({"4", "8", "10", "12"})
+    private int cost;
+
+    private BCryptPasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        encoder = new BCryptPasswordEncoder(cost);
+        hash = encoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public String encode() {
+        return encoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches(PASSWORD, hash);
+    }
+}
@@ -0,0 +1,111 @@
+package dev.feruzlabs.springbootauth.securities;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import dev.feruzlabs.springbootauth.entities.User;
+import dev.feruzlabs.springbootauth.enums.PrincipalMode;
+import dev.feruzlabs.springbootauth.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bitta autentifikatsiyalangan request ning filterdagi narxi - uch rejimda.
+ * UserRepository proxy bilan almashtirilgan (DB round-trip o'lchanmaydi, faqat undan keyingi ish:
+ * UserPrincipal, validateToken, authoritylar, bosqich timerlari). Log darajasi WARN - muvaffaqiyatli yo'lda
+ * log satrlari umuman yig'ilmaydi.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"DATABASE", "CACHED", "STATELESS"})
+    private PrincipalMode mode;
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        User user = VerifiedTokenCacheBenchmark.sampleUser();
+        user.setEnabled(true);
+        UserRepository userRepository = stubRepository(user);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        EnhancedJwtUtil jwtUtil = VerifiedTokenCacheBenchmark.newJwtUtil(null);
+
+        SecurityVersionRegistry securityVersionRegistry = new SecurityVersionRegistry();
+        ReflectionTestUtils.setField(securityVersionRegistry, "userRepository", userRepository);
+
+        PrincipalCache principalCache = new PrincipalCache();
+        ReflectionTestUtils.setField(principalCache, "userRepository", userRepository);
+        ReflectionTestUtils.setField(principalCache, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(principalCache, "maxSize", 10_000L);
+        ReflectionTestUtils.setField(principalCache, "ttl", Duration.ofMinutes(5));
+        principalCache.init();
+
+        // jdbcTemplate/eventPublisher faqat revoke() da kerak - filter ularga tegmaydi
+        AccessTokenDenylist denylist = new AccessTokenDenylist();
+        ReflectionTestUtils.setField(denylist, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(denylist, "expectedEntries", 100_000L);
+        ReflectionTestUtils.setField(denylist, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(denylist, "jwtExpiration", 86_400_000L);
+        denylist.init();
+
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(filter, "userRepository", userRepository);
+        ReflectionTestUtils.setField(filter, "securityVersionRegistry", securityVersionRegistry);
+        ReflectionTestUtils.setField(filter, "principalCache", principalCache);
+        ReflectionTestUtils.setField(filter, "accessTokenDenylist", denylist);
+        ReflectionTestUtils.setField(filter, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(filter, "principalMode", mode);
+        filter.init();
+
+        request = new MockHttpServletRequest("GET", "/api/users/me");
+        request.addHeader("Authorization", "Bearer " + jwtUtil.generateToken(user));
+    }
+
+    @Benchmark
+    public Authentication doFilter() throws Exception {
+        // OncePerRequestFilter "allaqachon filtrlangan" atributini request ga yozadi - har safar yangi
+        MockHttpServletRequest current = new MockHttpServletRequest("GET", request.getRequestURI());
+        current.addHeader("Authorization", request.getHeader("Authorization"));
+        try {
+            filter.doFilter(current, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    // Faqat findByUsername kerak; qolgan metodlar chaqirilsa benchmark xato bilan to'xtaydi
+    private static UserRepository stubRepository(User user) {
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findByUsername")) {
+                        return user.getUsername().equals(args[0]) ? Optional.of(user) : Optional.empty();
+                    }
+                    if (method.getDeclaringClass() == Object.class) {
+                        return method.getName().equals("hashCode") ? System.identityHashCode(proxy)
+                                : method.getName().equals("equals") ? proxy == args[0] : "UserRepositoryStub";
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
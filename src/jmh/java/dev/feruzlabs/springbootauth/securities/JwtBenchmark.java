@@ -0,0 +1,44 @@
+package dev.feruzlabs.springbootauth.securities;
+
+import dev.feruzlabs.springbootauth.entities.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login/refresh da token yaratish va filterdagi tekshirish (imzo + claimlar + username solishtirish).
+ * Ajratish tezligi: -Djmh.args="JwtBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JwtBenchmark {
+
+    private EnhancedJwtUtil jwtUtil;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = VerifiedTokenCacheBenchmark.newJwtUtil(null);
+        user = VerifiedTokenCacheBenchmark.sampleUser();
+        token = jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateTokenWithDevice() {
+        return jwtUtil.generateToken(user, "bench-device");
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(jwtUtil.verify(token), user.getUsername());
+    }
+}
@@ -0,0 +1,75 @@
+package dev.feruzlabs.springbootauth.securities;
+
+import dev.feruzlabs.springbootauth.entities.User;
+import dev.feruzlabs.springbootauth.enums.Role;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keshsiz (har safar HS512 + JSON parse) va VerifiedTokenCache orqali tekshirishni solishtiradi.
+ * Ko'p yadroda: -Djmh.args="VerifiedTokenCache -t 4"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class VerifiedTokenCacheBenchmark {
+
+    static final String SECRET = "myVeryLongSecretKeyThatIsAtLeast64CharactersLongForHS512AlgorithmSecurity123456789";
+
+    private EnhancedJwtUtil uncachedJwtUtil;
+    private EnhancedJwtUtil cachedJwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        uncachedJwtUtil = newJwtUtil(null);
+
+        VerifiedTokenCache cache = new VerifiedTokenCache();
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxSize", 10_000L);
+        cache.init();
+        cachedJwtUtil = newJwtUtil(cache);
+
+        token = uncachedJwtUtil.generateToken(sampleUser());
+    }
+
+    @Benchmark
+    public VerifiedToken verifyUncached() {
+        return uncachedJwtUtil.verify(token);
+    }
+
+    @Benchmark
+    public VerifiedToken verifyCached() {
+        return cachedJwtUtil.verify(token);
+    }
+
+    public static EnhancedJwtUtil newJwtUtil(VerifiedTokenCache cache) {
+        JwtKeyRing keyRing = new JwtKeyRing();
+        ReflectionTestUtils.setField(keyRing, "secretKey", SECRET);
+        ReflectionTestUtils.setField(keyRing, "jwtExpiration", 86_400_000L);
+        ReflectionTestUtils.setField(keyRing, "algorithm", SignatureAlgorithm.HS512);
+        keyRing.init();
+
+        EnhancedJwtUtil jwtUtil = new EnhancedJwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "keyRing", keyRing);
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpiration", 86_400_000);
+        ReflectionTestUtils.setField(jwtUtil, "jwtRefreshTokenExpiration", 86_400_000);
+        ReflectionTestUtils.setField(jwtUtil, "verifiedTokenCache", cache);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    public static User sampleUser() {
+        User user = new User();
+        user.setId(42L);
+        user.setUsername("bench_user");
+        user.setEmail("bench_user@example.com");
+        user.setRole(Role.ADMIN);
+        return user;
+    }
+}
@@ -0,0 +1,111 @@
+package dev.feruzlabs.springbootauth.services;
+
+import dev.feruzlabs.springbootauth.dto.response.JwtResponse;
+import dev.feruzlabs.springbootauth.entities.User;
+import dev.feruzlabs.springbootauth.securities.VerifiedTokenCacheBenchmark;
+import dev.feruzlabs.springbootauth.services.audit.AuthAuditLog;
+import dev.feruzlabs.springbootauth.services.refreshToken.InMemoryRefreshTokenStore;
+import dev.feruzlabs.springbootauth.services.refreshToken.MappedFileRefreshTokenStore;
+import dev.feruzlabs.springbootauth.services.refreshToken.RefreshTokenStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login (createRefreshToken) va /refresh (rotation + yangi access token) oqimlari DB siz store lar ustida:
+ * memory - InMemoryRefreshTokenStore, file - vaqtinchalik fayldagi MappedFileRefreshTokenStore.
+ * JPA store ni o'lchash uchun ishlayotgan ilovaga load test kerak.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RefreshTokenServiceBenchmark {
+
+    @Param({"memory", "file"})
+    private String store;
+
+    private RefreshTokenService refreshTokenService;
+    private MappedFileRefreshTokenStore fileStore;
+    private Path directory;
+    private User user;
+    private String refreshToken;
+
+    @Setup
+    public void setUp() throws IOException {
+        RefreshTokenStore refreshTokenStore;
+        if (store.equals("file")) {
+            directory = Files.createTempDirectory("refresh-bench");
+            fileStore = new MappedFileRefreshTokenStore();
+            ReflectionTestUtils.setField(fileStore, "path", directory.resolve("refresh-sessions.log"));
+            ReflectionTestUtils.setField(fileStore, "maxSize", DataSize.ofMegabytes(512));
+            fileStore.open();
+            refreshTokenStore = fileStore;
+        } else {
+            refreshTokenStore = new InMemoryRefreshTokenStore();
+        }
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ActiveSessionCounter activeSessionCounter = new ActiveSessionCounter();
+        ReflectionTestUtils.setField(activeSessionCounter, "refreshTokenStore", refreshTokenStore);
+        ReflectionTestUtils.setField(activeSessionCounter, "meterRegistry", meterRegistry);
+        activeSessionCounter.init();
+
+        // O'chirilgan audit: record() navbatga qo'ymay qaytadi - DB siz faqat token oqimi o'lchanadi
+        AuthAuditLog authAuditLog = new AuthAuditLog();
+        ReflectionTestUtils.setField(authAuditLog, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(authAuditLog, "enabled", false);
+        ReflectionTestUtils.setField(authAuditLog, "bufferSize", 1024);
+        ReflectionTestUtils.invokeMethod(authAuditLog, "init");
+
+        refreshTokenService = new RefreshTokenService();
+        ReflectionTestUtils.setField(refreshTokenService, "refreshTokenStore", refreshTokenStore);
+        ReflectionTestUtils.setField(refreshTokenService, "jwtUtil", VerifiedTokenCacheBenchmark.newJwtUtil(null));
+        ReflectionTestUtils.setField(refreshTokenService, "activeSessionCounter", activeSessionCounter);
+        ReflectionTestUtils.setField(refreshTokenService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(refreshTokenService, "maxSessionsPerUser", 5);
+        ReflectionTestUtils.setField(refreshTokenService, "authAuditLog", authAuditLog);
+        refreshTokenService.init();
+
+        user = VerifiedTokenCacheBenchmark.sampleUser();
+        refreshToken = refreshTokenService.createRefreshToken(user, "bench-device");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (fileStore != null) {
+            fileStore.close();
+            try (var files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    /**
+     * Xuddi shu device ga qayta login - sessiya joyida yangilanadi (reissue)
+     */
+    @Benchmark
+    public String createRefreshToken() {
+        return refreshTokenService.createRefreshToken(user, "bench-device");
+    }
+
+    /**
+     * Rotation: har chaqiriq oldingi refresh tokenni iste'mol qilib yangisini qaytaradi
+     */
+    @Benchmark
+    public JwtResponse refreshToken() {
+        JwtResponse response = refreshTokenService.refreshToken(refreshToken);
+        refreshToken = response.getRefreshToken();
+        return response;
+    }
+}
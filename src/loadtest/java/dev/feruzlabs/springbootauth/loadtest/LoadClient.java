@@ -0,0 +1,157 @@
+package dev.feruzlabs.springbootauth.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Bitta virtual foydalanuvchi: login qiladi, keyin muddat tugaguncha --mix bo'yicha so'rovlar yuboradi
+ * (yopiq sikl - javobni kutib keyingisini yuboradi). Histogrammalar client ning o'zida - yozishda raqobat yo'q,
+ * oxirida LoadTest birlashtiradi. Warmup davridagi so'rovlar yozilmaydi.
+ */
+class LoadClient implements Runnable {
+
+    // 1 mikrosekunddan 60 soniyagacha, 3 ta aniq raqam
+    static final long HIGHEST_TRACKABLE_MICROS = Duration.ofSeconds(60).toNanos() / 1000;
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final String username;
+    private final String deviceId;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final int pageCount;
+    private final long measureFrom;
+    private final long deadline;
+
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, long[]> errors = new EnumMap<>(Operation.class);
+
+    private String accessToken;
+    private String refreshToken;
+
+    LoadClient(int id, String baseUrl, String username, HttpClient httpClient, ObjectMapper objectMapper,
+               Map<Operation, Integer> mix, int userCount, long measureFrom, long deadline) {
+        this.baseUrl = baseUrl;
+        this.username = username;
+        this.deviceId = "load-" + id;
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.operations = mix.keySet().toArray(Operation[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int sum = 0;
+        for (int i = 0; i < operations.length; i++) {
+            sum += mix.get(operations[i]);
+            cumulativeWeights[i] = sum;
+        }
+        this.pageCount = Math.max(1, userCount / 20);
+        this.measureFrom = measureFrom;
+        this.deadline = deadline;
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new Histogram(HIGHEST_TRACKABLE_MICROS, 3));
+            errors.put(operation, new long[1]);
+        }
+    }
+
+    @Override
+    public void run() {
+        while (System.nanoTime() < deadline) {
+            // Sessiya yo'q (birinchi marta yoki refresh rad etilgan) - avval login
+            Operation operation = accessToken == null ? Operation.LOGIN : next();
+            long started = System.nanoTime();
+            boolean ok;
+            try {
+                ok = execute(operation);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                ok = false;
+            }
+            long finished = System.nanoTime();
+            if (started >= measureFrom && finished <= deadline) {
+                if (ok) {
+                    Histogram histogram = histograms.get(operation);
+                    histogram.recordValue(Math.min((finished - started) / 1000, HIGHEST_TRACKABLE_MICROS));
+                } else {
+                    errors.get(operation)[0]++;
+                }
+            }
+            if (!ok && (operation == Operation.LOGIN || operation == Operation.REFRESH)) {
+                accessToken = null;
+            }
+        }
+    }
+
+    Map<Operation, Histogram> getHistograms() {
+        return histograms;
+    }
+
+    long getErrors(Operation operation) {
+        return errors.get(operation)[0];
+    }
+
+    private Operation next() {
+        int point = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (point < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private boolean execute(Operation operation) throws Exception {
+        return switch (operation) {
+            case LOGIN -> authenticate("/api/auth/login", Map.of(
+                    "username", username, "password", LoadTest.PASSWORD, "deviceId", deviceId));
+            case REFRESH -> authenticate("/api/auth/token/refresh", Map.of("refreshToken", refreshToken));
+            case ME -> get("/api/auth/me");
+            case USERS -> get("/api/users?size=20&page=" + ThreadLocalRandom.current().nextInt(pageCount));
+            case TEST_HELLO -> get("/api/test/hello");
+            case TEST_PROFILE -> get("/api/test/profile");
+            case TEST_USER_PAGE -> get("/api/test/user/page");
+        };
+    }
+
+    // login va refresh: javobdagi yangi token juftligi keyingi so'rovlarda ishlatiladi
+    private boolean authenticate(String path, Map<String, String> body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            return false;
+        }
+        JsonNode json = objectMapper.readTree(response.body());
+        if (!json.hasNonNull("accessToken")) {
+            return false;
+        }
+        accessToken = json.get("accessToken").asText();
+        refreshToken = json.get("refreshToken").asText();
+        return true;
+    }
+
+    private boolean get(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Authorization", "Bearer " + accessToken)
+                .GET()
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+    }
+}
@@ -0,0 +1,302 @@
+package dev.feruzlabs.springbootauth.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import dev.feruzlabs.springbootauth.SpringBootAuthApplication;
+import dev.feruzlabs.springbootauth.dto.response.UserImportResult;
+import dev.feruzlabs.springbootauth.services.userManager.UserFileFormat;
+import dev.feruzlabs.springbootauth.services.userManager.UserImporter;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * End-to-end load test: {@code mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--clients=32 --duration=60s"}.
+ * <ol>
+ *   <li>--target berilmasa ilova shu JVM da h2 profilida (Liquibase changeloglari bilan) tasodifiy portda ko'tariladi
+ *   va --users ta user UserImporter orqali bitta oldindan hisoblangan hash bilan yoziladi;
+ *   --target=http://host:port da userlar /api/auth/register orqali yaratiladi (mavjudlari o'tkazib yuboriladi).</li>
+ *   <li>--clients ta client (--threads=platform|virtual) warmup + duration davomida --mix bo'yicha so'rov yuboradi.</li>
+ *   <li>Endpoint bo'yicha HdrHistogram percentillari va throughput --out ga JSON bo'lib yoziladi;
+ *   --baseline=oldingi.json berilsa solishtiriladi va regressiyada exit code 1.</li>
+ * </ol>
+ * Nuqtali argumentlar ilovaga uzatiladi: --jwt.filter.mode=CACHED, --security.password.max-cost=8.
+ */
+public class LoadTest {
+
+    static final String PASSWORD = "load-secret-123";
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        ConfigurableApplicationContext context = null;
+        int exitCode;
+        try {
+            String baseUrl = options.getTarget();
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            ObjectMapper objectMapper = new ObjectMapper()
+                    .registerModule(new JavaTimeModule())
+                    .enable(SerializationFeature.INDENT_OUTPUT)
+                    .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+            if (baseUrl == null) {
+                context = startApplication(options);
+                baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+                seed(context, options.getUsers());
+            } else {
+                register(baseUrl, httpClient, objectMapper, options);
+            }
+
+            Map<String, Object> report = run(options, baseUrl, httpClient, objectMapper);
+            exitCode = 0;
+            if (options.getBaseline() != null) {
+                JsonNode baseline = objectMapper.readTree(options.getBaseline().toFile());
+                @SuppressWarnings("unchecked")
+                List<Map<String, Object>> comparison = LoadTestReport.compare(
+                        (Map<String, Map<String, Object>>) report.get("endpoints"), baseline, options.getTolerance());
+                report.put("baseline", options.getBaseline().toString());
+                report.put("comparison", comparison);
+                printComparison(comparison);
+                if (comparison.stream().anyMatch(row -> !((List<?>) row.get("regressions")).isEmpty())) {
+                    exitCode = 1;
+                }
+            }
+
+            Files.createDirectories(options.getOut().toAbsolutePath().getParent());
+            objectMapper.writeValue(options.getOut().toFile(), report);
+            System.out.println("Natija: " + options.getOut().toAbsolutePath());
+        } catch (Exception e) {
+            e.printStackTrace();
+            exitCode = 2;
+        } finally {
+            if (context != null) {
+                SpringApplication.exit(context);
+            }
+        }
+        System.exit(exitCode);
+    }
+
+    private static ConfigurableApplicationContext startApplication(LoadTestOptions options) {
+        // devtools main thread dan ishga tushganini ko'rib ilovani boshqa classloader da qayta ishga tushirmasin
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        // application.properties dagi show-sql default properties dan ustun - buyruq qatori argumenti sifatida
+        List<String> args = new ArrayList<>(options.getApplicationArgs());
+        for (String setting : List.of("--server.port=0", "--spring.jpa.show-sql=false", "--logging.level.root=WARN")) {
+            String key = setting.substring(0, setting.indexOf('=') + 1);
+            if (args.stream().noneMatch(arg -> arg.startsWith(key))) {
+                args.add(setting);
+            }
+        }
+        return new SpringApplicationBuilder(SpringBootAuthApplication.class)
+                .profiles("h2")
+                .run(args.toArray(String[]::new));
+    }
+
+    // Hamma user uchun bitta hash - seed vaqti BCrypt cost ga bog'liq emas
+    private static void seed(ConfigurableApplicationContext context, int users) throws Exception {
+        long started = System.nanoTime();
+        String hash = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+        StringBuilder ndjson = new StringBuilder(users * (hash.length() + 100));
+        for (int i = 1; i <= users; i++) {
+            String username = username(i);
+            ndjson.append("{\"username\":\"").append(username)
+                    .append("\",\"email\":\"").append(username).append("@load.test")
+                    .append("\",\"passwordHash\":\"").append(hash)
+                    .append("\",\"enabled\":true}\n");
+        }
+        UserImportResult result = context.getBean(UserImporter.class).importUsers(UserFileFormat.NDJSON,
+                new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)), false);
+        if (result.getFailed() > 0) {
+            throw new IllegalStateException("Seed: " + result.getFailed() + " ta user yozilmadi, birinchisi: "
+                    + result.getErrors().get(0).getMessage());
+        }
+        System.out.printf("Seed: %d users in %d ms%n", result.getImported(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // Tashqi ilova: userlar API orqali (har biri BCrypt - sekin, lekin takroriy ishga tushirishda mavjudlari o'tadi)
+    private static void register(String baseUrl, HttpClient httpClient, ObjectMapper objectMapper,
+                                 LoadTestOptions options) throws Exception {
+        long started = System.nanoTime();
+        AtomicInteger next = new AtomicInteger(1);
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService executor = newExecutor(LoadTestOptions.ThreadMode.PLATFORM, options.getClients());
+        List<Future<?>> futures = new ArrayList<>();
+        for (int c = 0; c < options.getClients(); c++) {
+            futures.add(executor.submit(() -> {
+                for (int i = next.getAndIncrement(); i <= options.getUsers(); i = next.getAndIncrement()) {
+                    String username = username(i);
+                    Map<String, String> body = Map.of("username", username, "email", username + "@load.test",
+                            "password", PASSWORD);
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/register"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                            .build();
+                    HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                    if (response.statusCode() != 200 && !response.body().contains("mavjud")) {
+                        failed.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        if (failed.get() > 0) {
+            throw new IllegalStateException("Register: " + failed.get() + " ta user yaratilmadi");
+        }
+        System.out.printf("Register: %d users in %d ms%n", options.getUsers(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private static Map<String, Object> run(LoadTestOptions options, String baseUrl, HttpClient httpClient,
+                                           ObjectMapper objectMapper) throws Exception {
+        Instant startedAt = Instant.now();
+        long now = System.nanoTime();
+        long measureFrom = now + options.getWarmup().toNanos();
+        long deadline = measureFrom + options.getDuration().toNanos();
+
+        ExecutorService executor = newExecutor(options.getThreads(), options.getClients());
+        boolean virtual = !(executor instanceof ThreadPoolExecutor);
+        List<LoadClient> clients = new ArrayList<>();
+        for (int i = 0; i < options.getClients(); i++) {
+            LoadClient client = new LoadClient(i, baseUrl, username(i % options.getUsers() + 1), httpClient,
+                    objectMapper, options.getMix(), options.getUsers(), measureFrom, deadline);
+            clients.add(client);
+            executor.execute(client);
+        }
+        System.out.printf("Load: %d clients (%s threads), warmup %s, duration %s -> %s%n", options.getClients(),
+                virtual ? "virtual" : "platform", options.getWarmup(), options.getDuration(), baseUrl);
+        executor.shutdown();
+        if (!executor.awaitTermination(TimeUnit.NANOSECONDS.toSeconds(deadline - System.nanoTime()) + 60,
+                TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+
+        double seconds = options.getDuration().toMillis() / 1000.0;
+        Map<String, Map<String, Object>> endpoints = new LinkedHashMap<>();
+        Histogram total = new Histogram(LoadClient.HIGHEST_TRACKABLE_MICROS, 3);
+        long totalErrors = 0;
+        for (Operation operation : Operation.values()) {
+            Histogram merged = new Histogram(LoadClient.HIGHEST_TRACKABLE_MICROS, 3);
+            long errors = 0;
+            for (LoadClient client : clients) {
+                merged.add(client.getHistograms().get(operation));
+                errors += client.getErrors(operation);
+            }
+            if (merged.getTotalCount() + errors == 0) {
+                continue;
+            }
+            endpoints.put(operation.getEndpoint(), LoadTestReport.endpoint(merged, errors, seconds));
+            total.add(merged);
+            totalErrors += errors;
+        }
+
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("users", options.getUsers());
+        config.put("clients", options.getClients());
+        config.put("threads", virtual ? "virtual" : "platform");
+        config.put("warmupSeconds", options.getWarmup().toSeconds());
+        config.put("durationSeconds", options.getDuration().toSeconds());
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        options.getMix().forEach((operation, weight) -> mix.put(operation.getKey(), weight));
+        config.put("mix", mix);
+        config.put("applicationArgs", options.getApplicationArgs());
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", startedAt);
+        report.put("target", options.getTarget() != null ? options.getTarget() : "embedded (h2)");
+        report.put("javaVersion", System.getProperty("java.version"));
+        report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        report.put("config", config);
+        report.put("total", LoadTestReport.endpoint(total, totalErrors, seconds));
+        report.put("endpoints", endpoints);
+        printSummary(endpoints, report.get("total"));
+        return report;
+    }
+
+    /**
+     * Virtual threadlar Java 21+ da; loyiha 17 ga kompilyatsiya qilinadi - metod reflection bilan olinadi
+     */
+    private static ExecutorService newExecutor(LoadTestOptions.ThreadMode mode, int threads) {
+        if (mode == LoadTestOptions.ThreadMode.VIRTUAL) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                System.err.println("Virtual threadlar Java 21+ da mavjud (joriy: " + System.getProperty("java.version")
+                        + ") - platform threadlar ishlatiladi");
+            }
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "load-client-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static String username(int index) {
+        return String.format("load-%06d", index);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void printSummary(Map<String, Map<String, Object>> endpoints, Object total) {
+        System.out.printf("%-30s %9s %7s %10s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        Map<String, Map<String, Object>> rows = new LinkedHashMap<>(endpoints);
+        rows.put("total", (Map<String, Object>) total);
+        rows.forEach((endpoint, result) -> {
+            Map<String, Object> latency = (Map<String, Object>) result.get("latencyMs");
+            System.out.printf("%-30s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f%n", endpoint,
+                    result.get("requests"), result.get("errors"), result.get("throughput"),
+                    latency.get("p50"), latency.get("p90"), latency.get("p99"), latency.get("max"));
+        });
+    }
+
+    private static void printComparison(List<Map<String, Object>> comparison) {
+        System.out.printf("%-30s %21s %23s  %s%n", "endpoint", "p99 ms (base -> now)", "req/s (base -> now)", "");
+        for (Map<String, Object> row : comparison) {
+            List<?> p99 = (List<?>) row.get("p99Ms");
+            List<?> throughput = (List<?>) row.get("throughput");
+            List<?> regressions = (List<?>) row.get("regressions");
+            System.out.printf("%-30s %9.2f -> %9.2f %10.1f -> %10.1f  %s%n", row.get("endpoint"),
+                    p99.get(0), p99.get(1), throughput.get(0), throughput.get(1),
+                    regressions.isEmpty() ? "ok" : "REGRESSION " + regressions);
+        }
+    }
+}
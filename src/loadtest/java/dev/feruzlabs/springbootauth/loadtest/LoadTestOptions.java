@@ -0,0 +1,94 @@
+package dev.feruzlabs.springbootauth.loadtest;
+
+import lombok.Getter;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * --key=value argumentlari. Nuqtali kalitlar (--jwt.filter.mode=CACHED) o'zgarishsiz ilovaga uzatiladi.
+ */
+@Getter
+public class LoadTestOptions {
+
+    public enum ThreadMode { PLATFORM, VIRTUAL }
+
+    private int users = 1000;
+    private int clients = 16;
+    private ThreadMode threads = ThreadMode.PLATFORM;
+    private Duration warmup = Duration.ofSeconds(10);
+    private Duration duration = Duration.ofSeconds(30);
+    private Map<Operation, Integer> mix = defaultMix();
+    // Bo'sh bo'lsa ilova shu JVM da h2 profilida ko'tariladi
+    private String target;
+    private Path out = Path.of("target", "loadtest", "result.json");
+    private Path baseline;
+    // p99 o'sishi / throughput pasayishi shu ulushdan oshsa regressiya
+    private double tolerance = 0.2;
+    private final List<String> applicationArgs = new ArrayList<>();
+
+    public static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Argument --key=value ko'rinishida bo'lishi kerak: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            String key = eq > 0 ? arg.substring(2, eq) : arg.substring(2);
+            String value = eq > 0 ? arg.substring(eq + 1) : "true";
+            switch (key) {
+                case "users" -> options.users = Integer.parseInt(value);
+                case "clients" -> options.clients = Integer.parseInt(value);
+                case "threads" -> options.threads = ThreadMode.valueOf(value.toUpperCase());
+                case "warmup" -> options.warmup = DurationStyle.detectAndParse(value);
+                case "duration" -> options.duration = DurationStyle.detectAndParse(value);
+                case "mix" -> options.mix = parseMix(value);
+                case "target" -> options.target = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                case "out" -> options.out = Path.of(value);
+                case "baseline" -> options.baseline = Path.of(value);
+                case "tolerance" -> options.tolerance = Double.parseDouble(value);
+                default -> {
+                    if (!key.contains(".")) {
+                        throw new IllegalArgumentException("Noma'lum argument: " + arg);
+                    }
+                    options.applicationArgs.add(arg);
+                }
+            }
+        }
+        if (options.users < 1 || options.clients < 1) {
+            throw new IllegalArgumentException("--users va --clients musbat bo'lishi kerak");
+        }
+        return options;
+    }
+
+    // login:5,me:30 - ko'rsatilmaganlar 0
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] pair = part.split(":");
+            mix.put(Operation.of(pair[0]), Integer.parseInt(pair[1].trim()));
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("--mix da kamida bitta musbat ulush bo'lishi kerak");
+        }
+        return mix;
+    }
+
+    private static Map<Operation, Integer> defaultMix() {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            mix.put(operation, operation.getWeight());
+        }
+        return mix;
+    }
+
+    public List<String> getApplicationArgs() {
+        return Collections.unmodifiableList(applicationArgs);
+    }
+}
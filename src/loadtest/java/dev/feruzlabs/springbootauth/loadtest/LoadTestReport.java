@@ -0,0 +1,94 @@
+package dev.feruzlabs.springbootauth.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Endpoint bo'yicha natija (JSON ga yoziladigan ko'rinishda) va baseline bilan solishtirish.
+ * Latency lar millisekundda, throughput - o'lchov davridagi muvaffaqiyatli so'rovlar / soniya.
+ */
+class LoadTestReport {
+
+    private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p999"};
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private LoadTestReport() {
+    }
+
+    static Map<String, Object> endpoint(Histogram histogram, long errors, double seconds) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        long count = histogram.getTotalCount();
+        result.put("requests", count + errors);
+        result.put("errors", errors);
+        result.put("throughput", round(count / seconds));
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("mean", millis(histogram.getMean()));
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            latency.put(PERCENTILE_NAMES[i], millis(histogram.getValueAtPercentile(PERCENTILES[i])));
+        }
+        latency.put("max", millis(histogram.getMaxValue()));
+        result.put("latencyMs", latency);
+        return result;
+    }
+
+    /**
+     * Ikkala natijada bor endpointlar: p99 (1 + tolerance) martadan oshsa, throughput (1 - tolerance)
+     * martadan tushsa yoki xatolar ulushi tolerance dan ko'proq o'ssa - regressiya.
+     */
+    static List<Map<String, Object>> compare(Map<String, Map<String, Object>> current, JsonNode baseline,
+                                             double tolerance) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        JsonNode baselineEndpoints = baseline.path("endpoints");
+        current.forEach((endpoint, result) -> {
+            JsonNode before = baselineEndpoints.get(endpoint);
+            if (before == null) {
+                return;
+            }
+            @SuppressWarnings("unchecked")
+            double p99 = ((Number) ((Map<String, Object>) result.get("latencyMs")).get("p99")).doubleValue();
+            double throughput = ((Number) result.get("throughput")).doubleValue();
+            double errorRate = errorRate(((Number) result.get("errors")).longValue(),
+                    ((Number) result.get("requests")).longValue());
+            double baselineP99 = before.path("latencyMs").path("p99").asDouble();
+            double baselineThroughput = before.path("throughput").asDouble();
+            double baselineErrorRate = errorRate(before.path("errors").asLong(), before.path("requests").asLong());
+
+            List<String> regressions = new ArrayList<>();
+            if (baselineP99 > 0 && p99 > baselineP99 * (1 + tolerance)) {
+                regressions.add("p99");
+            }
+            if (baselineThroughput > 0 && throughput < baselineThroughput * (1 - tolerance)) {
+                regressions.add("throughput");
+            }
+            if (errorRate > baselineErrorRate + tolerance / 10) {
+                regressions.add("errors");
+            }
+
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("endpoint", endpoint);
+            row.put("p99Ms", List.of(baselineP99, p99));
+            row.put("throughput", List.of(baselineThroughput, throughput));
+            row.put("errorRate", List.of(round(baselineErrorRate), round(errorRate)));
+            row.put("regressions", regressions);
+            rows.add(row);
+        });
+        return rows;
+    }
+
+    private static double errorRate(long errors, long requests) {
+        return requests == 0 ? 0 : (double) errors / requests;
+    }
+
+    private static double millis(double micros) {
+        return round(micros / 1000);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
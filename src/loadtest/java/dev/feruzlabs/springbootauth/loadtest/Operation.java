@@ -0,0 +1,36 @@
+package dev.feruzlabs.springbootauth.loadtest;
+
+import lombok.Getter;
+
+/**
+ * Yuklamadagi so'rov turlari. key - --mix dagi nom, endpoint - natijadagi kalit, weight - standart ulush.
+ */
+@Getter
+public enum Operation {
+    LOGIN("login", "POST /api/auth/login", 5),
+    REFRESH("refresh", "POST /api/auth/token/refresh", 5),
+    ME("me", "GET /api/auth/me", 25),
+    USERS("users", "GET /api/users", 10),
+    TEST_HELLO("test-hello", "GET /api/test/hello", 20),
+    TEST_PROFILE("test-profile", "GET /api/test/profile", 20),
+    TEST_USER_PAGE("test-user-page", "GET /api/test/user/page", 15);
+
+    private final String key;
+    private final String endpoint;
+    private final int weight;
+
+    Operation(String key, String endpoint, int weight) {
+        this.key = key;
+        this.endpoint = endpoint;
+        this.weight = weight;
+    }
+
+    public static Operation of(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equalsIgnoreCase(key.trim())) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Noma'lum operatsiya: " + key);
+    }
+}
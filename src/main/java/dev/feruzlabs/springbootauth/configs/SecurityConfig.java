@@ -1,7 +1,9 @@
 package dev.feruzlabs.springbootauth.configs;
 
+import dev.feruzlabs.springbootauth.securities.CalibratedBCryptPasswordEncoder;
 import dev.feruzlabs.springbootauth.securities.JwtAuthenticationFilter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -9,7 +11,7 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -17,8 +19,10 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
@@ -29,9 +33,33 @@ public class SecurityConfig {
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
 
+    // Bitta hash uchun maqsad vaqt - cost shu serverda startup da o'lchab tanlanadi
+    @Value("${security.password.target-latency:250ms}")
+    private Duration passwordTargetLatency;
+
+    @Value("${security.password.min-cost:10}")
+    private int passwordMinCost;
+
+    @Value("${security.password.max-cost:16}")
+    private int passwordMaxCost;
+
+    // > 0 bo'lsa kalibrlash o'tkazib yuboriladi - bir nechta node da hamma bir xil cost ishlatsin
+    @Value("${security.password.cost:0}")
+    private int passwordCost;
+
+    /**
+     * Yangi hashlar "{bcrypt}" prefiksi bilan kalibrlangan (yoki security.password.cost dagi) cost da yoziladi.
+     * Prefikssiz eski hashlar (seed dagi $2a$10) ham tekshiriladi; cost past yoki ikki va undan ko'p
+     * pog'ona yuqori bo'lsa upgradeEncoding() true qaytaradi va login da hash qayta yaratiladi.
+     */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        CalibratedBCryptPasswordEncoder bcrypt = passwordCost > 0
+                ? new CalibratedBCryptPasswordEncoder(passwordCost)
+                : CalibratedBCryptPasswordEncoder.calibrate(passwordTargetLatency, passwordMinCost, passwordMaxCost);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
     }
 
     @Bean
@@ -58,6 +86,9 @@ public class SecurityConfig {
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
                         .requestMatchers("/").permitAll() // Asosiy sahifa uchun
+                        .requestMatchers("/.well-known/jwks.json").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasAuthority("system:read")
                         // Qolgan barcha requestlar autentifikatsiya talab qiladi
                         .anyRequest().authenticated()
                 )
@@ -4,15 +4,24 @@ import dev.feruzlabs.springbootauth.dto.CurrentUserDTO;
 import dev.feruzlabs.springbootauth.dto.request.*;
 import dev.feruzlabs.springbootauth.dto.response.JwtResponse;
 import dev.feruzlabs.springbootauth.dto.response.MessageResponse;
+import dev.feruzlabs.springbootauth.dto.response.UsernameCheckResponse;
+import dev.feruzlabs.springbootauth.securities.PasswordWorkRejectedException;
+import dev.feruzlabs.springbootauth.securities.VerifiedToken;
 import dev.feruzlabs.springbootauth.services.AuthService;
 import dev.feruzlabs.springbootauth.services.RefreshTokenService;
+import dev.feruzlabs.springbootauth.services.UsernameAvailabilityIndex;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -23,6 +32,9 @@ public class AuthController {
     @Autowired
     private RefreshTokenService refreshTokenService;
 
+    @Autowired
+    private UsernameAvailabilityIndex usernameAvailabilityIndex;
+
     /**
      * User registratsiya qilish
      * POST /api/auth/register
@@ -68,6 +80,9 @@ public class AuthController {
         try {
             JwtResponse response = refreshTokenService.refreshToken(request.getRefreshToken());
             return ResponseEntity.ok(response);
+        } catch (ConcurrencyFailureException e) {
+            // Shu token bilan parallel refresh yutdi - eski token endi yaroqsiz
+            return ResponseEntity.badRequest().body(new MessageResponse("Refresh token invalid: Refresh token topilmadi!"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(new MessageResponse("Refresh token invalid: " + e.getMessage()));
         }
@@ -75,7 +90,10 @@ public class AuthController {
 
     @PostMapping("/logout")
     public ResponseEntity<?> logout(Authentication authentication) {
-        authService.logout(authentication.getName());
+        VerifiedToken accessToken = authentication.getDetails() instanceof VerifiedToken verifiedToken
+                ? verifiedToken
+                : null;
+        authService.logout(authentication.getName(), accessToken);
         return ResponseEntity.ok(new MessageResponse("Successfully logged out"));
     }
 
@@ -87,17 +105,19 @@ public class AuthController {
 
     /**
      * Username mavjudligini tekshirish (ixtiyoriy)
-     * GET /api/auth/check-username?username=test
+     * GET /api/auth/username/check?username=test
+     * Xotiradagi indeksdan javob beradi (DB ga bormaydi); band bo'lsa bo'sh muqobillar ham qaytadi.
      */
     @GetMapping("/username/check")
     public ResponseEntity<?> checkUsername(@RequestParam String username) {
 
-        boolean exists = authService.isUsernameExists(username);
+        UsernameAvailabilityIndex.Availability availability = usernameAvailabilityIndex.check(username);
 
-        if (exists) {
-            return ResponseEntity.ok(new MessageResponse("Username allaqachon mavjud", false));
+        if (!availability.available()) {
+            return ResponseEntity.ok(new UsernameCheckResponse("Username allaqachon mavjud", false,
+                    availability.suggestions()));
         } else {
-            return ResponseEntity.ok(new MessageResponse("Username mavjud", true));
+            return ResponseEntity.ok(new UsernameCheckResponse("Username mavjud", true, List.of()));
         }
     }
 
@@ -139,4 +159,14 @@ public class AuthController {
         CurrentUserDTO userDTO = (CurrentUserDTO) authentication.getPrincipal();
         return ResponseEntity.ok(authService.getCurrentUserInfo(userDTO.getUsername()));
     }
+
+    /**
+     * BCrypt pool i to'lgan - darhol 503, client Retry-After dan keyin qayta urinadi
+     */
+    @ExceptionHandler(PasswordWorkRejectedException.class)
+    public ResponseEntity<MessageResponse> handlePasswordWorkRejected(PasswordWorkRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new MessageResponse("Server band, birozdan keyin qayta urinib ko'ring", false));
+    }
 }
@@ -0,0 +1,53 @@
+package dev.feruzlabs.springbootauth.controllers;
+
+import dev.feruzlabs.springbootauth.securities.JwtKeyRing;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Public kalitlarni nashr qiladi - boshqa servislar tokenlarni o'zlari tekshirishi uchun.
+ * ETag + Cache-Control bilan: kalitlar o'zgarmaguncha 304 qaytadi.
+ */
+@RestController
+public class JwksController {
+
+    @Autowired
+    private JwtKeyRing keyRing;
+
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> jwks(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) List<String> ifNoneMatch) {
+        String etag = keyRing.getJwksEtag();
+        CacheControl cacheControl = CacheControl.maxAge(keyRing.getJwksMaxAge()).cachePublic();
+
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(keyRing.getJwksJson());
+    }
+
+    // RFC 9110 13.1.2: vergul bilan ro'yxat, W/ li teglar weak taqqoslanadi, * - har qanday joriy kalitlar
+    private static boolean matches(List<String> ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        ETag current = ETag.create(etag);
+        for (String header : ifNoneMatch) {
+            for (ETag candidate : ETag.parse(header)) {
+                if (candidate.isWildcard() || candidate.compare(current, false)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -1,9 +1,17 @@
 package dev.feruzlabs.springbootauth.controllers;
 
+import dev.feruzlabs.springbootauth.dto.response.CursorPage;
+import dev.feruzlabs.springbootauth.dto.response.UserImportResult;
 import dev.feruzlabs.springbootauth.dto.response.UserResponse;
+import dev.feruzlabs.springbootauth.enums.Role;
 import dev.feruzlabs.springbootauth.payload.ApiResponse;
+import dev.feruzlabs.springbootauth.services.userManager.UserExporter;
+import dev.feruzlabs.springbootauth.services.userManager.UserFileFormat;
+import dev.feruzlabs.springbootauth.services.userManager.UserImporter;
 import dev.feruzlabs.springbootauth.services.userManager.UserManagementService;
 import dev.feruzlabs.springbootauth.utils.SortUtils;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import lombok.Getter;
@@ -12,30 +20,126 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
 @RestController
 @RequestMapping("/api/users")
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RequiredArgsConstructor
 public class UserController {
     private final UserManagementService userManagementService;
+    private final UserExporter userExporter;
+    private final UserImporter userImporter;
 
     @GetMapping
     @PreAuthorize("hasAuthority('user:read')")
-    public ResponseEntity<ApiResponse<Page<UserResponse>>> getAllUsers(
+    public ResponseEntity<ApiResponse<?>> getAllUsers(
             @RequestParam(defaultValue = "0") @Min(0) int page,
             @RequestParam(defaultValue = "10") @Min(0) @Max(100) int size,
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "asc") String order,
-            @RequestParam(required = false) String filter
+            @RequestParam(required = false) String filter,
+            // offset (default) yoki cursor; cursor berilsa cursor rejim
+            @RequestParam(defaultValue = "offset") String paging,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean withTotal
     ) {
+        if ("cursor".equalsIgnoreCase(paging) || cursor != null) {
+            Sort.Direction direction = "desc".equalsIgnoreCase(order) ? Sort.Direction.DESC : Sort.Direction.ASC;
+            CursorPage<UserResponse> users = userManagementService.scrollUsers(cursor, Math.max(size, 1),
+                    sortBy, direction, withTotal);
+            return ResponseEntity.ok(ApiResponse.success(users, "Userlar muvofaqqiyatli olindi!"));
+        }
+
         Sort sort = SortUtils.buildSort(sortBy, order);
         Pageable pageable = PageRequest.of(page, size, sort);
         Page<UserResponse> users = userManagementService.getAllUsers(pageable, filter);
 
         return ResponseEntity.ok(ApiResponse.success(users, "Userlar muvofaqqiyatli olindi!"));
     }
+
+    /**
+     * Barcha userlarni oqim bilan eksport (NDJSON yoki CSV, ixtiyoriy gzip).
+     * Javob chunked - hajmi oldindan noma'lum, heap qator soniga bog'liq emas.
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasAuthority('user:read')")
+    public void exportUsers(@RequestParam(defaultValue = "ndjson") String format,
+                            @RequestParam(defaultValue = "false") boolean gzip,
+                            HttpServletResponse response) throws IOException {
+        UserFileFormat exportFormat = UserFileFormat.of(format);
+        response.setContentType(exportFormat.getMediaType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"users." + exportFormat.getExtension() + "\"");
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        try (OutputStream out = gzip
+                ? new GZIPOutputStream(response.getOutputStream(), 64 * 1024)
+                : new BufferedOutputStream(response.getOutputStream(), 64 * 1024)) {
+            userExporter.export(exportFormat, out);
+        }
+    }
+
+    /**
+     * Userlarni ommaviy import (so'rov tanasi - CSV yoki NDJSON oqimi, Content-Encoding: gzip bo'lishi mumkin).
+     * USER dan boshqa rollar faqat admin:write bilan. Xato qatorlar import ni to'xtatmaydi - natijada ro'yxati.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson", "application/octet-stream"})
+    @PreAuthorize("hasAuthority('user:write')")
+    public ResponseEntity<ApiResponse<UserImportResult>> importUsers(@RequestParam(required = false) String format,
+                                                                     HttpServletRequest request,
+                                                                     Authentication authentication) throws IOException {
+        // format parametri bo'lmasa Content-Type dan
+        String contentType = request.getContentType();
+        UserFileFormat importFormat = UserFileFormat.of(format != null ? format
+                : contentType != null && contentType.startsWith("text/csv") ? "csv" : "ndjson");
+        boolean allowPrivilegedRoles = authentication.getAuthorities().stream()
+                .anyMatch(authority -> "admin:write".equals(authority.getAuthority()));
+
+        InputStream body = request.getInputStream();
+        try (InputStream in = "gzip".equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING))
+                ? new GZIPInputStream(body, 64 * 1024)
+                : body) {
+            UserImportResult result = userImporter.importUsers(importFormat, in, allowPrivilegedRoles);
+            return ResponseEntity.ok(ApiResponse.success(result,
+                    result.getImported() + " ta user import qilindi, " + result.getFailed() + " ta xato"));
+        }
+    }
+
+    @PatchMapping("/{id}/status")
+    @PreAuthorize("hasAuthority('user:write')")
+    public ResponseEntity<ApiResponse<UserResponse>> updateStatus(@PathVariable Long id,
+                                                                  @RequestParam boolean enabled) {
+        return userManagementService.updateStatus(id, enabled)
+                .map(user -> ResponseEntity.ok(ApiResponse.success(user, "User statusi yangilandi")))
+                .orElseGet(() -> ResponseEntity.status(404).body(ApiResponse.error("User topilmadi")));
+    }
+
+    @PatchMapping("/{id}/role")
+    @PreAuthorize("hasAuthority('admin:write')")
+    public ResponseEntity<ApiResponse<UserResponse>> updateRole(@PathVariable Long id,
+                                                                @RequestParam Role role) {
+        return userManagementService.updateRole(id, role)
+                .map(user -> ResponseEntity.ok(ApiResponse.success(user, "User roli yangilandi")))
+                .orElseGet(() -> ResponseEntity.status(404).body(ApiResponse.error("User topilmadi")));
+    }
+
+    // Noto'g'ri cursor, cursor rejimda saralab bo'lmaydigan ustun yoki import CSV header i
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ApiResponse<Void>> handleBadCursor(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+    }
 }
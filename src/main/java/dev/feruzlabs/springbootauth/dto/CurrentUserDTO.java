@@ -5,11 +5,19 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
+import java.security.Principal;
+
 @Getter
 @Setter
 @Builder
 @ToString
-public class CurrentUserDTO {
+public class CurrentUserDTO implements Principal {
     public Long id;
     public String username;
+
+    // Authentication.getName() username qaytarishi uchun
+    @Override
+    public String getName() {
+        return username;
+    }
 }
@@ -0,0 +1,54 @@
+package dev.feruzlabs.springbootauth.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Bulk import faylining bitta qatori (CSV ustuni yoki NDJSON maydoni).
+ * password yoki passwordHash (tayyor BCrypt hash - qayta hashlanmaydi) dan biri bo'lishi kerak.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ImportUserRequest {
+    @NotBlank(message = "Username bo'sh bo'lishi mumkin emas")
+    @Size(min = 3, max = 50, message = "Username 3-50 ta belgi orasida bo'lishi kerak")
+    private String username;
+
+    @NotBlank(message = "Email bo'sh bo'lishi mumkin emas")
+    @Email(message = "Email formati noto'g'ri")
+    @Size(max = 100, message = "Email juda uzun")
+    private String email;
+
+    @Size(min = 6, max = 40, message = "Parol kamida 6 ta belgi bo'lishi kerak")
+    private String password;
+
+    private String passwordHash;
+
+    @Size(max = 50, message = "Ism juda uzun")
+    private String firstName;
+
+    @Size(max = 50, message = "Familiya juda uzun")
+    private String lastName;
+
+    // Bo'sh bo'lsa USER
+    private String role;
+
+    // Bo'sh bo'lsa true
+    private Boolean enabled;
+
+    @Override
+    public String toString() {
+        return "ImportUserRequest{" +
+                "username='" + username + '\'' +
+                ", email='" + email + '\'' +
+                ", role='" + role + '\'' +
+                '}';
+    }
+}
@@ -1,5 +1,6 @@
 package dev.feruzlabs.springbootauth.dto.request;
 
+import dev.feruzlabs.springbootauth.dto.validation.Utf8Size;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
 
@@ -14,4 +15,9 @@ public class LoginRequest {
 
     @NotBlank(message = "Parol bo'sh bo'lishi mumkin emas")
     private String password;
+
+    // Ixtiyoriy: bo'lmasa server yangi deviceId beradi (JwtResponse.deviceId).
+    // Chegara baytda: mapped-file store yozuvida deviceId uchun 64 bayt joy bor
+    @Utf8Size(max = 64, message = "deviceId UTF-8 da 64 baytdan oshmasligi kerak")
+    private String deviceId;
 }
@@ -0,0 +1,19 @@
+package dev.feruzlabs.springbootauth.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Keyset (cursor) sahifa. next - keyingi sahifa uchun opaque cursor, oxirgi sahifada null.
+ * total faqat so'ralganda hisoblanadi (COUNT(*) qimmat).
+ */
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private int size;
+    private String next;
+    private Long total;
+}
@@ -15,6 +15,7 @@ public class JwtResponse {
     private String username;
     private String role;
     private long expiresIn = 86400; // 24 hours in seconds
+    private String deviceId;
 
     // Constructors
     public JwtResponse(String token, String username, String role) {
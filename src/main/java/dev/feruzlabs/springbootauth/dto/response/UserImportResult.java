@@ -0,0 +1,32 @@
+package dev.feruzlabs.springbootauth.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Bulk import natijasi. errors users.import.max-errors ta bilan cheklanadi (errorsTruncated),
+ * failed esa barcha xato qatorlar soni.
+ */
+@Data
+@AllArgsConstructor
+public class UserImportResult {
+    private long total;
+    private long imported;
+    private long failed;
+    private List<RowError> errors;
+    private boolean errorsTruncated;
+    private long durationMs;
+
+    /**
+     * line - fayldagi qator raqami (CSV da header 1-qator)
+     */
+    @Data
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String username;
+        private String message;
+    }
+}
@@ -0,0 +1,21 @@
+package dev.feruzlabs.springbootauth.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * /api/auth/username/check javobi. success=true - username bo'sh; band bo'lsa suggestions da muqobillar.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class UsernameCheckResponse {
+    private String message;
+    private boolean success;
+    private List<String> suggestions;
+}
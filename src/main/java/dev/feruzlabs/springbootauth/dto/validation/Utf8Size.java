@@ -0,0 +1,27 @@
+package dev.feruzlabs.springbootauth.dto.validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Satrning UTF-8 dagi bayt uzunligi max dan oshmasin. @Size belgilarni sanaydi - qat'iy o'lchamli
+ * yozuvlarga (MappedFileRefreshTokenStore) tushadigan qiymatlar uchun bu yetarli emas. null o'tadi.
+ */
+@Target({ElementType.FIELD, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+@Constraint(validatedBy = Utf8SizeValidator.class)
+public @interface Utf8Size {
+
+    int max();
+
+    String message() default "UTF-8 da {max} baytdan oshmasligi kerak";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,25 @@
+package dev.feruzlabs.springbootauth.dto.validation;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+import java.nio.charset.StandardCharsets;
+
+public class Utf8SizeValidator implements ConstraintValidator<Utf8Size, CharSequence> {
+
+    private int max;
+
+    @Override
+    public void initialize(Utf8Size annotation) {
+        this.max = annotation.max();
+    }
+
+    @Override
+    public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
+        // Har belgi ko'pi bilan 4 bayt - qisqa qiymatlar uchun massiv yaratmaymiz
+        if (value == null || value.length() * 4L <= max) {
+            return true;
+        }
+        return value.length() <= max && value.toString().getBytes(StandardCharsets.UTF_8).length <= max;
+    }
+}
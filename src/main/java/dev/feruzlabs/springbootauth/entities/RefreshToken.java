@@ -1,5 +1,6 @@
 package dev.feruzlabs.springbootauth.entities;
 
+import dev.feruzlabs.springbootauth.utils.HashUtils;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -17,13 +18,21 @@ public class RefreshToken {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    // Bazada faqat SHA-256 saqlanadi; plaintext token faqat yaratilgan paytda client ga qaytariladi
+    @Column(name = "token_hash", nullable = false, unique = true, length = 32)
+    private byte[] tokenHash;
+
+    @Transient
     private String token;
 
     @ManyToOne
     @JoinColumn(name = "user_id", referencedColumnName = "id")
     private User user;
 
+    // Bir user ning har bir qurilmasi (web, mobile, ...) alohida sessiya qatoriga ega
+    @Column(name = "device_id", nullable = false, length = 64)
+    private String deviceId = "default";
+
     @Column(nullable = false)
     private LocalDateTime expiryDate;
 
@@ -33,9 +42,14 @@ public class RefreshToken {
     private boolean revoked = false;
 
     public RefreshToken(String token, User user, LocalDateTime expiryDate) {
-        this.token = token;
+        setToken(token);
         this.user = user;
         this.expiryDate = expiryDate;
     }
 
+    public void setToken(String token) {
+        this.token = token;
+        this.tokenHash = HashUtils.sha256(token);
+    }
+
 }
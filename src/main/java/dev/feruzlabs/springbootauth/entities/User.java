@@ -14,8 +14,13 @@ import java.time.LocalDateTime;
 @Setter
 public class User {
 
+    // users_id_seq INCREMENT BY bilan bir xil bo'lishi shart (v2/07 changeset)
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Pooled optimizer: bitta nextval() = 50 ta id, insertlar JDBC batch bo'la oladi
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id_seq")
+    @SequenceGenerator(name = "users_id_seq", sequenceName = "users_id_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(unique = true)
@@ -54,6 +59,10 @@ public class User {
     @Column(name = "account_locked_until")
     private LocalDateTime accountLockedUntil;
 
+    // Parol, rol yoki status o'zgarganda oshiriladi - eski access tokenlar yaroqsiz bo'ladi
+    @Column(name = "security_version", nullable = false)
+    private int securityVersion = 0;
+
     // JPA lifecycle callback - created_at ni avtomatik set qilish
     @PrePersist
     protected void onCreate() {
@@ -85,6 +94,10 @@ public class User {
         this.failedLoginAttempts = 0;
     }
 
+    public void bumpSecurityVersion() {
+        this.securityVersion++;
+    }
+
     public String getFullName() {
         if (firstName != null && lastName != null) {
             return firstName + " " + lastName;
@@ -0,0 +1,11 @@
+package dev.feruzlabs.springbootauth.enums;
+
+/**
+ * Audit buffer to'lganda request thread nima qiladi.
+ */
+public enum AuditOverflowPolicy {
+    // Event tashlanadi (auth.audit.dropped{reason=overflow}), request kutmaydi
+    DROP,
+    // security.audit.max-block gacha joy bo'shashini kutadi, keyin baribir tashlaydi
+    BLOCK
+}
@@ -0,0 +1,19 @@
+package dev.feruzlabs.springbootauth.enums;
+
+/**
+ * auth_events.event_type qiymatlari (AuthAuditLog).
+ */
+public enum AuthEventType {
+    LOGIN_SUCCESS,
+    // detail: unknown_user, disabled, locked, bad_password, rejected
+    LOGIN_FAILURE,
+    REFRESH,
+    // detail: not_found, expired, revoked, conflict
+    REFRESH_FAILURE,
+    // detail: token (bitta refresh token) yoki admin (rol/status o'zgarishi)
+    REVOKE,
+    LOGOUT,
+    LOGOUT_ALL,
+    PASSWORD_CHANGE,
+    PASSWORD_CHANGE_FAILURE
+}
@@ -0,0 +1,13 @@
+package dev.feruzlabs.springbootauth.enums;
+
+/**
+ * JwtAuthenticationFilter principal ni qayerdan oladi.
+ */
+public enum PrincipalMode {
+    // Har bir requestda userRepository.findByUsername
+    DATABASE,
+    // DB dan olinadi, lekin PrincipalCache orqali (TTL va hajm bilan cheklangan)
+    CACHED,
+    // Faqat tekshirilgan claimlardan, DB ga murojaat qilmasdan
+    STATELESS
+}
@@ -0,0 +1,18 @@
+package dev.feruzlabs.springbootauth.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Bitta access token (jti) logout bilan bekor qilindi.
+ * remote=true - boshqa node dan kelgan; qabul qiluvchi faqat xotiradagi denylist ga qo'shadi.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class AccessTokenRevokedEvent {
+    private final String tokenId;
+    private final long expiresAt;
+    private final boolean remote;
+}
@@ -0,0 +1,8 @@
+package dev.feruzlabs.springbootauth.events;
+
+/**
+ * Invalidation kanali uzilib qayta ulandi - oradagi xabarlar yo'qolgan bo'lishi mumkin.
+ * Tinglovchilar keshlarini tozalashi yoki DB dan to'liq qayta yuklashi kerak.
+ */
+public class InvalidationResyncEvent {
+}
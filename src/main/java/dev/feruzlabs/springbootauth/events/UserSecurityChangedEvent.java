@@ -0,0 +1,28 @@
+package dev.feruzlabs.springbootauth.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Instant;
+
+/**
+ * User ning xavfsizlik holati o'zgardi (parol, rol, status, logout-all).
+ * Tinglovchilar shu user bo'yicha keshlangan ma'lumotlarni yangilashi kerak.
+ * remote=true - boshqa node da sodir bo'lgan va InvalidationBus orqali kelgan o'zgarish.
+ * changedAt - o'zgarish sodir bo'lgan node dagi vaqt (remote event da ham o'sha node niki).
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class UserSecurityChangedEvent {
+    private final Long userId;
+    private final String username;
+    private final int securityVersion;
+    private final Instant changedAt;
+    private final boolean remote;
+
+    public UserSecurityChangedEvent(Long userId, String username, int securityVersion) {
+        this(userId, username, securityVersion, Instant.now(), false);
+    }
+}
@@ -1,28 +1,62 @@
 package dev.feruzlabs.springbootauth.repositories;
 
 import dev.feruzlabs.springbootauth.entities.RefreshToken;
-import dev.feruzlabs.springbootauth.entities.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
-    Optional<RefreshToken> findByToken(String token);
+    // token_hash unique index orqali - jadval hajmiga bog'liq emas
+    Optional<RefreshToken> findByTokenHash(byte[] tokenHash);
 
-    @Modifying
-    @Query("DELETE FROM RefreshToken rt WHERE rt.user = :user")
-    void deleteByUser(User user);
+    Optional<RefreshToken> findFirstByUserIdAndDeviceIdOrderByExpiryDateDesc(Long userId, String deviceId);
 
-    @Modifying
-    @Query("DELETE FROM RefreshToken rt WHERE rt.expiryDate < :now")
-    void deleteExpiredTokens(LocalDateTime now);
+    // Eng ko'p ishlatilgan (expiry eng kech) birinchi
+    @Query("SELECT rt FROM RefreshToken rt WHERE rt.user.id = :userId AND rt.revoked = false AND rt.expiryDate > :now " +
+            "ORDER BY rt.expiryDate DESC")
+    List<RefreshToken> findActiveSessions(Long userId, LocalDateTime now);
 
-    @Modifying
-    @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.user = :user")
-    void revokeAllUserTokens(User user);
+    long countByUserIdAndRevokedFalseAndExpiryDateAfter(Long userId, LocalDateTime now);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("DELETE FROM RefreshToken rt WHERE rt.user.id = :userId")
+    void deleteByUserId(Long userId);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("DELETE FROM RefreshToken rt WHERE rt.user.id = :userId AND rt.deviceId = :deviceId")
+    void deleteByUserIdAndDeviceId(Long userId, String deviceId);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.user.id = :userId")
+    void revokeAllByUserId(Long userId);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.id = :id AND rt.expiryDate = :expiryDate")
+    int revoke(Long id, LocalDateTime expiryDate);
+
+    /**
+     * Refresh rotation - compare-and-set: eski hash o'rnida va revoke qilinmagan bo'lsagina.
+     * oldExpiry shart partition pruning uchun (jadval expiry_date bo'yicha partitionlangan).
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE RefreshToken rt SET rt.tokenHash = :newHash, rt.expiryDate = :newExpiry " +
+            "WHERE rt.id = :id AND rt.expiryDate = :oldExpiry AND rt.tokenHash = :oldHash AND rt.revoked = false")
+    int rotate(Long id, LocalDateTime oldExpiry, byte[] oldHash, byte[] newHash, LocalDateTime newExpiry);
+
+    // Shu device ga qayta login - sessiya qatori qayta ishlatiladi
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE RefreshToken rt SET rt.tokenHash = :newHash, rt.expiryDate = :newExpiry, rt.revoked = false " +
+            "WHERE rt.id = :id AND rt.expiryDate = :oldExpiry")
+    int reissue(Long id, LocalDateTime oldExpiry, byte[] newHash, LocalDateTime newExpiry);
+
+    // [expiry daqiqasi, soni] - ActiveSessionCounter resync uchun
+    @Query(value = "SELECT date_trunc('minute', expiry_date) AS expiry_minute, COUNT(*) FROM refresh_tokens " +
+            "WHERE revoked = false AND expiry_date > :now GROUP BY expiry_minute", nativeQuery = true)
+    List<Object[]> countActiveByExpiryMinute(LocalDateTime now);
 }
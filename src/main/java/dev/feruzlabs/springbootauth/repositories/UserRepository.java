@@ -2,12 +2,17 @@ package dev.feruzlabs.springbootauth.repositories;
 
 import dev.feruzlabs.springbootauth.entities.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
     Optional<User> findByUsername(String username);
 
     Optional<User> findByEmail(String email);
@@ -15,4 +20,30 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Boolean existsByUsername(String username);
 
     Boolean existsByEmail(String email);
+
+    // uq_users_username_lower index bilan bir xil normalizatsiya (IgnoreCase upper() ishlatadi - index ga tushmaydi)
+    @Query("SELECT COUNT(u) > 0 FROM User u WHERE lower(u.username) = lower(:username)")
+    boolean existsByUsernameNormalized(@Param("username") String username);
+
+    // [id, securityVersion] - faqat version oshirilgan userlar
+    @Query("SELECT u.id, u.securityVersion FROM User u WHERE u.securityVersion > 0")
+    List<Object[]> findNonZeroSecurityVersions();
+
+    // Login dagi rehash uchun - butun entity ni save qilmasdan faqat parol ustuni
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
+
+    // Parol o'zgarishi: last_login_*, failed_login_attempts, account_locked_until ga tegmaydi
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password, u.securityVersion = u.securityVersion + 1 WHERE u.id = :id")
+    int updatePasswordAndBumpVersion(@Param("id") Long id, @Param("password") String password);
+
+    // Bazada oshiriladi - parallel login yozgan ustunlar eski entity bilan ustidan yozilmaydi
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.securityVersion = u.securityVersion + 1 WHERE u.id = :id")
+    int bumpSecurityVersion(@Param("id") Long id);
 }
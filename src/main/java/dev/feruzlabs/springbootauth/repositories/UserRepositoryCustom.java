@@ -0,0 +1,15 @@
+package dev.feruzlabs.springbootauth.repositories;
+
+import dev.feruzlabs.springbootauth.entities.User;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Keyset sahifa: {@code WHERE (sort, id) > (:value, :id) ORDER BY sort, id LIMIT :limit} (DESC da {@code <}).
+     * afterId null bo'lsa birinchi sahifa. sortBy - entity property (id, username, email, createdAt).
+     */
+    List<User> findPageAfter(String sortBy, Sort.Direction direction, Object afterValue, Long afterId, int limit);
+}
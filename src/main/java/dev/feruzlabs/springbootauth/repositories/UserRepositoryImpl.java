@@ -0,0 +1,61 @@
+package dev.feruzlabs.springbootauth.repositories;
+
+import dev.feruzlabs.springbootauth.entities.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spring Data keyset scroll (sort, id) > (v, id) ni {@code sort > v OR (sort = v AND id > id)} ga yoyadi -
+ * planner uni indeks diapazoni sifatida ishlata olmaydi. Bu yerda row-value taqqoslash: bitta index seek.
+ */
+class UserRepositoryImpl implements UserRepositoryCustom {
+
+    // Property -> ustun; SQL ga faqat shu ro'yxatdagi nomlar qo'shiladi
+    private static final Map<String, String> COLUMNS = Map.of(
+            "id", "id",
+            "username", "username",
+            "email", "email",
+            "createdAt", "created_at");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<User> findPageAfter(String sortBy, Sort.Direction direction, Object afterValue, Long afterId, int limit) {
+        String column = COLUMNS.get(sortBy);
+        if (column == null) {
+            throw new IllegalArgumentException("Saralab bo'lmaydigan ustun: " + sortBy);
+        }
+        boolean byId = "id".equals(column);
+        String order = direction.isAscending() ? "ASC" : "DESC";
+        String comparison = direction.isAscending() ? ">" : "<";
+
+        StringBuilder sql = new StringBuilder("SELECT u.* FROM users u");
+        if (afterId != null) {
+            sql.append(byId
+                    ? " WHERE u.id " + comparison + " :id"
+                    : " WHERE (u." + column + ", u.id) " + comparison + " (:value, :id)");
+        }
+        sql.append(" ORDER BY u.").append(column).append(' ').append(order);
+        if (!byId) {
+            sql.append(", u.id ").append(order);
+        }
+        sql.append(" LIMIT :limit");
+
+        Query query = entityManager.createNativeQuery(sql.toString(), User.class);
+        if (afterId != null) {
+            query.setParameter("id", afterId);
+            if (!byId) {
+                query.setParameter("value", afterValue);
+            }
+        }
+        query.setParameter("limit", limit);
+        return query.getResultList();
+    }
+}
@@ -0,0 +1,217 @@
+package dev.feruzlabs.springbootauth.securities;
+
+import dev.feruzlabs.springbootauth.events.AccessTokenRevokedEvent;
+import dev.feruzlabs.springbootauth.events.InvalidationResyncEvent;
+import dev.feruzlabs.springbootauth.events.UserSecurityChangedEvent;
+import dev.feruzlabs.springbootauth.utils.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bekor qilingan access tokenlar ro'yxati. Filter har requestda DB siz, O(1) tekshiradi:
+ * <ul>
+ *   <li>jti bo'yicha - oldida Bloom filter (deyarli barcha tokenlar shu yerda "yo'q" deb o'tadi),
+ *   orqasida aniq jti -> exp xaritasi. Yozuv token exp vaqtida o'z-o'zidan o'chadi.</li>
+ *   <li>user bo'yicha "revoked-before" - shu soniyadan oldin berilgan barcha tokenlar.</li>
+ * </ul>
+ * jti lar revoked_access_tokens jadvaliga ham yoziladi va startup da yuklanadi (logout restartdan keyin ham amal qiladi).
+ * revoked-before faqat xotirada: restartdan keyin bu tokenlarni security version rad etadi.
+ */
+@Component
+public class AccessTokenDenylist {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessTokenDenylist.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${security.denylist.expected-entries:100000}")
+    private long expectedEntries;
+
+    @Value("${security.denylist.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    // Eng uzun access token umri - revoked-before yozuvlari shundan keyin keraksiz
+    @Value("${jwt.expiration}")
+    private long jwtExpiration;
+
+    // jti -> exp (epoch ms)
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    // userId -> shu vaqtdan (epoch ms, soniyaga yaxlitlangan) oldin berilgan tokenlar yaroqsiz
+    private final Map<Long, Long> revokedBefore = new ConcurrentHashMap<>();
+
+    private volatile BloomFilter filter;
+    private long filterCapacity;
+
+    // Qo'shish parallel (read lock); filter qayta qurilayotganda qo'shish kutadi (write lock)
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    private Counter rejected;
+
+    @PostConstruct
+    void init() {
+        this.filterCapacity = expectedEntries;
+        this.filter = new BloomFilter(filterCapacity, falsePositiveRate);
+        this.rejected = meterRegistry.counter("auth.denylist.rejected");
+        meterRegistry.gaugeMapSize("auth.denylist.size", Tags.empty(), revoked);
+    }
+
+    /**
+     * Restartdan oldin (yoki kanal uzilgan paytda boshqa node da) logout qilingan,
+     * hali muddati o'tmagan tokenlarni yuklash
+     */
+    @EventListener({ApplicationReadyEvent.class, InvalidationResyncEvent.class})
+    public void load() {
+        jdbcTemplate.query("SELECT jti, expires_at FROM revoked_access_tokens WHERE expires_at > ?",
+                rs -> {
+                    add(rs.getString(1), rs.getTimestamp(2).getTime());
+                },
+                new Timestamp(System.currentTimeMillis()));
+        log.info("Access token denylist loaded: {} tokens", revoked.size());
+    }
+
+    /**
+     * Filter uchun: token bekor qilinganmi
+     */
+    public boolean isRevoked(VerifiedToken token) {
+        if (token.getUserId() != null && token.getIssuedAt() != null) {
+            Long before = revokedBefore.get(token.getUserId());
+            if (before != null && token.getIssuedAt().getTime() < before) {
+                rejected.increment();
+                return true;
+            }
+        }
+        String jti = token.getTokenId();
+        if (jti == null || !filter.mightContain(jti)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(jti);
+        if (expiresAt != null && expiresAt > System.currentTimeMillis()) {
+            rejected.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Bitta access tokenni (logout) exp vaqtigacha bekor qilish
+     */
+    public void revoke(VerifiedToken token) {
+        if (token.getTokenId() == null || token.getExpiration() == null) {
+            return;
+        }
+        long expiresAt = token.getExpiration().getTime();
+        if (expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+        add(token.getTokenId(), expiresAt);
+        try {
+            jdbcTemplate.update("INSERT INTO revoked_access_tokens (jti, expires_at) VALUES (?, ?)",
+                    token.getTokenId(), new Timestamp(expiresAt));
+        } catch (DuplicateKeyException e) {
+            // Shu token allaqachon bekor qilingan
+        }
+        // Boshqa node lar InvalidationBus orqali oladi
+        eventPublisher.publishEvent(new AccessTokenRevokedEvent(token.getTokenId(), expiresAt, false));
+    }
+
+    // Boshqa node da logout qilingan token - DB ga u node yozgan, bu yerda faqat xotiraga
+    @EventListener
+    public void onAccessTokenRevoked(AccessTokenRevokedEvent event) {
+        if (event.isRemote() && event.getExpiresAt() > System.currentTimeMillis()) {
+            add(event.getTokenId(), event.getExpiresAt());
+        }
+    }
+
+    /**
+     * User ning hozirgacha berilgan barcha access tokenlarini bekor qilish.
+     * JWT iat soniya aniqligida: shu soniyada keyinroq berilgan token (qayta login) amal qiladi,
+     * shu soniyada oldinroq berilgani esa security version bilan rad etiladi.
+     */
+    public void revokeAllBefore(Long userId, Instant instant) {
+        long before = instant.getEpochSecond() * 1000;
+        revokedBefore.merge(userId, before, Math::max);
+    }
+
+    // Remote event da ham chegara o'zgarish bo'lgan node vaqti - xabar kechiksa ham undan keyin
+    // qayta login qilib olingan tokenlar bu node da rad etilmaydi
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserSecurityChanged(UserSecurityChangedEvent event) {
+        revokeAllBefore(event.getUserId(), event.getChangedAt());
+    }
+
+    /**
+     * Muddati o'tgan yozuvlarni o'chirish va Bloom filterni tirik jti lardan qayta qurish
+     */
+    @Scheduled(fixedDelayString = "${security.denylist.sweep-interval:PT1M}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        boolean removed = revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        revokedBefore.values().removeIf(before -> before + jwtExpiration <= now);
+        if (removed || revoked.size() > filterCapacity) {
+            rebuildFilter();
+        }
+        jdbcTemplate.update("DELETE FROM revoked_access_tokens WHERE expires_at <= ?", new Timestamp(now));
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    private void add(String jti, long expiresAt) {
+        rebuildLock.readLock().lock();
+        try {
+            // Avval aniq xaritaga, keyin filterga - filter "bor" desa xaritada albatta bo'ladi
+            revoked.put(jti, expiresAt);
+            filter.put(jti);
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+        if (revoked.size() > filterCapacity) {
+            rebuildFilter();
+        }
+    }
+
+    private void rebuildFilter() {
+        rebuildLock.writeLock().lock();
+        try {
+            // To'lib qolsa sig'im ikki baravar; false-positive-rate saqlanadi
+            while (revoked.size() > filterCapacity) {
+                filterCapacity *= 2;
+            }
+            BloomFilter rebuilt = new BloomFilter(filterCapacity, falsePositiveRate);
+            revoked.keySet().forEach(rebuilt::put);
+            filter = rebuilt;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package dev.feruzlabs.springbootauth.securities;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cost (work factor) startup da joriy serverda o'lchab tanlanadigan (yoki security.password.cost bilan
+ * qat'iy berilgan) BCrypt encoder. upgradeEncoding() saqlangan cost [strength, strength + 1] oralig'idan
+ * tashqarida bo'lsagina true qaytaradi: bir cost farq qilgan node lar bir-birining hashini login da
+ * qayta-qayta yozib turmaydi, lekin eski past cost lar baribir ko'tariladi.
+ */
+public class CalibratedBCryptPasswordEncoder implements PasswordEncoder {
+
+    private static final Logger log = LoggerFactory.getLogger(CalibratedBCryptPasswordEncoder.class);
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[aby]?\\$(\\d{2})\\$");
+    // Har cost uchun o'lchovlar soni - median bitta shovqinli o'lchovga bog'liq bo'lmasin
+    private static final int SAMPLES = 5;
+
+    private final int strength;
+    private final BCryptPasswordEncoder delegate;
+
+    public CalibratedBCryptPasswordEncoder(int strength) {
+        this.strength = strength;
+        this.delegate = new BCryptPasswordEncoder(strength);
+    }
+
+    /**
+     * Bitta hash targetLatency dan oshmaydigan eng katta cost ni tanlaydi (minCost..maxCost oralig'ida).
+     * Har cost SAMPLES marta o'lchanib median olinadi. BCrypt vaqti har cost da ikki barobar oshadi,
+     * shuning uchun target dan o'tgan zahoti to'xtaymiz.
+     * Natija node va restart ga qarab bir pog'ona siljishi mumkin - bir nechta node da security.password.cost
+     * bilan qat'iy belgilash kerak.
+     */
+    public static CalibratedBCryptPasswordEncoder calibrate(Duration targetLatency, int minCost, int maxCost) {
+        // JIT isinishi uchun
+        new BCryptPasswordEncoder(4).encode("calibration");
+
+        int chosen = minCost;
+        for (int cost = minCost; cost <= maxCost; cost++) {
+            Duration elapsed = median(cost);
+            log.debug("BCrypt cost {} -> {} ms", cost, elapsed.toMillis());
+
+            if (elapsed.compareTo(targetLatency) > 0) {
+                break;
+            }
+            chosen = cost;
+            // Keyingi cost taxminan 2x: target dan aniq oshadigan bo'lsa o'lchab o'tirmaymiz
+            if (elapsed.multipliedBy(2).compareTo(targetLatency) > 0) {
+                break;
+            }
+        }
+        log.info("BCrypt cost {} tanlandi (target {} ms)", chosen, targetLatency.toMillis());
+        return new CalibratedBCryptPasswordEncoder(chosen);
+    }
+
+    private static Duration median(int cost) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return Duration.ofNanos(samples[SAMPLES / 2]);
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        if (!matcher.find()) {
+            return true;
+        }
+        int stored = Integer.parseInt(matcher.group(1));
+        return stored < strength || stored > strength + 1;
+    }
+}
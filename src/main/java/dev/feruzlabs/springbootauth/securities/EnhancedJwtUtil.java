@@ -4,35 +4,53 @@ import dev.feruzlabs.springbootauth.entities.User;
 import dev.feruzlabs.springbootauth.enums.Permission;
 import dev.feruzlabs.springbootauth.enums.TokenType;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.nio.charset.StandardCharsets;
-import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
 
 @Component
 public class EnhancedJwtUtil {
 
 //    private final Key secretKey = Keys.secretKeyFor(SignatureAlgorithm.HS512);
 
-    @Value("${jwt.secret}")
-    private String secretKey;
-
     @Value("${jwt.expiration}")
     private int jwtExpiration;
 
     @Value("${jwt.refreshToken.expiration}")
     private int jwtRefreshTokenExpiration;
 
+    @Autowired(required = false)
+    private VerifiedTokenCache verifiedTokenCache;
+
+    // Imzolash/tekshirish kalitlari (HS512 yoki kid bo'yicha RS256/ES256)
+    @Autowired
+    private JwtKeyRing keyRing;
+
+    // Parser bir marta yaratiladi, har bir requestda qayta qurilmaydi (thread-safe)
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void init() {
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(keyRing)
+                .build();
+    }
+
     // User object dan token yaratish
     public String generateToken(User user) {
+        return generateToken(user, null);
+    }
+
+    // deviceId bo'lsa "did" claim qo'shiladi
+    public String generateToken(User user, String deviceId) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", user.getId());
         claims.put("email", user.getEmail());
@@ -40,13 +58,12 @@ public class EnhancedJwtUtil {
         claims.put("permissions", user.getRole().getPermissions().stream()
                 .map(Permission::getPermission).toList());
         claims.put("tokenType", TokenType.ACCESS_TOKEN.name());
+        claims.put("sv", user.getSecurityVersion());
+        if (deviceId != null) {
+            claims.put("did", deviceId);
+        }
 
-        return createToken(claims, user.getUsername());
-    }
-
-    private Key getSigningKey() {
-        byte[] keyBytes = secretKey.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return createToken(claims, user.getUsername(), jwtExpiration);
     }
 
     // Refresh token yaratish
@@ -55,80 +72,82 @@ public class EnhancedJwtUtil {
         claims.put("userId", user.getId());
         claims.put("tokenType", TokenType.REFRESH_TOKEN.name());
 
-        return Jwts.builder()
-                .setClaims(claims)
-                .setSubject(user.getUsername())
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + jwtRefreshTokenExpiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
-                .compact();
+        return createToken(claims, user.getUsername(), jwtRefreshTokenExpiration);
     }
 
-    private <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = getAllClaimsFromToken(token);
-        return claimsResolver.apply(claims);
+    /**
+     * Tokenni bir marta parse qilib, imzo va muddatini tekshiradi.
+     * Token yaroqsiz yoki muddati o'tgan bo'lsa JwtException tashlanadi.
+     * VerifiedTokenCache yoqilgan bo'lsa bir xil token qayta tekshirilmaydi.
+     */
+    public VerifiedToken verify(String token) {
+        if (verifiedTokenCache != null && verifiedTokenCache.isEnabled()) {
+            return verifiedTokenCache.get(token, this::parse);
+        }
+        return parse(token);
+    }
+
+    VerifiedToken parse(String token) {
+        return VerifiedToken.from(getAllClaimsFromToken(token));
     }
 
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return jwtParser.parseClaimsJws(token).getBody();
     }
 
     // Token dan ma'lumot olish methodlari
     public String getUsernameFromToken(String token) {
-        return getClaimFromToken(token, Claims::getSubject);
+        return verify(token).getSubject();
     }
 
     public Long getUserIdFromToken(String token) {
-        return getClaimFromToken(token, claims -> claims.get("userId", Long.class));
+        return verify(token).getUserId();
     }
 
     public String getRoleFromToken(String token) {
-        return getClaimFromToken(token, claims -> claims.get("role", String.class));
+        VerifiedToken verified = verify(token);
+        return verified.getRole() != null ? verified.getRole().name() : null;
     }
 
     public String getEmailFromToken(String token) {
-        return getClaimFromToken(token, claims -> claims.get("email", String.class));
+        return getAllClaimsFromToken(token).get("email", String.class);
     }
 
     public String getTokenTypeFromToken(String token) {
-        return getClaimFromToken(token, claims -> claims.get("tokenType", String.class));
+        VerifiedToken verified = verify(token);
+        return verified.getTokenType() != null ? verified.getTokenType().name() : null;
     }
 
-
-    private String createToken(Map<String, Object> claims, String subject) {
-        return Jwts.builder()
+    String createToken(Map<String, Object> claims, String subject, long expirationMillis) {
+        long now = System.currentTimeMillis();
+        JwtKeyRing.SigningKey key = keyRing.current();
+        var builder = Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
-                .compact();
+                .setId(UUID.randomUUID().toString())
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + expirationMillis));
+        if (key.getKid() != null) {
+            builder.setHeaderParam("kid", key.getKid());
+        }
+        return builder.signWith(key.getSigningKey(), key.getAlgorithm()).compact();
     }
 
     public Boolean isRefreshToken(String token) {
-        return "REFRESH_TOKEN".equals(getTokenTypeFromToken(token));
+        return verify(token).isRefreshToken();
     }
 
     // Token validation
     public Boolean validateToken(String token, String username) {
-        final String tokenUsername = getUsernameFromToken(token);
-        return (tokenUsername.equals(username) && !isTokenExpired(token));
+        return validateToken(verify(token), username);
     }
 
-    public Boolean validateRefreshToken(String token, String username) {
-        return validateToken(token, username) && isRefreshToken(token);
-    }
-
-    private Boolean isTokenExpired(String token) {
-        final Date expiration = getExpirationDateFromToken(token);
-        return expiration.before(new Date());
+    public boolean validateToken(VerifiedToken token, String username) {
+        return token.getSubject().equals(username) && !token.isExpired();
     }
 
-    private Date getExpirationDateFromToken(String token) {
-        return getClaimFromToken(token, Claims::getExpiration);
+    public Boolean validateRefreshToken(String token, String username) {
+        VerifiedToken verified = verify(token);
+        return validateToken(verified, username) && verified.isRefreshToken();
     }
 }
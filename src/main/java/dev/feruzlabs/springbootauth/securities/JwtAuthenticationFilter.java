@@ -1,13 +1,18 @@
 package dev.feruzlabs.springbootauth.securities;
 
 import dev.feruzlabs.springbootauth.dto.CurrentUserDTO;
-import dev.feruzlabs.springbootauth.entities.User;
+import dev.feruzlabs.springbootauth.enums.PrincipalMode;
 import dev.feruzlabs.springbootauth.enums.Role;
 import dev.feruzlabs.springbootauth.repositories.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -19,9 +24,16 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Metrikalar: auth.filter.stage{stage=extract|verify|revocation|lookup|authorities} - har bosqich vaqti,
+ * auth.filter.requests{mode, outcome} - token bor/yo'q, rad etilgan yoki authentication o'rnatilgan.
+ */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
@@ -30,6 +42,37 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private SecurityVersionRegistry securityVersionRegistry;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private AccessTokenDenylist accessTokenDenylist;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // DATABASE - har requestda DB, CACHED - PrincipalCache orqali, STATELESS - faqat token claimlaridan
+    @Value("${jwt.filter.mode:DATABASE}")
+    private PrincipalMode principalMode;
+
+    private Timer extractTimer;
+    private Timer verifyTimer;
+    private Timer revocationTimer;
+    private Timer lookupTimer;
+    private Timer authoritiesTimer;
+    private final Map<Outcome, Counter> outcomes = new EnumMap<>(Outcome.class);
+
+    private enum Outcome {
+        AUTHENTICATED, NO_TOKEN, INVALID_TOKEN, REVOKED, REJECTED, ALREADY_AUTHENTICATED;
+
+        String tag() {
+            return name().toLowerCase();
+        }
+    }
+
     // Skip qilinadigan yo'llar
     private final List<String> skipPaths = List.of(
             "/swagger-ui",
@@ -37,75 +80,158 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             "/swagger-resources",
             "/webjars",
             "/configuration",
-            "/favicon.ico"
+            "/favicon.ico",
+            "/.well-known"
     );
 
+    @PostConstruct
+    void init() {
+        this.extractTimer = stageTimer("extract");
+        this.verifyTimer = stageTimer("verify");
+        this.revocationTimer = stageTimer("revocation");
+        this.lookupTimer = stageTimer("lookup");
+        this.authoritiesTimer = stageTimer("authorities");
+        for (Outcome outcome : Outcome.values()) {
+            outcomes.put(outcome, meterRegistry.counter("auth.filter.requests",
+                    "mode", principalMode.name().toLowerCase(), "outcome", outcome.tag()));
+        }
+    }
+
+    private Timer stageTimer(String stage) {
+        return Timer.builder("auth.filter.stage").tag("stage", stage).register(meterRegistry);
+    }
+
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
         String path = request.getRequestURI();
-        boolean shouldSkip = skipPaths.stream().anyMatch(path::startsWith);
-        logger.info("Path: " + path + ", Should skip filter: " + shouldSkip);
-        return shouldSkip;
+        return skipPaths.stream().anyMatch(path::startsWith);
     }
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
                                     @NonNull HttpServletResponse response,
                                     @NonNull FilterChain filterChain) throws ServletException, IOException {
-        logger.info("JWT Filter ishlamoqda: " + request.getRequestURI());
-
+        long started = System.nanoTime();
         final String authorizationHeader = request.getHeader("Authorization");
 
         String username = null;
         String jwt = null;
+        VerifiedToken verifiedToken = null;
+        Outcome outcome;
 
         // Authorization header dan token olish
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
             jwt = authorizationHeader.substring(7);
-            logger.info("JWT token topildi: " + jwt.substring(0, Math.min(20, jwt.length())) + "...");
+            started = record(extractTimer, started);
             try {
-                username = jwtUtil.getUsernameFromToken(jwt);
-                logger.info("Username extracted: " + username);
+                // Imzo va muddat shu yerda bir marta tekshiriladi
+                verifiedToken = jwtUtil.verify(jwt);
+                username = verifiedToken.getSubject();
             } catch (Exception e) {
-                logger.error("JWT token dan username olib bo'lmadi: " + e.getMessage(), e);
+                // Yaroqsiz token - client xatosi, soni auth.filter.requests{outcome=invalid_token} da
+                if (logger.isDebugEnabled()) {
+                    logger.debug("JWT token rad etildi: " + e.getMessage());
+                }
             }
+            started = record(verifyTimer, started);
+            outcome = username != null ? Outcome.AUTHENTICATED : Outcome.INVALID_TOKEN;
         } else {
-            logger.info("Authorization header yo'q yoki noto'g'ri format");
+            record(extractTimer, started);
+            outcome = Outcome.NO_TOKEN;
         }
 
-        // Token to'g'ri bo'lsa, Spring Security context ga qo'shish
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            logger.info("Username mavjud, user ni qidirayapmiz: " + username);
-
-            Optional<User> userOpt = userRepository.findByUsername(username);
-
-            if (userOpt.isPresent()) {
-                logger.info("User topildi: " + userOpt.get().getUsername());
-                if (jwtUtil.validateToken(jwt, username)) {
-                    logger.info("Token valid, authentication o'rnatilayapti");
-                    User user = userOpt.get();
-                    CurrentUserDTO userDTO = CurrentUserDTO.builder().username(user.getUsername()).id(user.getId()).build();
-
-                    UsernamePasswordAuthenticationToken authToken =
-                            new UsernamePasswordAuthenticationToken(
-                                    userDTO,
-                                    null,
-                                    user.getRole().getSimpleGrantedAuthority()
-                            );
-
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                    logger.info("Authentication muvaffaqiyatli o'rnatildi");
-                } else {
-                    logger.error("Token invalid");
+        // Logout qilingan token - barcha rejimlarda DB siz rad etiladi
+        if (username != null) {
+            boolean revoked = accessTokenDenylist.isRevoked(verifiedToken);
+            started = record(revocationTimer, started);
+            if (revoked) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Token bekor qilingan: " + username);
                 }
+                username = null;
+                outcome = Outcome.REVOKED;
+            }
+        }
+
+        // Token to'g'ri bo'lsa, Spring Security context ga qo'shish
+        if (username != null) {
+            if (SecurityContextHolder.getContext().getAuthentication() != null) {
+                outcome = Outcome.ALREADY_AUTHENTICATED;
+            } else if (principalMode == PrincipalMode.STATELESS && verifiedToken.hasPrincipalClaims()) {
+                outcome = authenticateFromClaims(verifiedToken, started);
             } else {
-                logger.error("User topilmadi: " + username);
+                outcome = authenticateFromDatabase(verifiedToken, username, started);
             }
         }
+        outcomes.get(outcome).increment();
 
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Stateless rejim: CurrentUserDTO va authoritylar tekshirilgan claimlardan quriladi.
+     * Parol/rol/status o'zgarishi security version orqali eski tokenlarni bekor qiladi.
+     */
+    private Outcome authenticateFromClaims(VerifiedToken verifiedToken, long started) {
+        boolean current = securityVersionRegistry.isCurrent(verifiedToken.getUserId(), verifiedToken.getSecurityVersion());
+        started = record(lookupTimer, started);
+        if (!current) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Token security version eskirgan: " + verifiedToken.getSubject());
+            }
+            return Outcome.REJECTED;
+        }
+
+        CurrentUserDTO userDTO = CurrentUserDTO.builder()
+                .username(verifiedToken.getSubject())
+                .id(verifiedToken.getUserId())
+                .build();
+        setAuthentication(userDTO, verifiedToken.getRole().getSimpleGrantedAuthority(), verifiedToken);
+        record(authoritiesTimer, started);
+        return Outcome.AUTHENTICATED;
+    }
+
+    private Outcome authenticateFromDatabase(VerifiedToken verifiedToken, String username, long started) {
+        Optional<UserPrincipal> userOpt = principalMode == PrincipalMode.CACHED
+                ? principalCache.get(username)
+                : userRepository.findByUsername(username).map(UserPrincipal::from);
+        started = record(lookupTimer, started);
+
+        if (userOpt.isPresent()) {
+            UserPrincipal user = userOpt.get();
+            if (jwtUtil.validateToken(verifiedToken, username)
+                    && verifiedToken.getSecurityVersion() >= user.getSecurityVersion()
+                    && user.isEnabled() && user.isAccountNonLocked()) {
+                CurrentUserDTO userDTO = CurrentUserDTO.builder().username(user.getUsername()).id(user.getId()).build();
+                setAuthentication(userDTO, user.getRole().getSimpleGrantedAuthority(), verifiedToken);
+                record(authoritiesTimer, started);
+                return Outcome.AUTHENTICATED;
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug("Token invalid: " + username);
+            }
+        } else if (logger.isDebugEnabled()) {
+            logger.debug("User topilmadi: " + username);
+        }
+        return Outcome.REJECTED;
+    }
+
+    // Bosqich vaqtini yozadi va keyingi bosqich boshlanish vaqtini qaytaradi
+    private static long record(Timer timer, long started) {
+        long now = System.nanoTime();
+        timer.record(now - started, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    // Details da tekshirilgan token turadi - logout va boshqalar claimlarni qayta parse qilmaydi
+    private void setAuthentication(CurrentUserDTO userDTO, Collection<? extends GrantedAuthority> authorities,
+                                   VerifiedToken verifiedToken) {
+        UsernamePasswordAuthenticationToken authToken =
+                new UsernamePasswordAuthenticationToken(userDTO, null, authorities);
+        authToken.setDetails(verifiedToken);
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
+
     private Collection<? extends GrantedAuthority> getAuthorities(Role role) {
         return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
     }
@@ -0,0 +1,378 @@
+package dev.feruzlabs.springbootauth.securities;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.*;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * JWT imzolash kalitlari to'plami.
+ * <p>
+ * HS512 - jwt.secret bilan (oldingidek, kid siz). RS256/ES256 - kalit juftliklari, har biri o'z kid siga ega.
+ * Yangi kalit avval faqat JWKS da e'lon qilinadi va reload-interval + JWKS max-age o'tgach imzolashni boshlaydi -
+ * shu vaqtgacha boshqa instance lar va JWKS keshlovchi servislar uni ko'rib bo'ladi. Eski kalitlar vorisi
+ * imzolay boshlagandan keyin jwt.expiration davomida faqat tekshirish uchun saqlanadi.
+ * jwt.signing.key-dir berilsa kalitlar PEM fayl sifatida saqlanadi (bir nechta instance bir xil papkani
+ * ko'radi), aks holda faqat xotirada. Rotatsiya restart siz, scheduled job orqali.
+ * <p>
+ * kid siz (HS512 davridagi) tokenlar asimmetrik rejim yoqilgandan keyin faqat bitta jwt.expiration davomida
+ * jwt.secret bilan tekshiriladi, keyin rad etiladi.
+ */
+@Component
+public class JwtKeyRing extends SigningKeyResolverAdapter {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtKeyRing.class);
+    private static final DateTimeFormatter KID_TIME = DateTimeFormatter.ofPattern("yyyyMMddHHmmss").withZone(ZoneOffset.UTC);
+
+    @Value("${jwt.secret}")
+    private String secretKey;
+
+    @Value("${jwt.expiration}")
+    private long jwtExpiration;
+
+    @Value("${jwt.signing.algorithm:HS512}")
+    private SignatureAlgorithm algorithm;
+
+    @Value("${jwt.signing.key-dir:}")
+    private String keyDir;
+
+    @Value("${jwt.signing.rotation-interval:7d}")
+    private Duration rotationInterval;
+
+    @Value("${jwt.signing.reload-interval:PT1M}")
+    private Duration reloadInterval;
+
+    // JwksController Cache-Control max-age
+    @Value("${jwt.jwks.max-age:5m}")
+    private Duration jwksMaxAge;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Key legacyHmacKey;
+
+    // Asimmetrik rejimda kid siz tokenlar shu paytgacha qabul qilinadi
+    private Instant legacyAcceptedUntil;
+
+    // O'zgarmas snapshot; rotatsiyada butunlay almashtiriladi (lock siz o'qish)
+    private volatile State state;
+
+    @PostConstruct
+    void init() {
+        if (algorithm != SignatureAlgorithm.HS512 && algorithm != SignatureAlgorithm.RS256
+                && algorithm != SignatureAlgorithm.ES256) {
+            throw new IllegalStateException("Qo'llab-quvvatlanmaydigan jwt.signing.algorithm: " + algorithm);
+        }
+        this.legacyHmacKey = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        if (isAsymmetric()) {
+            rotate();
+            this.legacyAcceptedUntil = asymmetricSince().plusMillis(jwtExpiration);
+            log.info("kid siz (HS512) tokenlar {} gacha qabul qilinadi", legacyAcceptedUntil);
+        } else {
+            this.state = new State(new SigningKey(null, algorithm, legacyHmacKey, legacyHmacKey, Instant.EPOCH),
+                    List.of(), "{\"keys\":[]}");
+        }
+    }
+
+    public boolean isAsymmetric() {
+        return algorithm != SignatureAlgorithm.HS512;
+    }
+
+    public SigningKey current() {
+        return state.current;
+    }
+
+    public Duration getJwksMaxAge() {
+        return jwksMaxAge;
+    }
+
+    // Yangi kalit e'lon qilingandan imzolashgacha: barcha instance lar yuklab, JWKS keshlari yangilanib bo'ladi
+    private Duration activationDelay() {
+        return reloadInterval.plus(jwksMaxAge);
+    }
+
+    @Override
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        String kid = header.getKeyId();
+        if (kid == null) {
+            if (isAsymmetric() && Instant.now().isAfter(legacyAcceptedUntil)) {
+                throw new SignatureException("kid siz token qabul qilinmaydi");
+            }
+            return legacyHmacKey;
+        }
+        for (SigningKey key : state.keys) {
+            if (key.kid.equals(kid)) {
+                return key.verificationKey;
+            }
+        }
+        throw new SignatureException("Noma'lum kid: " + kid);
+    }
+
+    /**
+     * Public kalitlar JWKS formatida (RFC 7517) va uning ETag qiymati
+     */
+    public String getJwksJson() {
+        return state.jwksJson;
+    }
+
+    public String getJwksEtag() {
+        return state.jwksEtag;
+    }
+
+    /**
+     * Kalitlarni qayta yuklaydi, kerak bo'lsa yangisini yaratadi va muddati o'tganlarini olib tashlaydi.
+     * Boshqa instance yaratgan kalitlar ham shu yerda ko'rinadi.
+     */
+    @Scheduled(fixedDelayString = "${jwt.signing.reload-interval:PT1M}",
+            initialDelayString = "${jwt.signing.reload-interval:PT1M}")
+    public synchronized void rotate() {
+        if (!isAsymmetric()) {
+            return;
+        }
+        try {
+            List<SigningKey> keys = new ArrayList<>(loadKeys());
+            Instant now = Instant.now();
+
+            if (keys.isEmpty() || keys.get(0).createdAt.plus(rotationInterval).isBefore(now)) {
+                SigningKey generated = generateKey(now);
+                storeKey(generated);
+                keys.add(0, generated);
+                log.info("Yangi JWT imzo kaliti yaratildi: {}", generated.kid);
+            }
+
+            // Vorisi imzolay boshlaganidan keyin jwt.expiration o'tsa, bu kalit bilan imzolangan token qolmagan
+            List<SigningKey> active = new ArrayList<>();
+            for (int i = 0; i < keys.size(); i++) {
+                SigningKey key = keys.get(i);
+                if (i > 0 && activatesAt(keys.get(i - 1)).plusMillis(jwtExpiration).isBefore(now)) {
+                    deleteKey(key);
+                    continue;
+                }
+                active.add(key);
+            }
+
+            // Imzolovchi - faollashgan eng yangi kalit. Hech biri faollashmagan bo'lsa (birinchi ishga tushish,
+            // hali token berilmagan) eng eskisi darhol ishlatiladi
+            SigningKey signer = active.stream()
+                    .filter(key -> !activatesAt(key).isAfter(now))
+                    .findFirst()
+                    .orElse(active.get(active.size() - 1));
+
+            State current = this.state;
+            boolean signerChanged = current == null || !current.current.kid.equals(signer.kid);
+            if (signerChanged || !current.kids().equals(active.stream().map(SigningKey::getKid).toList())) {
+                if (signerChanged && current != null) {
+                    log.info("JWT imzo kaliti almashdi: {}", signer.kid);
+                }
+                this.state = new State(signer, List.copyOf(active), buildJwks(active));
+            }
+        } catch (IOException | GeneralSecurityException e) {
+            if (this.state == null) {
+                throw new IllegalStateException("JWT kalitlarini yuklab bo'lmadi", e);
+            }
+            log.error("JWT kalitlarini yangilashda xatolik, eski kalitlar bilan davom etiladi", e);
+        }
+    }
+
+    private Instant activatesAt(SigningKey key) {
+        return key.createdAt.plus(activationDelay());
+    }
+
+    /**
+     * Asimmetrik rejim qachon yoqilgani. key-dir bo'lsa barcha instance lar uchun bitta (asymmetric-since fayli,
+     * birinchi yozgan yutadi), aks holda shu instance ishga tushgan payt.
+     */
+    private Instant asymmetricSince() {
+        Instant since = state.keys.stream().map(SigningKey::getCreatedAt).min(Comparator.naturalOrder())
+                .orElse(Instant.now());
+        if (!StringUtils.hasText(keyDir)) {
+            return since;
+        }
+        Path marker = Path.of(keyDir, "asymmetric-since");
+        try {
+            try {
+                Files.writeString(marker, Long.toString(since.toEpochMilli()), StandardOpenOption.CREATE_NEW);
+                return since;
+            } catch (FileAlreadyExistsException e) {
+                return Instant.ofEpochMilli(Long.parseLong(Files.readString(marker).trim()));
+            }
+        } catch (IOException | NumberFormatException e) {
+            log.error("{} o'qib bo'lmadi, kid siz tokenlar darhol rad etiladi", marker, e);
+            return Instant.EPOCH;
+        }
+    }
+
+    private SigningKey generateKey(Instant now) throws GeneralSecurityException {
+        KeyPairGenerator generator;
+        if (algorithm == SignatureAlgorithm.ES256) {
+            generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+        } else {
+            generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+        }
+        KeyPair pair = generator.generateKeyPair();
+        String kid = algorithm.getValue().toLowerCase() + "-" + KID_TIME.format(now)
+                + "-" + UUID.randomUUID().toString().substring(0, 8);
+        return new SigningKey(kid, algorithm, pair.getPrivate(), pair.getPublic(), now);
+    }
+
+    // Eng yangisi birinchi
+    private List<SigningKey> loadKeys() throws IOException, GeneralSecurityException {
+        if (!StringUtils.hasText(keyDir)) {
+            return state != null ? state.keys : List.of();
+        }
+        Path dir = Files.createDirectories(Path.of(keyDir));
+        List<SigningKey> keys = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path pub : files.filter(p -> p.toString().endsWith(".pub")).toList()) {
+                String kid = pub.getFileName().toString().replace(".pub", "");
+                Path priv = dir.resolve(kid + ".key");
+                if (!kid.startsWith(algorithm.getValue().toLowerCase() + "-") || !Files.exists(priv)) {
+                    continue;
+                }
+                KeyFactory factory = KeyFactory.getInstance(algorithm.getFamilyName().equals("ECDSA") ? "EC" : "RSA");
+                PublicKey publicKey = factory.generatePublic(new X509EncodedKeySpec(readPem(pub)));
+                PrivateKey privateKey = factory.generatePrivate(new PKCS8EncodedKeySpec(readPem(priv)));
+                // kid formati: <alg>-<yyyyMMddHHmmss>-<random>
+                Instant createdAt = KID_TIME.parse(kid.split("-")[1], Instant::from);
+                keys.add(new SigningKey(kid, algorithm, privateKey, publicKey, createdAt));
+            }
+        }
+        keys.sort(Comparator.comparing(SigningKey::getKid).reversed());
+        return keys;
+    }
+
+    private void storeKey(SigningKey key) throws IOException {
+        if (!StringUtils.hasText(keyDir)) {
+            return;
+        }
+        Path dir = Path.of(keyDir);
+        // .key avval yoziladi: boshqa instance .pub ni ko'rganda juftlik to'liq bo'ladi
+        writePem(dir.resolve(key.kid + ".key"), "PRIVATE KEY", key.signingKey.getEncoded());
+        writePem(dir.resolve(key.kid + ".pub"), "PUBLIC KEY", key.verificationKey.getEncoded());
+    }
+
+    private void deleteKey(SigningKey key) throws IOException {
+        log.info("Muddati o'tgan JWT kaliti olib tashlandi: {}", key.kid);
+        if (StringUtils.hasText(keyDir)) {
+            Files.deleteIfExists(Path.of(keyDir, key.kid + ".pub"));
+            Files.deleteIfExists(Path.of(keyDir, key.kid + ".key"));
+        }
+    }
+
+    private static byte[] readPem(Path path) throws IOException {
+        String pem = Files.readString(path)
+                .replaceAll("-----(BEGIN|END) [A-Z ]+-----", "")
+                .replaceAll("\\s", "");
+        return Base64.getDecoder().decode(pem);
+    }
+
+    private static void writePem(Path path, String type, byte[] der) throws IOException {
+        String pem = "-----BEGIN " + type + "-----\n"
+                + Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(der)
+                + "\n-----END " + type + "-----\n";
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.writeString(tmp, pem);
+        Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private String buildJwks(List<SigningKey> keys) throws IOException {
+        List<Map<String, Object>> jwks = new ArrayList<>();
+        for (SigningKey key : keys) {
+            Map<String, Object> jwk = new LinkedHashMap<>();
+            jwk.put("kid", key.kid);
+            jwk.put("use", "sig");
+            jwk.put("alg", key.algorithm.getValue());
+            if (key.verificationKey instanceof RSAPublicKey rsa) {
+                jwk.put("kty", "RSA");
+                jwk.put("n", base64Url(rsa.getModulus(), 0));
+                jwk.put("e", base64Url(rsa.getPublicExponent(), 0));
+            } else if (key.verificationKey instanceof ECPublicKey ec) {
+                jwk.put("kty", "EC");
+                jwk.put("crv", "P-256");
+                jwk.put("x", base64Url(ec.getW().getAffineX(), 32));
+                jwk.put("y", base64Url(ec.getW().getAffineY(), 32));
+            }
+            jwks.add(jwk);
+        }
+        return objectMapper.writeValueAsString(Map.of("keys", jwks));
+    }
+
+    // Unsigned big-endian; EC koordinatalari uchun aniq uzunlikkacha to'ldiriladi
+    private static String base64Url(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        if (length > bytes.length) {
+            byte[] padded = new byte[length];
+            System.arraycopy(bytes, 0, padded, length - bytes.length, bytes.length);
+            bytes = padded;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    @Getter
+    public static final class SigningKey {
+        private final String kid;
+        private final SignatureAlgorithm algorithm;
+        private final Key signingKey;
+        private final Key verificationKey;
+        private final Instant createdAt;
+
+        SigningKey(String kid, SignatureAlgorithm algorithm, Key signingKey, Key verificationKey, Instant createdAt) {
+            this.kid = kid;
+            this.algorithm = algorithm;
+            this.signingKey = signingKey;
+            this.verificationKey = verificationKey;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private static final class State {
+        private final SigningKey current;
+        private final List<SigningKey> keys;
+        private final String jwksJson;
+        private final String jwksEtag;
+
+        State(SigningKey current, List<SigningKey> keys, String jwksJson) {
+            this.current = current;
+            this.keys = keys;
+            this.jwksJson = jwksJson;
+            this.jwksEtag = "\"" + DigestUtils.md5DigestAsHex(jwksJson.getBytes(StandardCharsets.UTF_8)) + "\"";
+        }
+
+        List<String> kids() {
+            return keys.stream().map(SigningKey::getKid).toList();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package dev.feruzlabs.springbootauth.securities;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Xato login urinishlarini xotirada sliding window bilan sanaydi: xato urinish DB ga yozilmaydi.
+ * window ichida max-attempts ta xato bo'lsa account lock-duration ga bloklanadi.
+ * Holat users.failed_login_attempts / account_locked_until ga write-behind, batch bilan yoziladi.
+ * ConcurrentHashMap.compute faqat bitta bin ni qulflaydi - turli userlar bir-birini kutmaydi.
+ */
+@Component
+public class LoginAttemptTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(LoginAttemptTracker.class);
+
+    private static final String UPDATE_SQL =
+            "UPDATE users SET failed_login_attempts = ?, account_locked_until = ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${security.login.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${security.login.window:15m}")
+    private Duration window;
+
+    @Value("${security.login.lock-duration:15m}")
+    private Duration lockDuration;
+
+    private final Map<Long, AttemptWindow> attempts = new ConcurrentHashMap<>();
+
+    // userId -> DB ga hali yozilmagan oxirgi holat (bir user uchun faqat oxirgisi)
+    private final Map<Long, PendingState> pending = new ConcurrentHashMap<>();
+
+    private Counter lockouts;
+
+    @PostConstruct
+    void init() {
+        this.lockouts = meterRegistry.counter("auth.login.lockouts");
+        meterRegistry.gaugeMapSize("auth.login.pending.writes", List.of(), pending);
+    }
+
+    /**
+     * Account hozir bloklanganmi - BCrypt dan oldin chaqiriladi
+     */
+    public boolean isLocked(Long userId) {
+        AttemptWindow attemptWindow = attempts.get(userId);
+        return attemptWindow != null && attemptWindow.isLocked(System.currentTimeMillis());
+    }
+
+    /**
+     * Xato urinishni qayd qiladi. Shu urinish bilan account bloklansa true qaytaradi.
+     * persistedFailedAttempts - DB dagi qiymat, xotirada yozuv bo'lmasa hisob shundan davom etadi.
+     */
+    public boolean recordFailure(Long userId, String username, int persistedFailedAttempts) {
+        long now = System.currentTimeMillis();
+        boolean[] lockedNow = new boolean[1];
+        // pending ham compute ichida - parallel recordSuccess eski lock holatini ustidan yozib yubormasin
+        attempts.compute(userId, (id, existing) -> {
+            AttemptWindow current = existing != null ? existing : new AttemptWindow(persistedFailedAttempts);
+            lockedNow[0] = current.addFailure(now, window.toMillis(), maxAttempts, lockDuration.toMillis());
+            pending.put(userId, new PendingState(current.totalFailures,
+                    current.isLocked(now) ? current.lockedUntil : null));
+            return current;
+        });
+
+        if (lockedNow[0]) {
+            lockouts.increment();
+            // CACHED rejimdagi filter ham yangi holatni ko'rishi uchun
+            principalCache.evict(username);
+            log.warn("Account {} locked after {} failed attempts", username, maxAttempts);
+        }
+        return lockedNow[0];
+    }
+
+    /**
+     * Muvaffaqiyatli login - hisoblagich tozalanadi. DB da eski qiymat bo'lsa 0 ga qaytariladi.
+     */
+    public void recordSuccess(Long userId, int persistedFailedAttempts) {
+        attempts.compute(userId, (id, existing) -> {
+            if (existing != null || persistedFailedAttempts > 0) {
+                pending.put(userId, new PendingState(0, null));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Yig'ilgan holatlarni bitta batch UPDATE bilan yozadi
+     */
+    @Scheduled(fixedDelayString = "${security.login.flush-interval:PT5S}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>(pending.size());
+        for (Long userId : List.copyOf(pending.keySet())) {
+            PendingState state = pending.remove(userId);
+            if (state != null) {
+                Timestamp lockedUntil = state.lockedUntil() != null ? new Timestamp(state.lockedUntil()) : null;
+                batch.add(new Object[]{state.failedAttempts(), lockedUntil, userId});
+            }
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, batch);
+        } catch (RuntimeException e) {
+            // Keyingi flush da qayta urinish - oraliqda yangiroq holat kelgan bo'lsa u ustun
+            for (Object[] row : batch) {
+                Timestamp lockedUntil = (Timestamp) row[1];
+                pending.putIfAbsent((Long) row[2],
+                        new PendingState((Integer) row[0], lockedUntil != null ? lockedUntil.getTime() : null));
+            }
+            log.error("Failed to persist login attempts for {} users", batch.size(), e);
+        }
+
+        // Eskirgan oynalarni tozalash - xotira faqat faol hujumlar soniga bog'liq
+        long now = System.currentTimeMillis();
+        for (Long userId : List.copyOf(attempts.keySet())) {
+            attempts.computeIfPresent(userId,
+                    (id, attemptWindow) -> attemptWindow.isStale(now, window.toMillis()) ? null : attemptWindow);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    private record PendingState(int failedAttempts, Long lockedUntil) {
+    }
+
+    // Faqat compute() ichida o'zgartiriladi; lockedUntil volatile - isLocked() qulfsiz o'qiydi
+    private static final class AttemptWindow {
+        private final ArrayDeque<Long> failures = new ArrayDeque<>();
+        // DB dagi failed_login_attempts - muvaffaqiyatli login gacha oshib boradi
+        private int totalFailures;
+        private volatile long lockedUntil;
+        private volatile long lastFailure;
+
+        AttemptWindow(int totalFailures) {
+            this.totalFailures = totalFailures;
+        }
+
+        boolean addFailure(long now, long windowMillis, int maxAttempts, long lockMillis) {
+            while (!failures.isEmpty() && failures.peekFirst() <= now - windowMillis) {
+                failures.pollFirst();
+            }
+            failures.addLast(now);
+            totalFailures++;
+            lastFailure = now;
+            if (failures.size() >= maxAttempts && !isLocked(now)) {
+                lockedUntil = now + lockMillis;
+                // Blok tugagach hisob yangidan boshlanadi
+                failures.clear();
+                return true;
+            }
+            return false;
+        }
+
+        boolean isLocked(long now) {
+            return lockedUntil > now;
+        }
+
+        boolean isStale(long now, long windowMillis) {
+            return !isLocked(now) && lastFailure <= now - windowMillis;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package dev.feruzlabs.springbootauth.securities;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BCrypt ishlarini Tomcat threadlaridan alohida, CPU soniga teng pool da bajaradi.
+ * Navbat cheklangan: to'lsa darhol, navbatda security.password.max-wait dan ko'p kutgan ish esa
+ * navbatdan olinganda (BCrypt boshlanmasdan) PasswordWorkRejectedException (503) - login to'lqini
+ * boshqa endpointlarni bo'g'ib qo'ymaydi. Boshlangan BCrypt oxirigacha bajariladi: u interrupt ni
+ * sezmaydi, yarmida tashlab ketish faqat pool threadini behuda band qiladi.
+ * Metrikalar: auth.password.queue.wait, auth.password.work{op}, auth.password.rejected, auth.password.queue.size
+ */
+@Component
+public class PasswordHasher {
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${security.password.pool-size:0}")
+    private int poolSize;
+
+    @Value("${security.password.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${security.password.max-wait:2s}")
+    private Duration maxWait;
+
+    private ThreadPoolExecutor executor;
+    private Timer queueWait;
+    private Timer encodeTimer;
+    private Timer matchesTimer;
+    private Counter rejected;
+
+    @PostConstruct
+    void init() {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.queueWait = meterRegistry.timer("auth.password.queue.wait");
+        this.encodeTimer = meterRegistry.timer("auth.password.work", "op", "encode");
+        this.matchesTimer = meterRegistry.timer("auth.password.work", "op", "matches");
+        this.rejected = meterRegistry.counter("auth.password.rejected");
+        meterRegistry.gauge("auth.password.queue.size", executor, e -> e.getQueue().size());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword), encodeTimer);
+    }
+
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> passwordEncoder.matches(rawPassword, encodedPassword), matchesTimer);
+    }
+
+    public boolean upgradeEncoding(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T submit(Callable<T> work, Timer workTimer) {
+        long enqueuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long waited = System.nanoTime() - enqueuedAt;
+                queueWait.record(waited, TimeUnit.NANOSECONDS);
+                if (waited > maxWait.toNanos()) {
+                    // Client allaqachon uzoq kutdi - BCrypt ni boshlamay navbatdagi keyingisiga o'tamiz
+                    rejected.increment();
+                    throw new PasswordWorkRejectedException("Parol tekshirish navbatida kutish vaqti tugadi");
+                }
+                return workTimer.recordCallable(work);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordWorkRejectedException("Parol tekshirish navbati to'lgan");
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordWorkRejectedException("Parol tekshirish to'xtatildi");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package dev.feruzlabs.springbootauth.securities;
+
+/**
+ * Parol hash/tekshirish pool i band - client keyinroq qayta urinishi kerak (503).
+ */
+public class PasswordWorkRejectedException extends RuntimeException {
+    public PasswordWorkRejectedException(String message) {
+        super(message);
+    }
+}
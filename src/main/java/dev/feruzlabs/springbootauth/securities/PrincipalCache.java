@@ -0,0 +1,90 @@
+package dev.feruzlabs.springbootauth.securities;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import dev.feruzlabs.springbootauth.events.InvalidationResyncEvent;
+import dev.feruzlabs.springbootauth.events.UserSecurityChangedEvent;
+import dev.feruzlabs.springbootauth.repositories.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * username -> UserPrincipal keshi (CACHED rejim uchun).
+ * Hajm va TTL bilan cheklangan; user ning xavfsizlik holati o'zgarganda darhol o'chiriladi.
+ * Statistika Micrometer orqali: cache.gets, cache.evictions, cache.size (cache=auth.principal).
+ */
+@Component
+public class PrincipalCache {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${jwt.filter.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${jwt.filter.cache.ttl:5m}")
+    private Duration ttl;
+
+    private Cache<String, UserPrincipal> cache;
+    private Counter invalidations;
+
+    @PostConstruct
+    void init() {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "auth.principal");
+        this.invalidations = meterRegistry.counter("auth.principal.cache.invalidations");
+    }
+
+    /**
+     * Keshdan yoki (miss bo'lsa) DB dan. Topilmagan userlar keshlanmaydi.
+     */
+    public Optional<UserPrincipal> get(String username) {
+        return Optional.ofNullable(cache.get(username,
+                key -> userRepository.findByUsername(key).map(UserPrincipal::from).orElse(null)));
+    }
+
+    public void evict(String username) {
+        cache.invalidate(username);
+        invalidations.increment();
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    // Kanal uzilganda qaysi userlar o'zgargani noma'lum - hammasi qayta yuklanadi
+    @EventListener(InvalidationResyncEvent.class)
+    public void onResync() {
+        evictAll();
+    }
+
+    // Commit dan keyin: oldinroq o'chirilsa parallel request eski (commit bo'lgan) qatorni qayta keshlab,
+    // bloklangan user ttl gacha kira oladi
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserSecurityChanged(UserSecurityChangedEvent event) {
+        evict(event.getUsername());
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
@@ -0,0 +1,59 @@
+package dev.feruzlabs.springbootauth.securities;
+
+import dev.feruzlabs.springbootauth.events.InvalidationResyncEvent;
+import dev.feruzlabs.springbootauth.events.UserSecurityChangedEvent;
+import dev.feruzlabs.springbootauth.repositories.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * userId -> joriy security version. Stateless rejimda token dagi "sv" claim
+ * shu qiymatdan kichik bo'lsa token yaroqsiz hisoblanadi.
+ * Faqat version > 0 bo'lgan userlar saqlanadi, shuning uchun xotira kichik.
+ */
+@Component
+public class SecurityVersionRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(SecurityVersionRegistry.class);
+
+    private final Map<Long, Integer> versions = new ConcurrentHashMap<>();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * Restartdan keyin ham eski tokenlar qayta tirilmasligi uchun startup da yuklanadi;
+     * invalidation kanali qayta ulanganda ham (oradagi o'zgarishlar o'tkazib yuborilgan bo'lishi mumkin)
+     */
+    @EventListener({ApplicationReadyEvent.class, InvalidationResyncEvent.class})
+    public void load() {
+        for (Object[] row : userRepository.findNonZeroSecurityVersions()) {
+            update((Long) row[0], (Integer) row[1]);
+        }
+        log.info("Security versions loaded for {} users", versions.size());
+    }
+
+    // InvalidationBus kabi - tranzaksiya bo'lsa commit dan keyin, bo'lmasa darhol
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserSecurityChanged(UserSecurityChangedEvent event) {
+        update(event.getUserId(), event.getSecurityVersion());
+    }
+
+    public void update(Long userId, int securityVersion) {
+        versions.merge(userId, securityVersion, Math::max);
+    }
+
+    public boolean isCurrent(Long userId, int tokenSecurityVersion) {
+        Integer current = versions.get(userId);
+        return current == null || tokenSecurityVersion >= current;
+    }
+}
@@ -0,0 +1,40 @@
+package dev.feruzlabs.springbootauth.securities;
+
+import dev.feruzlabs.springbootauth.entities.User;
+import dev.feruzlabs.springbootauth.enums.Role;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filter uchun kerakli user ma'lumotlarining ixcham, o'zgarmas nusxasi.
+ * JPA entity o'rniga keshda shu saqlanadi.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public final class UserPrincipal {
+    private final Long id;
+    private final String username;
+    private final Role role;
+    private final boolean enabled;
+    private final LocalDateTime accountLockedUntil;
+    private final int securityVersion;
+
+    public static UserPrincipal from(User user) {
+        return new UserPrincipal(
+                user.getId(),
+                user.getUsername(),
+                user.getRole(),
+                user.isEnabled(),
+                user.getAccountLockedUntil(),
+                user.getSecurityVersion()
+        );
+    }
+
+    public boolean isAccountNonLocked() {
+        return accountLockedUntil == null || accountLockedUntil.isBefore(LocalDateTime.now());
+    }
+}
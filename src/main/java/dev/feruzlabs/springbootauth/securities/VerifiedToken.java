@@ -0,0 +1,83 @@
+package dev.feruzlabs.springbootauth.securities;
+
+import dev.feruzlabs.springbootauth.enums.Role;
+import dev.feruzlabs.springbootauth.enums.TokenType;
+import io.jsonwebtoken.Claims;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Imzosi bir marta tekshirilgan token va uning typed claimlari.
+ * EnhancedJwtUtil.verify() orqali yaratiladi - qayta parse qilish shart emas.
+ */
+@Getter
+@ToString(exclude = "permissions")
+public final class VerifiedToken {
+
+    private final String subject;
+    private final Long userId;
+    private final Role role;
+    private final List<String> permissions;
+    private final TokenType tokenType;
+    private final int securityVersion;
+    private final Date expiration;
+    // "did" claim - token berilgan qurilma (logout faqat shu sessiyani yopadi)
+    private final String deviceId;
+    // "jti" - denylist kaliti; "iat" - user bo'yicha revoked-before bilan solishtiriladi
+    private final String tokenId;
+    private final Date issuedAt;
+
+    private VerifiedToken(String subject, Long userId, Role role, List<String> permissions,
+                          TokenType tokenType, int securityVersion, Date expiration, String deviceId,
+                          String tokenId, Date issuedAt) {
+        this.subject = subject;
+        this.userId = userId;
+        this.role = role;
+        this.permissions = permissions;
+        this.tokenType = tokenType;
+        this.securityVersion = securityVersion;
+        this.expiration = expiration;
+        this.deviceId = deviceId;
+        this.tokenId = tokenId;
+        this.issuedAt = issuedAt;
+    }
+
+    static VerifiedToken from(Claims claims) {
+        String role = claims.get("role", String.class);
+        String tokenType = claims.get("tokenType", String.class);
+        List<?> permissions = claims.get("permissions", List.class);
+        Integer securityVersion = claims.get("sv", Integer.class);
+
+        return new VerifiedToken(
+                claims.getSubject(),
+                claims.get("userId", Long.class),
+                role != null ? Role.valueOf(role) : null,
+                permissions != null ? permissions.stream().map(String::valueOf).toList() : List.of(),
+                tokenType != null ? TokenType.valueOf(tokenType) : null,
+                securityVersion != null ? securityVersion : 0,
+                claims.getExpiration(),
+                claims.get("did", String.class),
+                claims.getId(),
+                claims.getIssuedAt()
+        );
+    }
+
+    public boolean isExpired() {
+        return expiration != null && expiration.before(new Date());
+    }
+
+    /**
+     * Stateless rejimda DB siz principal qurish uchun yetarli claimlar bormi
+     * (legacy JwtUtil tokenlarida userId/role yo'q).
+     */
+    public boolean hasPrincipalClaims() {
+        return userId != null && role != null && tokenType == TokenType.ACCESS_TOKEN;
+    }
+
+    public boolean isRefreshToken() {
+        return tokenType == TokenType.REFRESH_TOKEN;
+    }
+}
@@ -0,0 +1,111 @@
+package dev.feruzlabs.springbootauth.securities;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import dev.feruzlabs.springbootauth.events.InvalidationResyncEvent;
+import dev.feruzlabs.springbootauth.utils.HashUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Token tekshirish natijalari keshi (ixtiyoriy, jwt.verify-cache.enabled).
+ * Kalit - compact tokenning SHA-256 digestining 128 biti; token satri o'zi saqlanmaydi.
+ * Har bir yozuv tokenning exp vaqtigacha yoki revoke qilinguncha yashaydi.
+ * Faqat imzo/muddat natijasi keshlanadi: parol/rol/status o'zgarishidan keyingi rad etishni filter
+ * keshdan keyin bajaradi (denylist revoked-before va security version), shuning uchun user
+ * o'zgarganda kesh bo'ylab qidirish shart emas.
+ * Caffeine ichida striped buferlar ishlatiladi, shuning uchun ko'p yadroda lock contention yo'q.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${jwt.verify-cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${jwt.verify-cache.max-size:100000}")
+    private long maxSize;
+
+    private Cache<TokenDigest, VerifiedToken> cache;
+
+    @PostConstruct
+    void init() {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "auth.verified-token");
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Keshda bo'lsa qaytaradi, aks holda verifier orqali tekshirib saqlaydi.
+     * Verifier tashlagan exception (imzo xato, muddat o'tgan) keshlanmaydi.
+     */
+    public VerifiedToken get(String token, Function<String, VerifiedToken> verifier) {
+        return cache.get(digest(token), key -> verifier.apply(token));
+    }
+
+    public void revoke(String token) {
+        cache.invalidate(digest(token));
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    @EventListener(InvalidationResyncEvent.class)
+    public void onResync() {
+        clear();
+    }
+
+    static TokenDigest digest(String token) {
+        ByteBuffer hash = ByteBuffer.wrap(HashUtils.sha256(token));
+        return new TokenDigest(hash.getLong(), hash.getLong());
+    }
+
+    // 128 bitli kalit: 16 bayt + obyekt sarlavhasi, String kalitdan ancha ixcham
+    record TokenDigest(long high, long low) {
+    }
+
+    private static final class UntilTokenExpiry implements Expiry<TokenDigest, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(TokenDigest key, VerifiedToken value, long currentTime) {
+            if (value.getExpiration() == null) {
+                return 0;
+            }
+            long remainingMillis = value.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(TokenDigest key, VerifiedToken value, long currentTime,
+                                      long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(TokenDigest key, VerifiedToken value, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package dev.feruzlabs.springbootauth.services;
+
+import dev.feruzlabs.springbootauth.services.refreshToken.RefreshTokenStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Aktiv (revoke qilinmagan, muddati o'tmagan) refresh tokenlar soni - O(1) o'qiladi.
+ * Yaratish/revoke/o'chirishda commit dan keyin o'zgaradi; muddati o'tganlar
+ * expiry daqiqasi bo'yicha bucket larda saqlanib har daqiqada ayiriladi.
+ * Boshqa nodelar va rollback sabab siljish resync-interval da COUNT bilan tuzatiladi.
+ */
+@Component
+public class ActiveSessionCounter {
+
+    private static final Logger log = LoggerFactory.getLogger(ActiveSessionCounter.class);
+
+    @Autowired
+    private RefreshTokenStore refreshTokenStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // expiry epoch-daqiqa -> shu daqiqada tugaydigan aktiv tokenlar
+    private final Map<Long, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong total = new AtomicLong();
+
+    // O'zgarishlar parallel (read lock), sweep/resync esa eksklyuziv (write lock)
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    void init() {
+        meterRegistry.gauge("auth.sessions.active", total);
+    }
+
+    public long get() {
+        return Math.max(total.get(), 0);
+    }
+
+    public void tokenCreated(LocalDateTime expiryDate) {
+        afterCommit(() -> add(expiryDate, 1));
+    }
+
+    public void tokensRemoved(Collection<LocalDateTime> expiryDates) {
+        if (expiryDates.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> expiryDates.forEach(expiryDate -> add(expiryDate, -1)));
+    }
+
+    private void add(LocalDateTime expiryDate, long delta) {
+        long minute = minuteOf(expiryDate);
+        lock.readLock().lock();
+        try {
+            // Allaqachon sweep qilingan daqiqa - total ga ta'sir qilmaydi
+            if (minute < currentMinute()) {
+                return;
+            }
+            buckets.computeIfAbsent(minute, m -> new AtomicLong()).addAndGet(delta);
+            total.addAndGet(delta);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Muddati o'tgan bucketlarni total dan ayirish
+     */
+    @Scheduled(fixedDelayString = "${security.sessions.sweep-interval:PT1M}")
+    public void sweepExpired() {
+        long now = currentMinute();
+        lock.writeLock().lock();
+        try {
+            buckets.entrySet().removeIf(bucket -> {
+                if (bucket.getKey() < now) {
+                    total.addAndGet(-bucket.getValue().get());
+                    return true;
+                }
+                return false;
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Store dagi haqiqiy holat bilan tenglashtirish (startup va har resync-interval da)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${security.sessions.resync-interval:PT10M}",
+            fixedDelayString = "${security.sessions.resync-interval:PT10M}")
+    public void resync() {
+        Map<Long, AtomicLong> fresh = new ConcurrentHashMap<>();
+        long count = 0;
+        for (Map.Entry<LocalDateTime, Long> entry : refreshTokenStore.countActiveByExpiryMinute(LocalDateTime.now()).entrySet()) {
+            fresh.put(minuteOf(entry.getKey()), new AtomicLong(entry.getValue()));
+            count += entry.getValue();
+        }
+
+        lock.writeLock().lock();
+        try {
+            long previous = total.getAndSet(count);
+            buckets.clear();
+            buckets.putAll(fresh);
+            if (previous != count) {
+                log.debug("Active session counter resynced: {} -> {}", previous, count);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Tranzaksiya rollback bo'lsa hisob o'zgarmasligi uchun
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static long minuteOf(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    private static long currentMinute() {
+        return minuteOf(LocalDateTime.now());
+    }
+}
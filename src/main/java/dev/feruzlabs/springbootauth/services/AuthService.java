@@ -4,25 +4,49 @@ import dev.feruzlabs.springbootauth.dto.request.LoginRequest;
 import dev.feruzlabs.springbootauth.dto.request.RegisterRequest;
 import dev.feruzlabs.springbootauth.dto.response.JwtResponse;
 import dev.feruzlabs.springbootauth.dto.response.MessageResponse;
-import dev.feruzlabs.springbootauth.entities.RefreshToken;
 import dev.feruzlabs.springbootauth.entities.User;
+import dev.feruzlabs.springbootauth.enums.AuthEventType;
+import dev.feruzlabs.springbootauth.events.UserSecurityChangedEvent;
 import dev.feruzlabs.springbootauth.repositories.UserRepository;
+import dev.feruzlabs.springbootauth.securities.AccessTokenDenylist;
 import dev.feruzlabs.springbootauth.securities.EnhancedJwtUtil;
+import dev.feruzlabs.springbootauth.securities.LoginAttemptTracker;
+import dev.feruzlabs.springbootauth.securities.PasswordHasher;
+import dev.feruzlabs.springbootauth.securities.PasswordWorkRejectedException;
+import dev.feruzlabs.springbootauth.securities.VerifiedToken;
+import dev.feruzlabs.springbootauth.services.audit.AuthAuditLog;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Metrikalar: auth.login.password{outcome=match|mismatch|rejected} - BCrypt (navbat bilan) vaqti,
+ * auth.login.attempts{outcome} - login natijasi.
+ */
 @Service
 public class AuthService {
 
+    // v2/08 changeset dagi lower(username) / lower(email) unique index lar
+    private static final String USERNAME_UNIQUE_INDEX = "uq_users_username_lower";
+    private static final String EMAIL_UNIQUE_INDEX = "uq_users_email_lower";
+
     @Autowired
     private UserRepository userRepository;
 
+    // BCrypt alohida cheklangan pool da ishlaydi (request threadlarida emas)
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
 
     @Autowired
     private EnhancedJwtUtil jwtUtil;
@@ -30,36 +54,90 @@ public class AuthService {
     @Autowired
     private RefreshTokenService refreshTokenService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private LoginAttemptTracker loginAttemptTracker;
+
+    @Autowired
+    private LastLoginRecorder lastLoginRecorder;
+
+    @Autowired
+    private AccessTokenDenylist accessTokenDenylist;
+
+    @Autowired
+    private UsernameAvailabilityIndex usernameAvailabilityIndex;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AuthAuditLog authAuditLog;
+
+    private Timer passwordMatch;
+    private Timer passwordMismatch;
+    private Timer passwordRejected;
+
+    @PostConstruct
+    void init() {
+        this.passwordMatch = meterRegistry.timer("auth.login.password", "outcome", "match");
+        this.passwordMismatch = meterRegistry.timer("auth.login.password", "outcome", "mismatch");
+        this.passwordRejected = meterRegistry.timer("auth.login.password", "outcome", "rejected");
+    }
+
     /**
      * User registratsiya qilish
      */
     public MessageResponse register(RegisterRequest request) {
-        // Username band emasligini tekshirish
-        if (userRepository.existsByUsername(request.getUsername())) {
-            return new MessageResponse("Username allaqachon mavjud!");
-        }
-
-        // Email band emasligini tekshirish
-        if (userRepository.existsByEmail(request.getEmail())) {
-            return new MessageResponse("Email allaqachon ro'yxatdan o'tgan!");
-        }
-
-        // Yangi user yaratish
+        // Yangi user yaratish - bandligini oldindan tekshirmaymiz, unique index lar hal qiladi
         User user = new User();
         user.setUsername(request.getUsername());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHasher.encode(request.getPassword()));
         user.setEmail(request.getEmail());
         user.setCreatedAt(LocalDateTime.now());
         user.setEnabled(true);
 
         try {
             userRepository.save(user);
+            usernameAvailabilityIndex.add(user.getUsername());
             return new MessageResponse("User muvaffaqiyatli ro'yxatdan o'tdi!", true);
+        } catch (DataIntegrityViolationException e) {
+            // Bitta INSERT: band username/email (parallel registratsiya ham) index nomidan aniqlanadi
+            String constraint = violatedConstraint(e);
+            if (isIndex(constraint, USERNAME_UNIQUE_INDEX)) {
+                // Boshqa node da olingan bo'lishi mumkin - indeks keyingi qayta qurishgacha kutmasin
+                usernameAvailabilityIndex.add(user.getUsername());
+                return new MessageResponse("Username allaqachon mavjud!", false);
+            }
+            if (isIndex(constraint, EMAIL_UNIQUE_INDEX)) {
+                return new MessageResponse("Email allaqachon ro'yxatdan o'tgan!", false);
+            }
+            return new MessageResponse("Ro'yxatdan o'tishda xatolik yuz berdi: " + e.getMostSpecificCause().getMessage(), false);
         } catch (Exception e) {
             return new MessageResponse("Ro'yxatdan o'tishda xatolik yuz berdi: " + e.getMessage());
         }
     }
 
+    // PostgreSQL index nomini o'zini beradi, H2 esa "public.uq_users_username_lower_INDEX_6 ..." ko'rinishida
+    private static boolean isIndex(String constraint, String index) {
+        if (constraint == null) {
+            return false;
+        }
+        String name = constraint.toLowerCase(Locale.ROOT);
+        int schema = name.indexOf('.');
+        return name.startsWith(index, schema + 1);
+    }
+
+    private static String violatedConstraint(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return violation.getConstraintName();
+            }
+        }
+        return null;
+    }
+
     /**
      * User login qilish
      */
@@ -68,6 +146,7 @@ public class AuthService {
         Optional<User> userOpt = userRepository.findByUsername(request.getUsername());
 
         if (userOpt.isEmpty()) {
+            loginFailed("unknown_user", null, request, clientIp);
             return new MessageResponse("Username yoki parol xato!");
         }
 
@@ -75,39 +154,105 @@ public class AuthService {
 
         // User enabled ekanligini tekshirish
         if (!user.isEnabled()) {
+            loginFailed("disabled", user.getId(), request, clientIp);
             return new MessageResponse("Account bloklangan. Admin bilan bog'laning.");
         }
 
+        // Bloklangan account uchun BCrypt umuman ishga tushmaydi
+        if (loginAttemptTracker.isLocked(user.getId()) || !user.isAccountNonLocked()) {
+            loginFailed("locked", user.getId(), request, clientIp);
+            return new MessageResponse("Account vaqtincha bloklangan. Keyinroq urinib ko'ring.", false);
+        }
+
         // Parolni tekshirish
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        boolean passwordMatches;
+        try {
+            passwordMatches = passwordMatches(request.getPassword(), user.getPassword());
+        } catch (PasswordWorkRejectedException e) {
+            loginFailed("rejected", user.getId(), request, clientIp);
+            throw e;
+        }
+        if (!passwordMatches) {
+            loginAttemptTracker.recordFailure(user.getId(), user.getUsername(), user.getFailedLoginAttempts());
+            loginFailed("bad_password", user.getId(), request, clientIp);
             return new MessageResponse("Username yoki parol xato!");
         }
+        loginAttemptTracker.recordSuccess(user.getId(), user.getFailedLoginAttempts());
+
+        // Hash cost joriy kalibrovkadan farq qilsa - parol ma'lum paytda qayta hashlanadi
+        if (passwordHasher.upgradeEncoding(user.getPassword())) {
+            String upgraded = passwordHasher.encode(request.getPassword());
+            userRepository.updatePassword(user.getId(), upgraded);
+            user.setPassword(upgraded);
+        }
+
+        // Last login butun entity UPDATE siz, fon rejimida batch bilan yoziladi
+        lastLoginRecorder.record(user.getId(), LocalDateTime.now(), clientIp);
 
-        // Last login vaqtini yangilash
-        user.setLastLoginAt(LocalDateTime.now());
-        user.setLastLoginIp(clientIp);
-        userRepository.save(user);
+        // Har bir qurilma o'z sessiyasiga ega; client deviceId bermasa yangisi beriladi
+        String deviceId = request.getDeviceId() == null || request.getDeviceId().isBlank()
+                ? UUID.randomUUID().toString()
+                : request.getDeviceId();
 
         // JWT va Refresh token yaratish
-        String accessToken = jwtUtil.generateToken(user);
-        RefreshToken refreshToken = refreshTokenService.createRefreshToken(user);
+        String accessToken = jwtUtil.generateToken(user, deviceId);
+        String refreshToken = refreshTokenService.createRefreshToken(user, deviceId);
 
-        return new JwtResponse(
+        JwtResponse response = new JwtResponse(
                 accessToken,
-                refreshToken.getToken(),
+                refreshToken,
                 user.getUsername(),
                 user.getRole().name()
         );
+        response.setDeviceId(deviceId);
+        loginAttempt("success");
+        authAuditLog.record(AuthEventType.LOGIN_SUCCESS, user.getId(), user.getUsername(), deviceId, clientIp, null);
+        return response;
+    }
+
+    // Navbatda kutish ham kiradi - foydalanuvchi ko'radigan BCrypt narxi
+    private boolean passwordMatches(String rawPassword, String encodedPassword) {
+        long started = System.nanoTime();
+        try {
+            boolean matches = passwordHasher.matches(rawPassword, encodedPassword);
+            (matches ? passwordMatch : passwordMismatch).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            return matches;
+        } catch (PasswordWorkRejectedException e) {
+            passwordRejected.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private void loginAttempt(String outcome) {
+        meterRegistry.counter("auth.login.attempts", "outcome", outcome).increment();
+    }
+
+    private void loginFailed(String reason, Long userId, LoginRequest request, String clientIp) {
+        loginAttempt(reason);
+        authAuditLog.record(AuthEventType.LOGIN_FAILURE, userId, request.getUsername(), request.getDeviceId(),
+                clientIp, reason);
     }
 
     /**
-     * User logout - refresh tokenni bekor qilish
+     * User logout - joriy access token denylist ga tushadi va shu device dagi refresh token o'chiriladi.
+     * deviceId siz (eski) tokenlar uchun barcha sessiyalar yopiladi.
      */
-    public MessageResponse logout(String username) {
+    public MessageResponse logout(String username, VerifiedToken accessToken) {
         Optional<User> userOpt = userRepository.findByUsername(username);
 
         if (userOpt.isPresent()) {
-            refreshTokenService.deleteAllUserTokens(userOpt.get());
+            String deviceId = null;
+            if (accessToken != null) {
+                accessTokenDenylist.revoke(accessToken);
+                deviceId = accessToken.getDeviceId();
+            }
+
+            if (deviceId != null) {
+                refreshTokenService.deleteDeviceTokens(userOpt.get(), deviceId);
+            } else {
+                refreshTokenService.deleteAllUserTokens(userOpt.get());
+            }
+            authAuditLog.record(AuthEventType.LOGOUT, userOpt.get().getId(), username, deviceId, null, null);
             return new MessageResponse("Successfully logged out", true);
         }
 
@@ -121,7 +266,15 @@ public class AuthService {
         Optional<User> userOpt = userRepository.findByUsername(username);
 
         if (userOpt.isPresent()) {
-            refreshTokenService.revokeAllUserTokens(userOpt.get());
+            User user = userOpt.get();
+            refreshTokenService.revokeAllUserTokens(user);
+
+            // Berilgan access tokenlar ham darhol yaroqsiz bo'lishi uchun
+            // (event orqali denylist da user uchun revoked-before ham o'rnatiladi)
+            userRepository.bumpSecurityVersion(user.getId());
+            user.bumpSecurityVersion();
+            publishSecurityChanged(user);
+            authAuditLog.record(AuthEventType.LOGOUT_ALL, user.getId(), user.getUsername(), null, null, null);
             return new MessageResponse("Successfully logged out from all devices", true);
         }
 
@@ -164,25 +317,36 @@ public class AuthService {
         User user = userOpt.get();
 
         // Joriy parolni tekshirish
-        if (!passwordEncoder.matches(currentPassword, user.getPassword())) {
+        if (!passwordHasher.matches(currentPassword, user.getPassword())) {
+            authAuditLog.record(AuthEventType.PASSWORD_CHANGE_FAILURE, user.getId(), user.getUsername(), null, null,
+                    "bad_password");
             return new MessageResponse("Joriy parol noto'g'ri", false);
         }
 
         // Yangi parolni o'rnatish
-        user.setPassword(passwordEncoder.encode(newPassword));
-        userRepository.save(user);
+        String encoded = passwordHasher.encode(newPassword);
+        userRepository.updatePasswordAndBumpVersion(user.getId(), encoded);
+        user.setPassword(encoded);
+        user.bumpSecurityVersion();
 
         // Xavfsizlik uchun barcha tokenlarni bekor qilish
         refreshTokenService.revokeAllUserTokens(user);
+        publishSecurityChanged(user);
+        authAuditLog.record(AuthEventType.PASSWORD_CHANGE, user.getId(), user.getUsername(), null, null, null);
 
         return new MessageResponse("Parol muvaffaqiyatli o'zgartirildi", true);
     }
 
+    private void publishSecurityChanged(User user) {
+        eventPublisher.publishEvent(
+                new UserSecurityChangedEvent(user.getId(), user.getUsername(), user.getSecurityVersion()));
+    }
+
     /**
      * Username mavjudligini tekshirish (utility method)
      */
     public boolean isUsernameExists(String username) {
-        return userRepository.existsByUsername(username);
+        return userRepository.existsByUsernameNormalized(username);
     }
 
     /**
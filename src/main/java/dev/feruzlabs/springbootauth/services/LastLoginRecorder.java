@@ -0,0 +1,127 @@
+package dev.feruzlabs.springbootauth.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * last_login_at / last_login_ip ni login yo'lidan chiqarib, write-behind bilan yozadi.
+ * Bir user ning ketma-ket loginlari bitta yozuvga birlashadi (oxirgisi qoladi).
+ * Flush har flush-interval da yoki navbat batch-size ga yetganda fon threadida bajariladi.
+ */
+@Service
+public class LastLoginRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(LastLoginRecorder.class);
+
+    private static final String UPDATE_SQL = "UPDATE users SET last_login_at = ?, last_login_ip = ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    @Value("${security.last-login.batch-size:500}")
+    private int batchSize;
+
+    private final Map<Long, LastLogin> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // Executor da bitta flush vazifasi yetadi - batch-size dan keyingi har login yangisini qo'shmasin
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+
+    private Timer flushTimer;
+
+    @PostConstruct
+    void init() {
+        this.flushTimer = meterRegistry.timer("auth.last-login.flush");
+        meterRegistry.gaugeMapSize("auth.last-login.pending", List.of(), pending);
+    }
+
+    public void record(Long userId, LocalDateTime at, String ip) {
+        pending.put(userId, new LastLogin(at, ip));
+        if (pending.size() >= batchSize && !flushLock.isLocked() && flushQueued.compareAndSet(false, true)) {
+            try {
+                taskExecutor.execute(this::queuedFlush);
+            } catch (RuntimeException e) {
+                // Rad etilsa scheduled flush yozadi
+                flushQueued.set(false);
+            }
+        }
+    }
+
+    private void queuedFlush() {
+        // flush dan oldin: shu orada to'lgan navbat uchun yangi vazifa qo'yilishi mumkin bo'lsin
+        flushQueued.set(false);
+        flush();
+    }
+
+    @Scheduled(fixedDelayString = "${security.last-login.flush-interval:PT5S}")
+    public void flush() {
+        // Parallel flush kerak emas - band bo'lsa keyingi navbatda yoziladi
+        if (pending.isEmpty() || !flushLock.tryLock()) {
+            return;
+        }
+        try {
+            flushTimer.record(this::writePending);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void writePending() {
+        List<Object[]> batch = new ArrayList<>(pending.size());
+        for (Long userId : List.copyOf(pending.keySet())) {
+            LastLogin lastLogin = pending.remove(userId);
+            if (lastLogin != null) {
+                batch.add(new Object[]{Timestamp.valueOf(lastLogin.at()), lastLogin.ip(), userId});
+            }
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, batch);
+        } catch (RuntimeException e) {
+            // Keyingi flush da qayta urinish - oraliqda yangiroq login bo'lsa u ustun
+            for (Object[] row : batch) {
+                pending.putIfAbsent((Long) row[2],
+                        new LastLogin(((Timestamp) row[0]).toLocalDateTime(), (String) row[1]));
+            }
+            log.error("Failed to persist last login for {} users", batch.size(), e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flushLock.lock();
+        try {
+            writePending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private record LastLogin(LocalDateTime at, String ip) {
+    }
+}
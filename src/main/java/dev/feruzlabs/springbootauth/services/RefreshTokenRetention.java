@@ -0,0 +1,155 @@
+package dev.feruzlabs.springbootauth.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+/**
+ * refresh_tokens dan muddati o'tgan yozuvlarni tozalash.
+ * PostgreSQL da jadval expiry_date bo'yicha haftalik partitionlangan (v2/03 changeset):
+ * kelgusi haftalar oldindan yaratiladi, to'liq eskirgan partition DROP qilinadi - vacuum yo'q.
+ * Partitionsiz bazalarda kichik, alohida tranzaksiyali va pauzali DELETE chunklar ishlatiladi.
+ */
+@Service
+public class RefreshTokenRetention {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenRetention.class);
+
+    static final String PARTITION_PREFIX = "refresh_tokens_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${refresh-token.retention.weeks-ahead:4}")
+    private int weeksAhead;
+
+    @Value("${refresh-token.retention.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${refresh-token.retention.chunk-pause:100ms}")
+    private Duration chunkPause;
+
+    /**
+     * Startup da kelgusi partitionlar mavjudligini kafolatlash - insert partition topmay qolmasin
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensurePartitions() {
+        if (isPartitioned()) {
+            createFuturePartitions(LocalDate.now());
+        }
+    }
+
+    /**
+     * Muddati tugagan tokenlarni o'chiradi, o'chirilgan qatorlar sonini qaytaradi
+     * (DROP qilingan partitionlar uchun pg_class.reltuples bo'yicha taxminiy)
+     */
+    public long purgeExpired(LocalDateTime now) {
+        if (isPartitioned()) {
+            createFuturePartitions(now.toLocalDate());
+            return dropExpiredPartitions(now);
+        }
+        return deleteInChunks(now);
+    }
+
+    boolean isPartitioned() {
+        try {
+            Boolean partitioned = jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('refresh_tokens'))",
+                    Boolean.class);
+            return Boolean.TRUE.equals(partitioned);
+        } catch (RuntimeException e) {
+            // PostgreSQL emas (pg_partitioned_table yo'q)
+            return false;
+        }
+    }
+
+    private void createFuturePartitions(LocalDate today) {
+        LocalDate weekStart = today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        for (int week = 0; week <= weeksAhead; week++) {
+            LocalDate from = weekStart.plusWeeks(week);
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(from)
+                    + " PARTITION OF refresh_tokens FOR VALUES FROM ('" + from + "') TO ('" + from.plusWeeks(1) + "')");
+        }
+    }
+
+    private long dropExpiredPartitions(LocalDateTime now) {
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "WHERE i.inhparent = to_regclass('refresh_tokens')", String.class);
+
+        long removed = 0;
+        for (String partition : partitions) {
+            LocalDate from = parseWeekStart(partition);
+            // Hafta oxiri ham o'tgan bo'lsa - ichidagi barcha tokenlar eskirgan
+            if (from == null || !from.plusWeeks(1).atStartOfDay().isBefore(now)) {
+                continue;
+            }
+            // COUNT(*) butun partitionni o'qirdi; autovacuum/analyze bergan baho metrika uchun yetarli
+            // (hech analyze qilinmagan jadvalda reltuples = -1)
+            Long rows = jdbcTemplate.queryForObject(
+                    "SELECT GREATEST(reltuples, 0)::bigint FROM pg_class WHERE oid = to_regclass(?)",
+                    Long.class, partition);
+            jdbcTemplate.execute("ALTER TABLE refresh_tokens DETACH PARTITION " + partition);
+            jdbcTemplate.execute("DROP TABLE " + partition);
+            removed += rows != null ? rows : 0;
+            log.info("Dropped expired refresh token partition {} (~{} rows)", partition, rows);
+        }
+        return removed;
+    }
+
+    private long deleteInChunks(LocalDateTime now) {
+        long removed = 0;
+        int deleted;
+        do {
+            // Har chunk alohida (autocommit) - uzun lock va katta WAL yo'q
+            deleted = jdbcTemplate.update(
+                    "DELETE FROM refresh_tokens WHERE id IN " +
+                            "(SELECT id FROM refresh_tokens WHERE expiry_date < ? LIMIT ?)",
+                    Timestamp.valueOf(now), chunkSize);
+            removed += deleted;
+            if (deleted == chunkSize) {
+                pause();
+            }
+        } while (deleted == chunkSize);
+        return removed;
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(chunkPause.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Refresh token cleanup interrupted", e);
+        }
+    }
+
+    static String partitionName(LocalDate weekStart) {
+        return PARTITION_PREFIX + weekStart.format(PARTITION_SUFFIX);
+    }
+
+    private static LocalDate parseWeekStart(String partition) {
+        if (!partition.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -2,164 +2,304 @@ package dev.feruzlabs.springbootauth.services;
 
 import dev.feruzlabs.springbootauth.dto.response.JwtResponse;
 import dev.feruzlabs.springbootauth.dto.response.MessageResponse;
-import dev.feruzlabs.springbootauth.entities.RefreshToken;
 import dev.feruzlabs.springbootauth.entities.User;
-import dev.feruzlabs.springbootauth.repositories.RefreshTokenRepository;
-import dev.feruzlabs.springbootauth.repositories.UserRepository;
+import dev.feruzlabs.springbootauth.enums.AuthEventType;
 import dev.feruzlabs.springbootauth.securities.EnhancedJwtUtil;
+import dev.feruzlabs.springbootauth.services.audit.AuthAuditLog;
+import dev.feruzlabs.springbootauth.services.refreshToken.RefreshSession;
+import dev.feruzlabs.springbootauth.services.refreshToken.RefreshTokenStore;
+import dev.feruzlabs.springbootauth.utils.HashUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Metrikalar: auth.refresh-token{op=issue|rotate|revoke|revoke_device|revoke_user, outcome} - har operatsiya vaqti,
+ * auth.refresh-token.cleanup va auth.refresh-token.cleanup.deleted - tungi tozalash.
+ */
 @Service
 @Transactional
 public class RefreshTokenService {
 
-    @Autowired
-    private RefreshTokenRepository refreshTokenRepository;
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    // Login paytida device qatori parallel rotation bilan o'zgarsa nechta marta qayta o'qiladi
+    private static final int REISSUE_ATTEMPTS = 3;
 
     @Autowired
-    private UserRepository userRepository;
+    private RefreshTokenStore refreshTokenStore;
 
     @Autowired
     private EnhancedJwtUtil jwtUtil;
 
+    @Autowired
+    private ActiveSessionCounter activeSessionCounter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AuthAuditLog authAuditLog;
+
+    @Value("${refresh-token.max-sessions-per-user:5}")
+    private int maxSessionsPerUser;
+
+    private Timer cleanupTimer;
+    private Counter cleanupDeleted;
+
+    @PostConstruct
+    void init() {
+        this.cleanupTimer = meterRegistry.timer("auth.refresh-token.cleanup");
+        this.cleanupDeleted = meterRegistry.counter("auth.refresh-token.cleanup.deleted");
+    }
+
     /**
-     * User uchun yangi refresh token yaratish
+     * User ning shu device dagi sessiyasi uchun yangi refresh token (plaintext, faqat client ga beriladi).
+     * Device da sessiya bo'lsa joyida yangilanadi, bo'lmasa yangi sessiya qo'shiladi
+     * va max-sessions-per-user dan oshgan eng eski sessiyalar o'chiriladi.
+     * Boshqa devicelardagi sessiyalarga tegilmaydi.
      */
-    public RefreshToken createRefreshToken(User user) {
-        // Eski tokenlarni o'chirish (ixtiyoriy - bir user uchun bitta token)
-        refreshTokenRepository.deleteByUser(user);
+    public String createRefreshToken(User user, String deviceId) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            String token = issue(user, deviceId);
+            outcome = "success";
+            return token;
+        } finally {
+            stop(sample, "issue", outcome);
+        }
+    }
+
+    private String issue(User user, String deviceId) {
+        String token = UUID.randomUUID().toString(); // Random token
+        RefreshSession next = RefreshSession.issue(user, deviceId, HashUtils.sha256(token),
+                LocalDateTime.now().plusDays(7)); // 7 kun
 
-        RefreshToken refreshToken = new RefreshToken();
-        refreshToken.setUser(user);
-        refreshToken.setToken(UUID.randomUUID().toString()); // Random token
-        refreshToken.setExpiryDate(LocalDateTime.now().plusDays(7)); // 7 kun
+        // JPA da lock commit gacha turadi - ikkinchi parallel login birinchisining qatorini ko'radi;
+        // xotiradagi/fayl store larda insert yoki reissue qaytguncha
+        try (RefreshTokenStore.DeviceLock ignored = refreshTokenStore.lockDevice(user.getId(), deviceId)) {
+            for (int attempt = 0; attempt < REISSUE_ATTEMPTS; attempt++) {
+                Optional<RefreshSession> existing = refreshTokenStore.findByDevice(user.getId(), deviceId);
+                if (existing.isEmpty()) {
+                    break;
+                }
+                RefreshSession session = existing.get();
+                if (refreshTokenStore.reissue(session, next)) {
+                    if (session.isActive(LocalDateTime.now())) {
+                        activeSessionCounter.tokensRemoved(List.of(session.expiryDate()));
+                    }
+                    activeSessionCounter.tokenCreated(next.expiryDate());
+                    return token;
+                }
+                // Parallel /refresh qatorni aylantirdi - yangisini o'qib qayta urinish, ikkinchi qator ochmaslik
+            }
 
-        return refreshTokenRepository.save(refreshToken);
+            refreshTokenStore.insert(next);
+        }
+        activeSessionCounter.tokenCreated(next.expiryDate());
+        evictOldestSessions(user);
+        return token;
+    }
+
+    private void evictOldestSessions(User user) {
+        List<RefreshSession> sessions = refreshTokenStore.findActiveSessions(user.getId(), LocalDateTime.now());
+        if (sessions.size() <= maxSessionsPerUser) {
+            return;
+        }
+        // Ro'yxat expiryDate bo'yicha kamayish tartibida - oxiridagilar eng kam ishlatilganlar
+        List<RefreshSession> evicted = sessions.subList(maxSessionsPerUser, sessions.size());
+        refreshTokenStore.delete(evicted);
+        activeSessionCounter.tokensRemoved(evicted.stream().map(RefreshSession::expiryDate).toList());
     }
 
     /**
-     * Refresh token orqali access token yangilash
+     * Refresh token orqali access token yangilash.
+     * Access token sessiyadagi user ma'lumotlaridan yaratiladi - users jadvaliga murojaat yo'q.
      */
     public JwtResponse refreshToken(String refreshTokenStr) {
-        Optional<RefreshToken> refreshTokenOpt = refreshTokenRepository.findByToken(refreshTokenStr);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String[] outcome = {"error"};
+        try {
+            JwtResponse response = rotate(refreshTokenStr, outcome);
+            outcome[0] = "success";
+            return response;
+        } finally {
+            stop(sample, "rotate", outcome[0]);
+        }
+    }
+
+    // outcome[0] - rad etish sababi (metrika tegi va audit detail)
+    private JwtResponse rotate(String refreshTokenStr, String[] outcome) {
+        Optional<RefreshSession> sessionOpt = refreshTokenStore.findByTokenHash(HashUtils.sha256(refreshTokenStr));
 
-        if (refreshTokenOpt.isEmpty()) {
-            throw new RuntimeException("Refresh token topilmadi!");
+        if (sessionOpt.isEmpty()) {
+            throw rejected(outcome, "not_found", null, "Refresh token topilmadi!");
         }
 
-        RefreshToken refreshToken = refreshTokenOpt.get();
+        RefreshSession session = sessionOpt.get();
 
         // Token expire bo'lganligini tekshirish
-        if (refreshToken.getExpiryDate().isBefore(LocalDateTime.now())) {
-            refreshTokenRepository.delete(refreshToken);
-            throw new RuntimeException("Refresh token muddati tugagan!");
+        if (session.expiryDate().isBefore(LocalDateTime.now())) {
+            refreshTokenStore.delete(List.of(session));
+            throw rejected(outcome, "expired", session, "Refresh token muddati tugagan!");
         }
 
         // Token revoke qilinganligini tekshirish
-        if (refreshToken.isRevoked()) {
-            throw new RuntimeException("Refresh token bekor qilingan!");
+        if (session.revoked()) {
+            throw rejected(outcome, "revoked", session, "Refresh token bekor qilingan!");
         }
 
-        User user = refreshToken.getUser();
+        // Rotation: eski hash hali o'rnida bo'lsagina yangilanadi (compare-and-set).
+        // Parallel refresh da faqat bittasi yutadi - ikkinchisi false oladi.
+        String newToken = UUID.randomUUID().toString();
+        LocalDateTime newExpiryDate = LocalDateTime.now().plusDays(7);
+        if (!refreshTokenStore.rotate(session, HashUtils.sha256(newToken), newExpiryDate)) {
+            throw rejected(outcome, "conflict", session, "Refresh token topilmadi!");
+        }
+        activeSessionCounter.tokensRemoved(List.of(session.expiryDate()));
+        activeSessionCounter.tokenCreated(newExpiryDate);
 
         // Yangi access token yaratish
-        String newAccessToken = jwtUtil.generateToken(user);
-
-        // Ixtiyoriy: Yangi refresh token ham yaratish (rotation)
-        RefreshToken newRefreshToken = createRefreshToken(user);
+        String newAccessToken = jwtUtil.generateToken(session.toUser(), session.deviceId());
 
-        return new JwtResponse(
+        JwtResponse response = new JwtResponse(
                 newAccessToken,
-                newRefreshToken.getToken(),
-                user.getUsername(),
-                user.getRole().name()
+                newToken,
+                session.username(),
+                session.role().name()
         );
+        response.setDeviceId(session.deviceId());
+        authAuditLog.record(AuthEventType.REFRESH, session.userId(), session.username(), session.deviceId(), null, null);
+        return response;
+    }
+
+    private RuntimeException rejected(String[] outcome, String reason, RefreshSession session, String message) {
+        outcome[0] = reason;
+        if (session != null) {
+            authAuditLog.record(AuthEventType.REFRESH_FAILURE, session.userId(), session.username(),
+                    session.deviceId(), null, reason);
+        } else {
+            authAuditLog.record(AuthEventType.REFRESH_FAILURE, null, null, null, null, reason);
+        }
+        return new RuntimeException(message);
     }
 
     /**
      * Refresh token ni tekshirish
      */
     public boolean validateRefreshToken(String token) {
-        Optional<RefreshToken> refreshTokenOpt = refreshTokenRepository.findByToken(token);
-
-        if (refreshTokenOpt.isEmpty()) {
-            return false;
-        }
-
-        RefreshToken refreshToken = refreshTokenOpt.get();
-
-        // Expire va revoke tekshirish
-        return !refreshToken.getExpiryDate().isBefore(LocalDateTime.now()) &&
-                !refreshToken.isRevoked();
+        return refreshTokenStore.findByTokenHash(HashUtils.sha256(token))
+                .map(session -> session.isActive(LocalDateTime.now()))
+                .orElse(false);
     }
 
     /**
      * User ning barcha refresh tokenlarini bekor qilish
      */
     public void revokeAllUserTokens(User user) {
-        refreshTokenRepository.revokeAllUserTokens(user);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<RefreshSession> active = refreshTokenStore.findActiveSessions(user.getId(), LocalDateTime.now());
+        refreshTokenStore.revokeAllByUser(user.getId());
+        activeSessionCounter.tokensRemoved(active.stream().map(RefreshSession::expiryDate).toList());
+        stop(sample, "revoke_user", "success");
+    }
+
+    /**
+     * Faqat bitta device dagi sessiyani o'chirish
+     */
+    public void deleteDeviceTokens(User user, String deviceId) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<LocalDateTime> active = refreshTokenStore.findActiveSessions(user.getId(), LocalDateTime.now()).stream()
+                .filter(session -> deviceId.equals(session.deviceId()))
+                .map(RefreshSession::expiryDate)
+                .toList();
+        refreshTokenStore.deleteByDevice(user.getId(), deviceId);
+        activeSessionCounter.tokensRemoved(active);
+        stop(sample, "revoke_device", "success");
     }
 
     /**
      * User ning barcha refresh tokenlarini o'chirish
      */
     public void deleteAllUserTokens(User user) {
-        refreshTokenRepository.deleteByUser(user);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<RefreshSession> active = refreshTokenStore.findActiveSessions(user.getId(), LocalDateTime.now());
+        refreshTokenStore.deleteByUser(user.getId());
+        activeSessionCounter.tokensRemoved(active.stream().map(RefreshSession::expiryDate).toList());
+        stop(sample, "revoke_user", "success");
     }
 
     /**
      * Aniq bir tokenni bekor qilish
      */
     public MessageResponse revokeToken(String token) {
-        Optional<RefreshToken> refreshTokenOpt = refreshTokenRepository.findByToken(token);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Optional<RefreshSession> sessionOpt = refreshTokenStore.findByTokenHash(HashUtils.sha256(token));
 
-        if (refreshTokenOpt.isEmpty()) {
+        if (sessionOpt.isEmpty()) {
+            stop(sample, "revoke", "not_found");
             return new MessageResponse("Token topilmadi", false);
         }
 
-        RefreshToken refreshToken = refreshTokenOpt.get();
-        refreshToken.setRevoked(true);
-        refreshTokenRepository.save(refreshToken);
+        RefreshSession session = sessionOpt.get();
+        if (refreshTokenStore.revoke(session) && session.isActive(LocalDateTime.now())) {
+            activeSessionCounter.tokensRemoved(List.of(session.expiryDate()));
+        }
 
+        stop(sample, "revoke", "success");
+        authAuditLog.record(AuthEventType.REVOKE, session.userId(), session.username(), session.deviceId(), null, "token");
         return new MessageResponse("Token muvaffaqiyatli bekor qilindi", true);
     }
 
+    private void stop(Timer.Sample sample, String op, String outcome) {
+        sample.stop(meterRegistry.timer("auth.refresh-token", "op", op, "outcome", outcome));
+    }
+
     /**
      * Muddati tugagan tokenlarni tozalash (scheduled task)
      * Har kuni soat 02:00 da ishga tushadi
      */
     @Scheduled(cron = "0 0 2 * * ?")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void cleanupExpiredTokens() {
         LocalDateTime now = LocalDateTime.now();
-        refreshTokenRepository.deleteExpiredTokens(now);
-        System.out.println("Expired refresh tokens cleaned up at: " + now);
+        long started = System.nanoTime();
+        // JPA store da bitta katta DELETE o'rniga partition DROP yoki kichik chunklar
+        long removed = refreshTokenStore.purgeExpired(now);
+        long elapsed = System.nanoTime() - started;
+        cleanupTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        cleanupDeleted.increment(removed);
+        log.info("Expired refresh tokens cleaned up: {} rows in {} ms", removed, TimeUnit.NANOSECONDS.toMillis(elapsed));
     }
 
     /**
-     * User statistikasi - nechta aktiv refresh token
+     * User statistikasi - nechta aktiv refresh token (indexed COUNT, jadval heap ga yuklanmaydi)
      */
+    @Transactional(readOnly = true)
     public long getActiveTokenCountForUser(User user) {
-        return refreshTokenRepository.findAll().stream()
-                .filter(token -> token.getUser().equals(user))
-                .filter(token -> !token.isRevoked())
-                .filter(token -> token.getExpiryDate().isAfter(LocalDateTime.now()))
-                .count();
+        return refreshTokenStore.countActive(user.getId(), LocalDateTime.now());
     }
 
     /**
-     * Barcha aktiv tokenlar soni
+     * Barcha aktiv tokenlar soni - xotiradagi hisoblagichdan, O(1)
      */
     public long getTotalActiveTokens() {
-        return refreshTokenRepository.findAll().stream()
-                .filter(token -> !token.isRevoked())
-                .filter(token -> token.getExpiryDate().isAfter(LocalDateTime.now()))
-                .count();
+        return activeSessionCounter.get();
     }
 }
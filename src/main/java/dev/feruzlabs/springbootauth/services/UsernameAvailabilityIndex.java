@@ -0,0 +1,216 @@
+package dev.feruzlabs.springbootauth.services;
+
+import dev.feruzlabs.springbootauth.repositories.UserRepository;
+import dev.feruzlabs.springbootauth.utils.BloomFilter;
+import dev.feruzlabs.springbootauth.utils.SortedStringArray;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Signup formasidagi "username bandmi" tekshiruvi uchun xotiradagi indeks - har klaviatura bosishda DB ga bormaydi.
+ * <ul>
+ *   <li>Bloom filter - band bo'lmagan nomlarning deyarli barchasi shu yerda "bo'sh" deb qaytadi;</li>
+ *   <li>SortedStringArray - startup da users dan oqim bilan yuklangan nomlar (tasdiqlash, binary search);</li>
+ *   <li>delta - shu node da yuklashdan keyin ro'yxatdan o'tgan/import qilingan nomlar.</li>
+ * </ul>
+ * Nomlar uq_users_username_lower kabi lower() bilan solishtiriladi. Boshqa node lardagi registratsiyalar
+ * username.index.rebuild-interval da ko'rinadi - javob maslahat xarakterida, to'g'rilikni unique index ta'minlaydi.
+ * Indeks yuklanmagan bo'lsa (startup) DB ga tushiladi.
+ */
+@Component
+public class UsernameAvailabilityIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(UsernameAvailabilityIndex.class);
+
+    // RegisterRequest dagi @Size bilan bir xil
+    private static final int MIN_LENGTH = 3;
+    private static final int MAX_LENGTH = 20;
+    private static final int MAX_SUGGESTION_ATTEMPTS = 40;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${username.index.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${username.index.fetch-size:5000}")
+    private int fetchSize;
+
+    @Value("${username.index.suggestions:3}")
+    private int suggestionCount;
+
+    private volatile Snapshot snapshot;
+
+    private Counter bloomNegatives;
+    private Counter indexLookups;
+    private Counter databaseLookups;
+
+    public record Availability(boolean available, List<String> suggestions) {
+    }
+
+    @PostConstruct
+    void init() {
+        if (meterRegistry != null) {
+            bloomNegatives = meterRegistry.counter("auth.username.check", "source", "bloom");
+            indexLookups = meterRegistry.counter("auth.username.check", "source", "index");
+            databaseLookups = meterRegistry.counter("auth.username.check", "source", "database");
+            meterRegistry.gauge("auth.username.index.size", this, index -> {
+                Snapshot current = index.snapshot;
+                return current != null ? current.base.size() + current.delta.size() : 0;
+            });
+        }
+    }
+
+    /**
+     * users dan qayta qurish: startup da va username.index.rebuild-interval da (boshqa node lar, o'chirilganlar)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${username.index.rebuild-interval:PT1H}",
+            fixedDelayString = "${username.index.rebuild-interval:PT1H}")
+    public void rebuild() {
+        long started = System.nanoTime();
+        List<byte[]> names = new ArrayList<>();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        // Forward-only cursor: JDBC natijani to'liq xotiraga olmaydi
+        transaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement("SELECT username FROM users",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, rs -> {
+            names.add(normalize(rs.getString(1)).getBytes(StandardCharsets.UTF_8));
+        }));
+
+        SortedStringArray base = SortedStringArray.of(names);
+        // Keyingi qayta qurishgacha registratsiyalar uchun zaxira
+        long capacity = base.size() + Math.max(10_000, base.size() / 10);
+        BloomFilter filter = new BloomFilter(capacity, falsePositiveRate);
+        for (byte[] name : names) {
+            filter.put(new String(name, StandardCharsets.UTF_8));
+        }
+        Snapshot rebuilt = new Snapshot(filter, base);
+
+        // Yuklash paytida qo'shilganlar yo'qolmasin
+        synchronized (this) {
+            if (snapshot != null) {
+                snapshot.delta.forEach(rebuilt::add);
+            }
+            snapshot = rebuilt;
+        }
+        log.info("Username index rebuilt: {} names, {} KB sorted + {} KB bloom in {} ms", base.size(),
+                base.sizeInBytes() / 1024, filter.bitSize() / 8 / 1024, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Registratsiya yoki import muvaffaqiyatli bo'lgandan keyin
+     */
+    public synchronized void add(String username) {
+        if (snapshot != null) {
+            snapshot.add(normalize(username));
+        }
+    }
+
+    public boolean isTaken(String username) {
+        Snapshot current = snapshot;
+        String name = normalize(username);
+        if (current == null) {
+            increment(databaseLookups);
+            return userRepository.existsByUsernameNormalized(name);
+        }
+        if (!current.filter.mightContain(name)) {
+            increment(bloomNegatives);
+            return false;
+        }
+        increment(indexLookups);
+        return current.contains(name);
+    }
+
+    /**
+     * Band bo'lsa - bir nechta bo'sh muqobil nom: avval name1..name9, keyin tasodifiy 2-4 xonali qo'shimchalar
+     * (mashhur nomlarda ketma-ket raqamlar allaqachon band). 20 belgidan oshsa asos qisqartiriladi.
+     */
+    public Availability check(String username) {
+        if (!isTaken(username)) {
+            return new Availability(true, List.of());
+        }
+        Set<String> suggestions = new LinkedHashSet<>();
+        for (int attempt = 1; attempt <= MAX_SUGGESTION_ATTEMPTS && suggestions.size() < suggestionCount; attempt++) {
+            int number = attempt <= 9 ? attempt : ThreadLocalRandom.current().nextInt(10, 10_000);
+            String suffix = Integer.toString(number);
+            String base = username.length() + suffix.length() > MAX_LENGTH
+                    ? username.substring(0, MAX_LENGTH - suffix.length())
+                    : username;
+            String candidate = base + suffix;
+            if (candidate.length() >= MIN_LENGTH && !isTaken(candidate)) {
+                suggestions.add(candidate);
+            }
+        }
+        return new Availability(false, List.copyOf(suggestions));
+    }
+
+    private static String normalize(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    private static final class Snapshot {
+        final BloomFilter filter;
+        final SortedStringArray base;
+        final Set<String> delta = ConcurrentHashMap.newKeySet();
+
+        Snapshot(BloomFilter filter, SortedStringArray base) {
+            this.filter = filter;
+            this.base = base;
+        }
+
+        // Avval delta ga, keyin filterga - filter "bor" desa nom albatta topiladi
+        void add(String name) {
+            if (!base.contains(name)) {
+                delta.add(name);
+            }
+            filter.put(name);
+        }
+
+        boolean contains(String name) {
+            return delta.contains(name) || base.contains(name);
+        }
+    }
+}
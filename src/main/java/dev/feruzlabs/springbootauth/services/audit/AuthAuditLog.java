@@ -0,0 +1,229 @@
+package dev.feruzlabs.springbootauth.services.audit;
+
+import dev.feruzlabs.springbootauth.enums.AuditOverflowPolicy;
+import dev.feruzlabs.springbootauth.enums.AuthEventType;
+import dev.feruzlabs.springbootauth.utils.MpscRingBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Auth audit: request thread faqat eventni lock-free ring buffer ga qo'yadi (I/O yo'q),
+ * alohida auth-audit-writer thread ularni batch-size lik batch INSERT bilan auth_events ga yozadi.
+ * Buffer to'lsa security.audit.overflow: DROP - tashlanadi, BLOCK - max-block gacha kutiladi.
+ * Yozish xato bersa batch max-retries marta qayta urinib, keyin tashlanadi.
+ * Metrikalar: auth.audit.buffer.size, auth.audit.lag, auth.audit.flush, auth.audit.written,
+ * auth.audit.dropped{reason=overflow|write_error}, auth.audit.blocked
+ */
+@Service
+public class AuthAuditLog {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthAuditLog.class);
+
+    private static final String INSERT_SQL = "INSERT INTO auth_events " +
+            "(occurred_at, event_type, user_id, username, device_id, client_ip, detail) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    // v2/09 changeset dagi ustun uzunliklari - uzun qiymat butun batch ni buzmasin
+    private static final int USERNAME_LENGTH = 100;
+    private static final int DEVICE_ID_LENGTH = 64;
+    private static final int CLIENT_IP_LENGTH = 45;
+    private static final int DETAIL_LENGTH = 255;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${security.audit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${security.audit.buffer-size:8192}")
+    private int bufferSize;
+
+    @Value("${security.audit.batch-size:500}")
+    private int batchSize;
+
+    @Value("${security.audit.flush-interval:PT1S}")
+    private Duration flushInterval;
+
+    @Value("${security.audit.overflow:DROP}")
+    private AuditOverflowPolicy overflowPolicy;
+
+    @Value("${security.audit.max-block:50ms}")
+    private Duration maxBlock;
+
+    @Value("${security.audit.max-retries:3}")
+    private int maxRetries;
+
+    private MpscRingBuffer<AuthEvent> buffer;
+    private Thread writer;
+    private volatile boolean running;
+    // Writer park qilingan - batch to'lganda yozuvchi uni uyg'otadi
+    private volatile boolean writerWaiting;
+    // Writer yozib (yoki tashlab) bo'lgan eventlar soni - flush() shu bilan kutadi
+    private volatile long processed;
+
+    private Timer lagTimer;
+    private Timer flushTimer;
+    private Timer blockedTimer;
+    private Counter written;
+    private Counter droppedOverflow;
+    private Counter droppedWriteError;
+
+    @PostConstruct
+    void init() {
+        this.buffer = new MpscRingBuffer<>(bufferSize);
+        this.lagTimer = meterRegistry.timer("auth.audit.lag");
+        this.flushTimer = meterRegistry.timer("auth.audit.flush");
+        this.blockedTimer = meterRegistry.timer("auth.audit.blocked");
+        this.written = meterRegistry.counter("auth.audit.written");
+        this.droppedOverflow = meterRegistry.counter("auth.audit.dropped", "reason", "overflow");
+        this.droppedWriteError = meterRegistry.counter("auth.audit.dropped", "reason", "write_error");
+        meterRegistry.gauge("auth.audit.buffer.size", buffer, MpscRingBuffer::size);
+
+        if (!enabled) {
+            return;
+        }
+        this.running = true;
+        this.writer = new Thread(this::runWriter, "auth-audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Eventni navbatga qo'yadi. Buffer to'lib event tashlansa false.
+     */
+    public boolean record(AuthEventType type, Long userId, String username, String deviceId,
+                          String clientIp, String detail) {
+        if (!running) {
+            return false;
+        }
+        AuthEvent event = new AuthEvent(type, userId, username, deviceId, clientIp, detail,
+                LocalDateTime.now(), System.nanoTime());
+        if (!buffer.offer(event) && !offerBlocking(event)) {
+            droppedOverflow.increment();
+            return false;
+        }
+        if (writerWaiting && buffer.size() >= batchSize) {
+            writerWaiting = false;
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    private boolean offerBlocking(AuthEvent event) {
+        if (overflowPolicy != AuditOverflowPolicy.BLOCK) {
+            return false;
+        }
+        long started = System.nanoTime();
+        long deadline = started + maxBlock.toNanos();
+        boolean offered;
+        do {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+            offered = buffer.offer(event);
+        } while (!offered && System.nanoTime() < deadline);
+        blockedTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return offered;
+    }
+
+    private void runWriter() {
+        List<AuthEvent> batch = new ArrayList<>(batchSize);
+        while (running || buffer.size() > 0) {
+            int drained = buffer.drainTo(batch, batchSize);
+            if (drained > 0) {
+                writeWithRetries(batch);
+                processed += drained;
+                batch.clear();
+            }
+            if (drained < batchSize && running) {
+                writerWaiting = true;
+                LockSupport.parkNanos(this, flushInterval.toNanos());
+                writerWaiting = false;
+            }
+        }
+    }
+
+    private void writeWithRetries(List<AuthEvent> batch) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                flushTimer.record(() -> write(batch));
+                long now = System.nanoTime();
+                for (AuthEvent event : batch) {
+                    lagTimer.record(now - event.enqueuedNanos(), TimeUnit.NANOSECONDS);
+                }
+                written.increment(batch.size());
+                return;
+            } catch (RuntimeException e) {
+                if (attempt > maxRetries || !running) {
+                    droppedWriteError.increment(batch.size());
+                    log.error("Failed to write {} auth events, dropping", batch.size(), e);
+                    return;
+                }
+                log.warn("Failed to write {} auth events (attempt {}): {}", batch.size(), attempt, e.getMessage());
+                LockSupport.parkNanos(flushInterval.toNanos());
+            }
+        }
+    }
+
+    private void write(List<AuthEvent> batch) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, event) -> {
+            ps.setTimestamp(1, Timestamp.valueOf(event.occurredAt()));
+            ps.setString(2, event.type().name());
+            if (event.userId() != null) {
+                ps.setLong(3, event.userId());
+            } else {
+                ps.setNull(3, Types.BIGINT);
+            }
+            ps.setString(4, truncate(event.username(), USERNAME_LENGTH));
+            ps.setString(5, truncate(event.deviceId(), DEVICE_ID_LENGTH));
+            ps.setString(6, truncate(event.clientIp(), CLIENT_IP_LENGTH));
+            ps.setString(7, truncate(event.detail(), DETAIL_LENGTH));
+        });
+    }
+
+    private static String truncate(String value, int length) {
+        return value == null || value.length() <= length ? value : value.substring(0, length);
+    }
+
+    /**
+     * Navbatdagilarni hozir yozdirib, bo'shaguncha kutadi (testlar va boshqaruv uchun).
+     */
+    public void flush(Duration timeout) {
+        long target = buffer.offered();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (running && processed < target && System.nanoTime() < deadline) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    // Writer qolganlarini yozib chiqadi, keyin to'xtaydi
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+}
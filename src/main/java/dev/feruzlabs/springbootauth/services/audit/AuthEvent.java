@@ -0,0 +1,18 @@
+package dev.feruzlabs.springbootauth.services.audit;
+
+import dev.feruzlabs.springbootauth.enums.AuthEventType;
+
+import java.time.LocalDateTime;
+
+/**
+ * auth_events jadvalidagi bitta qator. enqueuedNanos - lag metrikasi uchun (System.nanoTime).
+ */
+public record AuthEvent(AuthEventType type,
+                        Long userId,
+                        String username,
+                        String deviceId,
+                        String clientIp,
+                        String detail,
+                        LocalDateTime occurredAt,
+                        long enqueuedNanos) {
+}
@@ -0,0 +1,259 @@
+package dev.feruzlabs.springbootauth.services.invalidation;
+
+import dev.feruzlabs.springbootauth.events.AccessTokenRevokedEvent;
+import dev.feruzlabs.springbootauth.events.InvalidationResyncEvent;
+import dev.feruzlabs.springbootauth.events.UserSecurityChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Node lar o'rtasida user/token invalidation larini tarqatish.
+ * Lokal UserSecurityChangedEvent va AccessTokenRevokedEvent lar commit dan keyin navbatga tushadi,
+ * debounce oynasida bir xil kalitlilar birlashtiriladi va bitta xabar qilib yuboriladi.
+ * Boshqa node lardan kelgan xabarlar remote=true event sifatida lokal qayta publish qilinadi -
+ * PrincipalCache, SecurityVersionRegistry, VerifiedTokenCache, AccessTokenDenylist odatdagidek yangilanadi.
+ * Kanal qayta ulanganda InvalidationResyncEvent - keshlar DB dan to'liq tiklanadi.
+ * Yuborish xato bersa qatorlar navbatga qaytadi va retry-backoff dan boshlab ikki barobar
+ * oshib boruvchi (retry-max-backoff gacha) kechikish bilan qayta yuboriladi.
+ * <p>
+ * Xabar formati: birinchi qator - yuboruvchi node id, keyingilar:
+ * {@code U|userId|securityVersion|changedAtMillis|username} yoki {@code T|jti|expiresAtMillis}.
+ */
+@Component
+public class InvalidationBus implements InvalidationTransport.Listener {
+
+    private static final Logger log = LoggerFactory.getLogger(InvalidationBus.class);
+
+    @Autowired(required = false)
+    private InvalidationTransport transport;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${security.invalidation.debounce:20ms}")
+    private Duration debounce;
+
+    @Value("${security.invalidation.max-batch:200}")
+    private int maxBatch;
+
+    @Value("${security.invalidation.retry-backoff:100ms}")
+    private Duration retryBackoff;
+
+    @Value("${security.invalidation.retry-max-backoff:30s}")
+    private Duration retryMaxBackoff;
+
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+
+    // kalit (U:userId / T:jti) -> qator; debounce oynasida oxirgisi qoladi
+    private final Map<String, String> pending = new LinkedHashMap<>();
+    private boolean flushScheduled;
+    // Ketma-ket muvaffaqiyatsiz flush lar; > 0 bo'lsa navbat faqat backoff bilan yuboriladi
+    private int failedFlushes;
+
+    private ScheduledExecutorService executor;
+    private Counter sent;
+    private Counter received;
+    private Counter resyncs;
+
+    @PostConstruct
+    void start() {
+        if (transport == null) {
+            log.info("Invalidation bus disabled (security.invalidation.transport=none)");
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "invalidation-bus");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (meterRegistry != null) {
+            sent = meterRegistry.counter("auth.invalidation.sent");
+            received = meterRegistry.counter("auth.invalidation.received");
+            resyncs = meterRegistry.counter("auth.invalidation.resyncs");
+        }
+        transport.start(this);
+        log.info("Invalidation bus started on node {} ({})", nodeId, transport.getClass().getSimpleName());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (transport == null) {
+            return;
+        }
+        executor.shutdown();
+        flush();
+        transport.stop();
+    }
+
+    // Tranzaksiya ichida publish qilingan bo'lsa - commit dan keyin; boshqa node lar DB dan yangisini o'qisin
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserSecurityChanged(UserSecurityChangedEvent event) {
+        if (!event.isRemote()) {
+            enqueue("U:" + event.getUserId(),
+                    "U|" + event.getUserId() + "|" + event.getSecurityVersion() + "|"
+                            + event.getChangedAt().toEpochMilli() + "|" + event.getUsername());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccessTokenRevoked(AccessTokenRevokedEvent event) {
+        if (!event.isRemote()) {
+            enqueue("T:" + event.getTokenId(), "T|" + event.getTokenId() + "|" + event.getExpiresAt());
+        }
+    }
+
+    private void enqueue(String key, String line) {
+        if (transport == null) {
+            return;
+        }
+        boolean flushNow;
+        synchronized (pending) {
+            pending.remove(key);
+            pending.put(key, line);
+            flushNow = pending.size() >= maxBatch && failedFlushes == 0;
+            if (!flushNow && !flushScheduled) {
+                flushScheduled = true;
+                executor.schedule(this::flush, debounce.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+        if (flushNow) {
+            executor.execute(this::flush);
+        }
+    }
+
+    void flush() {
+        Map<String, String> batch;
+        synchronized (pending) {
+            flushScheduled = false;
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new LinkedHashMap<>(pending);
+            pending.clear();
+        }
+        try {
+            for (String payload : pack(new ArrayList<>(batch.values()))) {
+                transport.send(payload);
+            }
+            synchronized (pending) {
+                failedFlushes = 0;
+            }
+            if (sent != null) {
+                sent.increment(batch.size());
+            }
+        } catch (RuntimeException e) {
+            retry(batch, e);
+        }
+    }
+
+    /**
+     * Boshqa node larning LISTEN ulanishi uzilmagan - ular resync qilmaydi, shuning uchun qatorlar
+     * tashlab yuborilmaydi. Qisman yuborilgan batch to'liq qayta ketadi: qabul qilish idempotent.
+     */
+    private void retry(Map<String, String> batch, RuntimeException e) {
+        long delayMillis;
+        synchronized (pending) {
+            // Oraliqda shu kalitga yangiroq qator kelgan bo'lsa u ustun
+            batch.forEach(pending::putIfAbsent);
+            failedFlushes++;
+            delayMillis = Math.min(retryBackoff.toMillis() << Math.min(failedFlushes - 1, 20),
+                    retryMaxBackoff.toMillis());
+            if (flushScheduled || executor.isShutdown()) {
+                delayMillis = -1;
+            } else {
+                flushScheduled = true;
+                executor.schedule(this::flush, delayMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (delayMillis >= 0) {
+            log.warn("Failed to send {} invalidations, retrying in {} ms: {}", batch.size(), delayMillis, e.getMessage());
+        } else {
+            log.warn("Failed to send {} invalidations: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    // Qatorlarni transport chegarasidan oshmaydigan xabarlarga bo'lish
+    private List<String> pack(List<String> lines) {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(nodeId);
+        int bytes = nodeId.length();
+        for (String line : lines) {
+            int lineBytes = line.getBytes(StandardCharsets.UTF_8).length + 1;
+            if (bytes + lineBytes > transport.maxPayloadBytes() && payload.length() > nodeId.length()) {
+                payloads.add(payload.toString());
+                payload = new StringBuilder(nodeId);
+                bytes = nodeId.length();
+            }
+            payload.append('\n').append(line);
+            bytes += lineBytes;
+        }
+        payloads.add(payload.toString());
+        return payloads;
+    }
+
+    @Override
+    public void onMessage(String payload) {
+        String[] lines = payload.split("\n");
+        if (lines[0].equals(nodeId)) {
+            return;
+        }
+        for (int i = 1; i < lines.length; i++) {
+            try {
+                dispatch(lines[i]);
+            } catch (RuntimeException e) {
+                log.warn("Ignoring malformed invalidation '{}': {}", lines[i], e.getMessage());
+            }
+        }
+        if (received != null) {
+            received.increment(lines.length - 1);
+        }
+    }
+
+    private void dispatch(String line) {
+        // username oxirida - ichida '|' bo'lsa ham bo'linmaydi
+        String[] parts = line.split("\\|", 5);
+        switch (parts[0]) {
+            case "U" -> eventPublisher.publishEvent(new UserSecurityChangedEvent(Long.valueOf(parts[1]), parts[4],
+                    Integer.parseInt(parts[2]), Instant.ofEpochMilli(Long.parseLong(parts[3])), true));
+            case "T" -> eventPublisher.publishEvent(new AccessTokenRevokedEvent(
+                    parts[1], Long.parseLong(parts[2]), true));
+            default -> throw new IllegalArgumentException("unknown type " + parts[0]);
+        }
+    }
+
+    @Override
+    public void onReconnect() {
+        if (resyncs != null) {
+            resyncs.increment();
+        }
+        eventPublisher.publishEvent(new InvalidationResyncEvent());
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+}
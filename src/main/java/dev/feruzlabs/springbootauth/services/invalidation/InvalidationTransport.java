@@ -0,0 +1,26 @@
+package dev.feruzlabs.springbootauth.services.invalidation;
+
+/**
+ * Nodelar o'rtasida invalidation xabarlarini tashuvchi kanal.
+ * security.invalidation.transport bilan tanlanadi: postgres (LISTEN/NOTIFY) yoki local (bitta JVM, testlar).
+ */
+public interface InvalidationTransport {
+
+    /**
+     * Tinglashni boshlaydi. Kanal uzilib qayta ulansa listener.onReconnect() chaqiriladi.
+     */
+    void start(Listener listener);
+
+    void send(String payload);
+
+    void stop();
+
+    // Bitta xabarning maksimal hajmi (bayt)
+    int maxPayloadBytes();
+
+    interface Listener {
+        void onMessage(String payload);
+
+        void onReconnect();
+    }
+}
@@ -0,0 +1,43 @@
+package dev.feruzlabs.springbootauth.services.invalidation;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Bitta JVM ichidagi transport: shu JVM dagi barcha (masalan, testdagi bir nechta) bus lar
+ * bir-birining xabarini oladi. Yuborish sinxron, yuboruvchining thread ida.
+ */
+@Component
+@ConditionalOnProperty(name = "security.invalidation.transport", havingValue = "local")
+public class LocalInvalidationTransport implements InvalidationTransport {
+
+    private static final List<Listener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private Listener listener;
+
+    @Override
+    public void start(Listener listener) {
+        this.listener = listener;
+        LISTENERS.add(listener);
+    }
+
+    @Override
+    public void send(String payload) {
+        for (Listener subscriber : LISTENERS) {
+            subscriber.onMessage(payload);
+        }
+    }
+
+    @Override
+    public void stop() {
+        LISTENERS.remove(listener);
+    }
+
+    @Override
+    public int maxPayloadBytes() {
+        return 8000;
+    }
+}
@@ -0,0 +1,125 @@
+package dev.feruzlabs.springbootauth.services.invalidation;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * PostgreSQL LISTEN/NOTIFY transport. Pooldagi bitta connection doimiy LISTEN uchun band qilinadi
+ * va alohida daemon thread da poll qilinadi; NOTIFY oddiy JdbcTemplate orqali yuboriladi.
+ * Connection uzilsa reconnect-delay dan keyin qayta ulanadi va listener.onReconnect() chaqiriladi -
+ * uzilish paytidagi xabarlar yo'qolgan bo'lishi mumkin.
+ */
+@Component
+@ConditionalOnProperty(name = "security.invalidation.transport", havingValue = "postgres", matchIfMissing = true)
+public class PostgresInvalidationTransport implements InvalidationTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresInvalidationTransport.class);
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Faqat kichik harf, raqam va _ (LISTEN da identifikator sifatida ishlatiladi)
+    @Value("${security.invalidation.channel:auth_invalidation}")
+    private String channel;
+
+    @Value("${security.invalidation.poll-timeout:500ms}")
+    private Duration pollTimeout;
+
+    @Value("${security.invalidation.reconnect-delay:1s}")
+    private Duration reconnectDelay;
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    @Override
+    public void start(Listener listener) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid invalidation channel name: " + channel);
+        }
+        running = true;
+        listenerThread = new Thread(() -> listen(listener), "invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    private void listen(Listener listener) {
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                if (!connection.getAutoCommit()) {
+                    connection.commit();
+                }
+                if (connectedBefore) {
+                    log.warn("Invalidation channel {} reconnected, requesting full resync", channel);
+                    listener.onReconnect();
+                }
+                connectedBefore = true;
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) pollTimeout.toMillis());
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        if (channel.equals(notification.getName())) {
+                            listener.onMessage(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (running) {
+                    log.warn("Invalidation channel {} lost: {}", channel, e.getMessage());
+                    sleep(reconnectDelay);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void send(String payload) {
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> {
+        }, channel, payload);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    @Override
+    public int maxPayloadBytes() {
+        // PostgreSQL NOTIFY payload chegarasi 8000 bayt
+        return 7900;
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package dev.feruzlabs.springbootauth.services.refreshToken;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bitta process ichidagi (user, device) lock lari. Yozuv faqat kimdir ushlab yoki kutib turganda yashaydi -
+ * oxirgi egasi close qilganda xaritadan o'chiriladi, ko'p device lar bilan xotira o'smaydi.
+ */
+final class DeviceLocks {
+
+    private final Map<String, Holder> holders = new ConcurrentHashMap<>();
+
+    RefreshTokenStore.DeviceLock lock(Long userId, String deviceId) {
+        String key = userId + ":" + deviceId;
+        Holder holder = holders.compute(key, (k, existing) -> {
+            Holder current = existing != null ? existing : new Holder();
+            current.users++;
+            return current;
+        });
+        holder.lock.lock();
+        return () -> {
+            holder.lock.unlock();
+            holders.computeIfPresent(key, (k, current) -> --current.users == 0 ? null : current);
+        };
+    }
+
+    // users faqat compute ichida o'zgaradi - ConcurrentHashMap shu kalit bo'yicha ketma-ket bajaradi
+    private static final class Holder {
+        private final ReentrantLock lock = new ReentrantLock();
+        private int users;
+    }
+}
@@ -0,0 +1,188 @@
+package dev.feruzlabs.springbootauth.services.refreshToken;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Xotiradagi store - testlar va bitta node uchun (restartda sessiyalar yo'qoladi).
+ * Rotation ConcurrentHashMap.computeIfPresent ichida compare-and-set; muddati o'tganlar
+ * sweep-interval da o'chiriladi.
+ */
+@Component
+@ConditionalOnProperty(name = "refresh-token.store", havingValue = "memory")
+public class InMemoryRefreshTokenStore implements RefreshTokenStore {
+
+    private final Map<Long, RefreshSession> sessions = new ConcurrentHashMap<>();
+    private final Map<ByteBuffer, Long> idsByHash = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> idsByUser = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final DeviceLocks deviceLocks = new DeviceLocks();
+
+    @Override
+    public Optional<RefreshSession> findByTokenHash(byte[] tokenHash) {
+        Long id = idsByHash.get(key(tokenHash));
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(sessions.get(id))
+                .filter(session -> Arrays.equals(session.tokenHash(), tokenHash));
+    }
+
+    @Override
+    public Optional<RefreshSession> findByDevice(Long userId, String deviceId) {
+        return userSessions(userId).stream()
+                .filter(session -> session.deviceId().equals(deviceId))
+                .max(Comparator.comparing(RefreshSession::expiryDate));
+    }
+
+    @Override
+    public List<RefreshSession> findActiveSessions(Long userId, LocalDateTime now) {
+        return userSessions(userId).stream()
+                .filter(session -> session.isActive(now))
+                .sorted(Comparator.comparing(RefreshSession::expiryDate).reversed())
+                .toList();
+    }
+
+    @Override
+    public DeviceLock lockDevice(Long userId, String deviceId) {
+        return deviceLocks.lock(userId, deviceId);
+    }
+
+    @Override
+    public RefreshSession insert(RefreshSession session) {
+        RefreshSession stored = session.withId(sequence.incrementAndGet());
+        sessions.put(stored.id(), stored);
+        idsByHash.put(key(stored.tokenHash()), stored.id());
+        idsByUser.computeIfAbsent(stored.userId(), userId -> ConcurrentHashMap.newKeySet()).add(stored.id());
+        return stored;
+    }
+
+    @Override
+    public boolean rotate(RefreshSession current, byte[] newTokenHash, LocalDateTime newExpiryDate) {
+        return replace(current.id(), stored -> !stored.revoked()
+                        && Arrays.equals(stored.tokenHash(), current.tokenHash())
+                        && stored.expiryDate().equals(current.expiryDate()),
+                stored -> stored.rotated(newTokenHash, newExpiryDate));
+    }
+
+    @Override
+    public boolean reissue(RefreshSession current, RefreshSession next) {
+        return replace(current.id(), stored -> stored.expiryDate().equals(current.expiryDate()),
+                stored -> next.withId(stored.id()));
+    }
+
+    @Override
+    public boolean revoke(RefreshSession session) {
+        return replace(session.id(), stored -> stored.expiryDate().equals(session.expiryDate()),
+                RefreshSession::asRevoked);
+    }
+
+    @Override
+    public void revokeAllByUser(Long userId) {
+        for (Long id : idsByUser.getOrDefault(userId, Set.of())) {
+            sessions.computeIfPresent(id, (key, stored) -> stored.asRevoked());
+        }
+    }
+
+    @Override
+    public void delete(Collection<RefreshSession> toDelete) {
+        toDelete.forEach(session -> remove(session.id()));
+    }
+
+    @Override
+    public void deleteByUser(Long userId) {
+        delete(userSessions(userId));
+    }
+
+    @Override
+    public void deleteByDevice(Long userId, String deviceId) {
+        delete(userSessions(userId).stream().filter(session -> session.deviceId().equals(deviceId)).toList());
+    }
+
+    @Override
+    public long countActive(Long userId, LocalDateTime now) {
+        return userSessions(userId).stream().filter(session -> session.isActive(now)).count();
+    }
+
+    @Override
+    public Map<LocalDateTime, Long> countActiveByExpiryMinute(LocalDateTime now) {
+        Map<LocalDateTime, Long> counts = new HashMap<>();
+        for (RefreshSession session : sessions.values()) {
+            if (session.isActive(now)) {
+                counts.merge(session.expiryDate().truncatedTo(ChronoUnit.MINUTES), 1L, Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public long purgeExpired(LocalDateTime now) {
+        List<RefreshSession> expired = sessions.values().stream()
+                .filter(session -> session.expiryDate().isBefore(now))
+                .toList();
+        delete(expired);
+        return expired.size();
+    }
+
+    @Scheduled(fixedDelayString = "${refresh-token.store.memory.sweep-interval:PT1M}")
+    public void sweep() {
+        purgeExpired(LocalDateTime.now());
+    }
+
+    private boolean replace(Long id, Predicate<RefreshSession> expected,
+                            UnaryOperator<RefreshSession> update) {
+        RefreshSession[] previous = new RefreshSession[1];
+        RefreshSession updated = sessions.computeIfPresent(id, (key, stored) -> {
+            if (!expected.test(stored)) {
+                return stored;
+            }
+            previous[0] = stored;
+            return update.apply(stored);
+        });
+        if (previous[0] == null) {
+            return false;
+        }
+        if (!Arrays.equals(previous[0].tokenHash(), updated.tokenHash())) {
+            idsByHash.remove(key(previous[0].tokenHash()), id);
+            idsByHash.put(key(updated.tokenHash()), id);
+        }
+        return true;
+    }
+
+    private void remove(Long id) {
+        RefreshSession removed = sessions.remove(id);
+        if (removed != null) {
+            idsByHash.remove(key(removed.tokenHash()), id);
+            Set<Long> userIds = idsByUser.get(removed.userId());
+            if (userIds != null) {
+                userIds.remove(id);
+            }
+        }
+    }
+
+    private List<RefreshSession> userSessions(Long userId) {
+        List<RefreshSession> result = new ArrayList<>();
+        for (Long id : idsByUser.getOrDefault(userId, Set.of())) {
+            RefreshSession session = sessions.get(id);
+            if (session != null) {
+                result.add(session);
+            }
+        }
+        return result;
+    }
+
+    // ByteBuffer.equals/hashCode tarkib bo'yicha - massiv nusxasi o'zgarmaydi
+    private static ByteBuffer key(byte[] tokenHash) {
+        return ByteBuffer.wrap(tokenHash.clone());
+    }
+}
@@ -0,0 +1,174 @@
+package dev.feruzlabs.springbootauth.services.refreshToken;
+
+import dev.feruzlabs.springbootauth.entities.RefreshToken;
+import dev.feruzlabs.springbootauth.entities.User;
+import dev.feruzlabs.springbootauth.repositories.RefreshTokenRepository;
+import dev.feruzlabs.springbootauth.repositories.UserRepository;
+import dev.feruzlabs.springbootauth.services.RefreshTokenRetention;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * refresh_tokens jadvali (RefreshTokenRepository) ustidagi store - default.
+ * Sessiyadagi user ma'lumotlari users jadvalidan (join) olinadi, alohida saqlanmaydi.
+ */
+@Component
+@ConditionalOnProperty(name = "refresh-token.store", havingValue = "jpa", matchIfMissing = true)
+@Transactional
+public class JpaRefreshTokenStore implements RefreshTokenStore {
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRetention refreshTokenRetention;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private boolean postgres;
+
+    @PostConstruct
+    void init() {
+        this.postgres = "PostgreSQL".equals(jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+    }
+
+    @Override
+    public Optional<RefreshSession> findByTokenHash(byte[] tokenHash) {
+        return refreshTokenRepository.findByTokenHash(tokenHash).map(JpaRefreshTokenStore::toSession);
+    }
+
+    @Override
+    public Optional<RefreshSession> findByDevice(Long userId, String deviceId) {
+        return refreshTokenRepository.findFirstByUserIdAndDeviceIdOrderByExpiryDateDesc(userId, deviceId)
+                .map(JpaRefreshTokenStore::toSession);
+    }
+
+    @Override
+    public List<RefreshSession> findActiveSessions(Long userId, LocalDateTime now) {
+        return refreshTokenRepository.findActiveSessions(userId, now).stream()
+                .map(JpaRefreshTokenStore::toSession)
+                .toList();
+    }
+
+    @Override
+    public RefreshSession insert(RefreshSession session) {
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setUser(userRepository.getReferenceById(session.userId()));
+        refreshToken.setTokenHash(session.tokenHash());
+        refreshToken.setDeviceId(session.deviceId());
+        refreshToken.setExpiryDate(session.expiryDate());
+        refreshToken.setCreatedAt(session.createdAt());
+        refreshToken.setRevoked(session.revoked());
+        return session.withId(refreshTokenRepository.save(refreshToken).getId());
+    }
+
+    /**
+     * Partitionlangan jadvalda (user_id, device_id) unique bo'la olmaydi (kalitda expiry_date bo'lishi shart),
+     * shuning uchun PostgreSQL da tranzaksiya advisory lock i. Boshqa bazalarda (H2) users qatori lock qilinadi,
+     * u yerda v2/10 dagi unique index ham bor.
+     */
+    @Override
+    public DeviceLock lockDevice(Long userId, String deviceId) {
+        if (postgres) {
+            jdbcTemplate.query("SELECT pg_advisory_xact_lock(hashtextextended(?, 0))",
+                    resultSet -> null, "refresh-device:" + userId + ":" + deviceId);
+        } else {
+            jdbcTemplate.query("SELECT id FROM users WHERE id = ? FOR UPDATE", resultSet -> null, userId);
+        }
+        // Commit/rollback da DB o'zi bo'shatadi
+        return () -> {
+        };
+    }
+
+    @Override
+    public boolean rotate(RefreshSession current, byte[] newTokenHash, LocalDateTime newExpiryDate) {
+        return refreshTokenRepository.rotate(current.id(), current.expiryDate(), current.tokenHash(),
+                newTokenHash, newExpiryDate) == 1;
+    }
+
+    @Override
+    public boolean reissue(RefreshSession current, RefreshSession next) {
+        return refreshTokenRepository.reissue(current.id(), current.expiryDate(),
+                next.tokenHash(), next.expiryDate()) == 1;
+    }
+
+    @Override
+    public boolean revoke(RefreshSession session) {
+        return refreshTokenRepository.revoke(session.id(), session.expiryDate()) == 1;
+    }
+
+    @Override
+    public void revokeAllByUser(Long userId) {
+        refreshTokenRepository.revokeAllByUserId(userId);
+    }
+
+    @Override
+    public void delete(Collection<RefreshSession> sessions) {
+        if (!sessions.isEmpty()) {
+            refreshTokenRepository.deleteAllByIdInBatch(sessions.stream().map(RefreshSession::id).toList());
+        }
+    }
+
+    @Override
+    public void deleteByUser(Long userId) {
+        refreshTokenRepository.deleteByUserId(userId);
+    }
+
+    @Override
+    public void deleteByDevice(Long userId, String deviceId) {
+        refreshTokenRepository.deleteByUserIdAndDeviceId(userId, deviceId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countActive(Long userId, LocalDateTime now) {
+        return refreshTokenRepository.countByUserIdAndRevokedFalseAndExpiryDateAfter(userId, now);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<LocalDateTime, Long> countActiveByExpiryMinute(LocalDateTime now) {
+        Map<LocalDateTime, Long> counts = new HashMap<>();
+        for (Object[] row : refreshTokenRepository.countActiveByExpiryMinute(now)) {
+            LocalDateTime minute = row[0] instanceof Timestamp timestamp
+                    ? timestamp.toLocalDateTime()
+                    : (LocalDateTime) row[0];
+            counts.put(minute, ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    // Partition DROP / chunkli DELETE lar o'z tranzaksiyalarida
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long purgeExpired(LocalDateTime now) {
+        return refreshTokenRetention.purgeExpired(now);
+    }
+
+    private static RefreshSession toSession(RefreshToken refreshToken) {
+        User user = refreshToken.getUser();
+        return new RefreshSession(refreshToken.getId(), refreshToken.getTokenHash(), user.getId(),
+                user.getUsername(), user.getEmail(), user.getRole(), user.getSecurityVersion(),
+                refreshToken.getDeviceId(), refreshToken.getExpiryDate(), refreshToken.getCreatedAt(),
+                refreshToken.isRevoked());
+    }
+}
@@ -0,0 +1,662 @@
+package dev.feruzlabs.springbootauth.services.refreshToken;
+
+import dev.feruzlabs.springbootauth.enums.Role;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+import java.util.zip.CRC32;
+
+/**
+ * Postgres siz (edge node) ishlaydigan, restartdan keyin ham saqlanadigan store.
+ * Har bir o'zgarish memory-mapped faylga qat'iy o'lchamli yozuv sifatida qo'shiladi (append-only);
+ * startup da log qayta o'qilib indekslar tiklanadi, CRC mos kelmagan (yarim yozilgan) yozuvda to'xtaydi.
+ * token hash -> yozuv offseti indeksi heap dan tashqarida (direct ByteBuffer, open addressing);
+ * sessiyalarning o'zi faylda turadi, heap da faqat id/user -> offset xaritalari.
+ * Fayl to'lsa tirik yozuvlar yangi faylga ko'chiriladi (compaction).
+ */
+@Component
+@ConditionalOnProperty(name = "refresh-token.store", havingValue = "mapped-file")
+public class MappedFileRefreshTokenStore implements RefreshTokenStore {
+
+    private static final Logger log = LoggerFactory.getLogger(MappedFileRefreshTokenStore.class);
+
+    static final int RECORD_SIZE = 512;
+    private static final long MAGIC = 0x52544C4F47000001L; // "RTLOG" v1
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+
+    // Yozuv ichidagi joylashuv
+    private static final int TYPE = 0;
+    private static final int ID = 1;
+    private static final int HASH = 9;
+    private static final int USER_ID = 41;
+    private static final int EXPIRY_SECONDS = 49;
+    private static final int EXPIRY_NANOS = 57;
+    private static final int CREATED_SECONDS = 61;
+    private static final int CREATED_NANOS = 69;
+    private static final int REVOKED = 73;
+    private static final int SECURITY_VERSION = 74;
+    private static final int ROLE = 78;
+    private static final int STRINGS = 79;
+    private static final int CRC = RECORD_SIZE - 4;
+
+    private static final int MAX_DEVICE_ID_BYTES = 64;
+    private static final int MAX_USERNAME_BYTES = 100;
+    private static final int MAX_EMAIL_BYTES = 150;
+
+    @Value("${refresh-token.store.file.path:./data/refresh-sessions.log}")
+    private Path path;
+
+    @Value("${refresh-token.store.file.max-size:256MB}")
+    private DataSize maxSize;
+
+    // true bo'lsa har yozuvdan keyin force() - sekinroq, lekin OS crash da ham yo'qolmaydi
+    @Value("${refresh-token.store.file.sync:false}")
+    private boolean sync;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final DeviceLocks deviceLocks = new DeviceLocks();
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int writePosition;
+    private long lastId;
+
+    private OffHeapHashIndex hashIndex;
+    private final Map<Long, Integer> offsetsById = new HashMap<>();
+    private final Map<Long, Set<Long>> idsByUser = new HashMap<>();
+
+    @PostConstruct
+    public void open() {
+        lock.writeLock().lock();
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            capacity = (int) Math.min(maxSize.toBytes() / RECORD_SIZE * RECORD_SIZE, Integer.MAX_VALUE / RECORD_SIZE * RECORD_SIZE);
+            map(path);
+            replay();
+            log.info("Refresh session log {} opened: {} live sessions, {} of {} bytes used",
+                    path, offsetsById.size(), writePosition, capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (channel != null) {
+                buffer.force();
+                channel.close();
+                channel = null;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ---- o'qish ----
+
+    @Override
+    public Optional<RefreshSession> findByTokenHash(byte[] tokenHash) {
+        lock.readLock().lock();
+        try {
+            long offset = hashIndex.find(indexKey(tokenHash), candidate -> hashMatches((int) candidate, tokenHash));
+            return offset < 0 ? Optional.empty() : Optional.of(decode((int) offset));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<RefreshSession> findByDevice(Long userId, String deviceId) {
+        lock.readLock().lock();
+        try {
+            return userSessions(userId).stream()
+                    .filter(session -> session.deviceId().equals(deviceId))
+                    .max(Comparator.comparing(RefreshSession::expiryDate));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<RefreshSession> findActiveSessions(Long userId, LocalDateTime now) {
+        lock.readLock().lock();
+        try {
+            return userSessions(userId).stream()
+                    .filter(session -> session.isActive(now))
+                    .sorted(Comparator.comparing(RefreshSession::expiryDate).reversed())
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long countActive(Long userId, LocalDateTime now) {
+        lock.readLock().lock();
+        try {
+            return userSessions(userId).stream().filter(session -> session.isActive(now)).count();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<LocalDateTime, Long> countActiveByExpiryMinute(LocalDateTime now) {
+        lock.readLock().lock();
+        try {
+            Map<LocalDateTime, Long> counts = new HashMap<>();
+            for (int offset : offsetsById.values()) {
+                RefreshSession session = decode(offset);
+                if (session.isActive(now)) {
+                    counts.merge(session.expiryDate().truncatedTo(ChronoUnit.MINUTES), 1L, Long::sum);
+                }
+            }
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---- yozish ----
+
+    @Override
+    public DeviceLock lockDevice(Long userId, String deviceId) {
+        return deviceLocks.lock(userId, deviceId);
+    }
+
+    @Override
+    public RefreshSession insert(RefreshSession session) {
+        lock.writeLock().lock();
+        try {
+            RefreshSession stored = session.withId(++lastId);
+            put(stored);
+            return stored;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean rotate(RefreshSession current, byte[] newTokenHash, LocalDateTime newExpiryDate) {
+        lock.writeLock().lock();
+        try {
+            RefreshSession stored = stored(current.id());
+            if (stored == null || stored.revoked()
+                    || !Arrays.equals(stored.tokenHash(), current.tokenHash())
+                    || !stored.expiryDate().equals(current.expiryDate())) {
+                return false;
+            }
+            put(stored.rotated(newTokenHash, newExpiryDate));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean reissue(RefreshSession current, RefreshSession next) {
+        lock.writeLock().lock();
+        try {
+            RefreshSession stored = stored(current.id());
+            if (stored == null || !stored.expiryDate().equals(current.expiryDate())) {
+                return false;
+            }
+            put(next.withId(stored.id()));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean revoke(RefreshSession session) {
+        lock.writeLock().lock();
+        try {
+            RefreshSession stored = stored(session.id());
+            if (stored == null || !stored.expiryDate().equals(session.expiryDate())) {
+                return false;
+            }
+            put(stored.asRevoked());
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void revokeAllByUser(Long userId) {
+        lock.writeLock().lock();
+        try {
+            for (RefreshSession session : userSessions(userId)) {
+                if (!session.revoked()) {
+                    put(session.asRevoked());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void delete(Collection<RefreshSession> sessions) {
+        lock.writeLock().lock();
+        try {
+            for (RefreshSession session : sessions) {
+                remove(session.id());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteByUser(Long userId) {
+        lock.writeLock().lock();
+        try {
+            for (RefreshSession session : userSessions(userId)) {
+                remove(session.id());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteByDevice(Long userId, String deviceId) {
+        lock.writeLock().lock();
+        try {
+            for (RefreshSession session : userSessions(userId)) {
+                if (session.deviceId().equals(deviceId)) {
+                    remove(session.id());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public long purgeExpired(LocalDateTime now) {
+        lock.writeLock().lock();
+        try {
+            long removed = 0;
+            for (Long id : List.copyOf(offsetsById.keySet())) {
+                if (decode(offsetsById.get(id)).expiryDate().isBefore(now)) {
+                    remove(id);
+                    removed++;
+                }
+            }
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ---- ichki: write lock ostida chaqiriladi ----
+
+    private RefreshSession stored(Long id) {
+        Integer offset = offsetsById.get(id);
+        return offset == null ? null : decode(offset);
+    }
+
+    private void put(RefreshSession session) {
+        int offset = append(PUT, session);
+        apply(offset, session);
+    }
+
+    private void remove(Long id) {
+        Integer offset = offsetsById.get(id);
+        if (offset == null) {
+            return;
+        }
+        RefreshSession removed = decode(offset);
+        append(DELETE, removed);
+        // append compact() qilgan bo'lsa sessiya yangi faylda boshqa offset da - eskisi bilan hashIndex dan o'chmaydi
+        unindex(id, offsetsById.get(id), removed);
+    }
+
+    private void apply(int offset, RefreshSession session) {
+        Integer previous = offsetsById.put(session.id(), offset);
+        if (previous != null) {
+            hashIndex.remove(indexKey(readHash(previous)), previous);
+        }
+        hashIndex.put(indexKey(session.tokenHash()), offset);
+        idsByUser.computeIfAbsent(session.userId(), userId -> new HashSet<>()).add(session.id());
+        lastId = Math.max(lastId, session.id());
+    }
+
+    private void unindex(Long id, int offset, RefreshSession session) {
+        offsetsById.remove(id);
+        hashIndex.remove(indexKey(session.tokenHash()), offset);
+        Set<Long> userIds = idsByUser.get(session.userId());
+        if (userIds != null) {
+            userIds.remove(id);
+            if (userIds.isEmpty()) {
+                idsByUser.remove(session.userId());
+            }
+        }
+    }
+
+    private int append(byte type, RefreshSession session) {
+        if (writePosition + RECORD_SIZE > capacity) {
+            compact();
+            if (writePosition + RECORD_SIZE > capacity) {
+                throw new IllegalStateException("Refresh session log is full: " + path);
+            }
+        }
+        int offset = writePosition;
+        encode(buffer, offset, type, session);
+        writePosition += RECORD_SIZE;
+        if (sync) {
+            buffer.force(offset, RECORD_SIZE);
+        }
+        return offset;
+    }
+
+    private List<RefreshSession> userSessions(Long userId) {
+        List<RefreshSession> sessions = new ArrayList<>();
+        for (Long id : idsByUser.getOrDefault(userId, Set.of())) {
+            sessions.add(decode(offsetsById.get(id)));
+        }
+        return sessions;
+    }
+
+    // ---- fayl ----
+
+    private void map(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        if (buffer.getLong(0) != MAGIC) {
+            if (buffer.getLong(0) != 0) {
+                throw new IllegalStateException("Not a refresh session log: " + file);
+            }
+            buffer.putLong(0, MAGIC);
+        }
+    }
+
+    private void replay() {
+        offsetsById.clear();
+        idsByUser.clear();
+        hashIndex = new OffHeapHashIndex(1024);
+        lastId = 0;
+
+        int offset = RECORD_SIZE;
+        while (offset + RECORD_SIZE <= capacity) {
+            byte type = buffer.get(offset + TYPE);
+            if ((type != PUT && type != DELETE) || !crcMatches(offset)) {
+                // Hech qachon yozilmagan joy yoki yarim yozilgan yozuv - log shu yerda tugaydi
+                break;
+            }
+            long id = buffer.getLong(offset + ID);
+            if (type == PUT) {
+                apply(offset, decode(offset));
+            } else {
+                Integer live = offsetsById.get(id);
+                if (live != null) {
+                    unindex(id, live, decode(live));
+                }
+                lastId = Math.max(lastId, id);
+            }
+            offset += RECORD_SIZE;
+        }
+        writePosition = offset;
+        // Oxirgi yozuvdan keyingi qoldiqni tozalash (torn write)
+        if (writePosition + RECORD_SIZE <= capacity) {
+            buffer.put(writePosition + TYPE, (byte) 0);
+        }
+    }
+
+    /**
+     * Faqat tirik sessiyalarni yangi faylga yozib, eski log o'rniga qo'yadi
+     */
+    private void compact() {
+        if ((long) (offsetsById.size() + 2) * RECORD_SIZE > capacity) {
+            throw new IllegalStateException("Refresh session log is full of live sessions: " + path);
+        }
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        try {
+            Files.deleteIfExists(compacted);
+            try (FileChannel target = FileChannel.open(compacted,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer out = target.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+                out.putLong(0, MAGIC);
+                int position = RECORD_SIZE;
+                for (int offset : offsetsById.values()) {
+                    encode(out, position, PUT, decode(offset));
+                    position += RECORD_SIZE;
+                }
+                out.force();
+            }
+            buffer.force();
+            channel.close();
+            Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            long previousLastId = lastId;
+            map(path);
+            replay();
+            // O'chirilgan eng katta id qayta ishlatilmasligi uchun
+            lastId = Math.max(lastId, previousLastId);
+            log.info("Refresh session log compacted: {} live sessions", offsetsById.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // ---- yozuv formati ----
+
+    private static void encode(ByteBuffer target, int offset, byte type, RefreshSession session) {
+        byte[] record = new byte[RECORD_SIZE];
+        ByteBuffer out = ByteBuffer.wrap(record);
+        out.putLong(ID, session.id());
+        out.put(HASH, session.tokenHash());
+        out.putLong(USER_ID, session.userId());
+        out.putLong(EXPIRY_SECONDS, session.expiryDate().toEpochSecond(ZoneOffset.UTC));
+        out.putInt(EXPIRY_NANOS, session.expiryDate().getNano());
+        out.putLong(CREATED_SECONDS, session.createdAt().toEpochSecond(ZoneOffset.UTC));
+        out.putInt(CREATED_NANOS, session.createdAt().getNano());
+        out.put(REVOKED, (byte) (session.revoked() ? 1 : 0));
+        out.putInt(SECURITY_VERSION, session.securityVersion());
+        out.put(ROLE, (byte) (session.role() != null ? session.role().ordinal() : -1));
+        out.position(STRINGS);
+        putString(out, session.deviceId(), MAX_DEVICE_ID_BYTES);
+        putString(out, session.username(), MAX_USERNAME_BYTES);
+        putString(out, session.email(), MAX_EMAIL_BYTES);
+        out.put(TYPE, type);
+
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, CRC);
+        out.putInt(CRC, (int) crc.getValue());
+        target.put(offset, record);
+    }
+
+    private RefreshSession decode(int offset) {
+        byte[] record = new byte[RECORD_SIZE];
+        buffer.get(offset, record);
+        ByteBuffer in = ByteBuffer.wrap(record);
+
+        byte[] tokenHash = new byte[32];
+        in.get(HASH, tokenHash);
+        byte role = in.get(ROLE);
+        in.position(STRINGS);
+        String deviceId = getString(in);
+        String username = getString(in);
+        String email = getString(in);
+
+        return new RefreshSession(
+                in.getLong(ID),
+                tokenHash,
+                in.getLong(USER_ID),
+                username,
+                email,
+                role >= 0 ? Role.values()[role] : null,
+                in.getInt(SECURITY_VERSION),
+                deviceId,
+                LocalDateTime.ofEpochSecond(in.getLong(EXPIRY_SECONDS), in.getInt(EXPIRY_NANOS), ZoneOffset.UTC),
+                LocalDateTime.ofEpochSecond(in.getLong(CREATED_SECONDS), in.getInt(CREATED_NANOS), ZoneOffset.UTC),
+                in.get(REVOKED) == 1
+        );
+    }
+
+    private boolean crcMatches(int offset) {
+        byte[] record = new byte[RECORD_SIZE];
+        buffer.get(offset, record);
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, CRC);
+        return (int) crc.getValue() == ByteBuffer.wrap(record).getInt(CRC);
+    }
+
+    private byte[] readHash(int offset) {
+        byte[] tokenHash = new byte[32];
+        buffer.get(offset + HASH, tokenHash);
+        return tokenHash;
+    }
+
+    private boolean hashMatches(int offset, byte[] tokenHash) {
+        return Arrays.equals(readHash(offset), tokenHash);
+    }
+
+    private static void putString(ByteBuffer out, String value, int maxBytes) {
+        byte[] bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (bytes.length > maxBytes) {
+            throw new IllegalArgumentException("Value too long for refresh session log (" + bytes.length + " > " + maxBytes + " bytes)");
+        }
+        out.putShort((short) (value != null ? bytes.length : -1));
+        out.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        short length = in.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Hash indeksi uchun 64 bitli kalit (to'qnashuvda to'liq hash yozuvdan tekshiriladi)
+    private static long indexKey(byte[] tokenHash) {
+        return ByteBuffer.wrap(tokenHash).getLong();
+    }
+
+    /**
+     * long kalit -> yozuv offseti, heap dan tashqaridagi open addressing (linear probing) jadval.
+     * Slot: [kalit 8 bayt][offset+1 8 bayt]; 0 - bo'sh, -1 - o'chirilgan (tombstone).
+     */
+    static final class OffHeapHashIndex {
+        private static final int SLOT = 16;
+        private static final long EMPTY = 0;
+        private static final long TOMBSTONE = -1;
+
+        private ByteBuffer table;
+        private int slots;
+        private int live;
+        private int used;
+
+        OffHeapHashIndex(int initialSlots) {
+            allocate(Integer.highestOneBit(Math.max(initialSlots, 16) - 1) << 1);
+        }
+
+        long find(long key, LongPredicate matches) {
+            int mask = slots - 1;
+            for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+                long value = table.getLong(i * SLOT + 8);
+                if (value == EMPTY) {
+                    return -1;
+                }
+                if (value != TOMBSTONE && table.getLong(i * SLOT) == key && matches.test(value - 1)) {
+                    return value - 1;
+                }
+            }
+        }
+
+        void put(long key, long offset) {
+            if ((used + 1) * 2 > slots) {
+                // Tombstone lar ko'p bo'lsa o'sha o'lchamda qayta quriladi
+                rehash(live * 4 > slots ? slots * 2 : slots);
+            }
+            int mask = slots - 1;
+            for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+                long value = table.getLong(i * SLOT + 8);
+                if (value == EMPTY || value == TOMBSTONE) {
+                    if (value == EMPTY) {
+                        used++;
+                    }
+                    table.putLong(i * SLOT, key);
+                    table.putLong(i * SLOT + 8, offset + 1);
+                    live++;
+                    return;
+                }
+            }
+        }
+
+        void remove(long key, long offset) {
+            int mask = slots - 1;
+            for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+                long value = table.getLong(i * SLOT + 8);
+                if (value == EMPTY) {
+                    return;
+                }
+                if (value == offset + 1 && table.getLong(i * SLOT) == key) {
+                    table.putLong(i * SLOT + 8, TOMBSTONE);
+                    live--;
+                    return;
+                }
+            }
+        }
+
+        private void rehash(int newSlots) {
+            ByteBuffer old = table;
+            int oldSlots = slots;
+            allocate(newSlots);
+            for (int i = 0; i < oldSlots; i++) {
+                long value = old.getLong(i * SLOT + 8);
+                if (value != EMPTY && value != TOMBSTONE) {
+                    put(old.getLong(i * SLOT), value - 1);
+                }
+            }
+        }
+
+        private void allocate(int newSlots) {
+            this.slots = newSlots;
+            this.table = ByteBuffer.allocateDirect(newSlots * SLOT);
+            this.live = 0;
+            this.used = 0;
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package dev.feruzlabs.springbootauth.services.refreshToken;
+
+import dev.feruzlabs.springbootauth.entities.User;
+import dev.feruzlabs.springbootauth.enums.Role;
+
+import java.time.LocalDateTime;
+
+/**
+ * Store ga bog'liq bo'lmagan refresh sessiya (bitta user + bitta device).
+ * Access token yaratish uchun kerakli user ma'lumotlari (username, email, role, sv) ham saqlanadi,
+ * shuning uchun refresh DB ga murojaat qilmasdan ham ishlay oladi. Rol/parol/status
+ * o'zgarganda sessiyalar revoke qilinadi; aks holda eskirgan sv bilan token filter da rad etiladi.
+ */
+public record RefreshSession(Long id,
+                             byte[] tokenHash,
+                             Long userId,
+                             String username,
+                             String email,
+                             Role role,
+                             int securityVersion,
+                             String deviceId,
+                             LocalDateTime expiryDate,
+                             LocalDateTime createdAt,
+                             boolean revoked) {
+
+    public static RefreshSession issue(User user, String deviceId, byte[] tokenHash, LocalDateTime expiryDate) {
+        return new RefreshSession(null, tokenHash, user.getId(), user.getUsername(), user.getEmail(), user.getRole(),
+                user.getSecurityVersion(), deviceId, expiryDate, LocalDateTime.now(), false);
+    }
+
+    public boolean isActive(LocalDateTime now) {
+        return !revoked && expiryDate.isAfter(now);
+    }
+
+    public RefreshSession withId(Long newId) {
+        return new RefreshSession(newId, tokenHash, userId, username, email, role, securityVersion, deviceId,
+                expiryDate, createdAt, revoked);
+    }
+
+    public RefreshSession rotated(byte[] newTokenHash, LocalDateTime newExpiryDate) {
+        return new RefreshSession(id, newTokenHash, userId, username, email, role, securityVersion, deviceId,
+                newExpiryDate, createdAt, revoked);
+    }
+
+    public RefreshSession asRevoked() {
+        return new RefreshSession(id, tokenHash, userId, username, email, role, securityVersion, deviceId,
+                expiryDate, createdAt, true);
+    }
+
+    /**
+     * Access token yaratish uchun user (persist qilinmaydi)
+     */
+    public User toUser() {
+        User user = new User();
+        user.setId(userId);
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setRole(role);
+        user.setSecurityVersion(securityVersion);
+        return user;
+    }
+}
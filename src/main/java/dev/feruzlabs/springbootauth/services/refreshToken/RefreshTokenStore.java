@@ -0,0 +1,72 @@
+package dev.feruzlabs.springbootauth.services.refreshToken;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Refresh sessiyalarni saqlash SPI. refresh-token.store bilan tanlanadi:
+ * jpa (default, PostgreSQL), memory (testlar va bitta node), mapped-file (DB siz edge nodelar).
+ * Barcha implementatsiyalar RefreshTokenStoreContractTest dan o'tishi shart.
+ */
+public interface RefreshTokenStore {
+
+    Optional<RefreshSession> findByTokenHash(byte[] tokenHash);
+
+    // Shu device dagi eng so'nggi sessiya
+    Optional<RefreshSession> findByDevice(Long userId, String deviceId);
+
+    // Aktiv sessiyalar, expiryDate bo'yicha kamayish tartibida
+    List<RefreshSession> findActiveSessions(Long userId, LocalDateTime now);
+
+    // Yangi sessiya; id bilan qaytaradi
+    RefreshSession insert(RefreshSession session);
+
+    /**
+     * Shu (user, device) uchun findByDevice -> insert/reissue ni ketma-ket qiladi: parallel birinchi
+     * loginlar ikkita qator yaratmasin. Chaqiruvchi insert/reissue qaytgach lock ni yopadi;
+     * JPA da lock tranzaksiya tugaguncha turadi (boshqa node lar ham ko'radi), close hech narsa qilmaydi.
+     */
+    DeviceLock lockDevice(Long userId, String deviceId);
+
+    /**
+     * Compare-and-set rotation: saqlangan sessiyada hali current.tokenHash va current.expiryDate
+     * turgan va revoke qilinmagan bo'lsagina yangilanadi. Parallel chaqiruvlardan faqat bittasi true oladi;
+     * yutqazganlar false yoki (partitionlangan PostgreSQL da qator boshqa partitionga ko'chganda)
+     * ConcurrencyFailureException oladi.
+     */
+    boolean rotate(RefreshSession current, byte[] newTokenHash, LocalDateTime newExpiryDate);
+
+    /**
+     * Shu device ga qayta login: sessiya qatori next bilan almashtiriladi (revoked=false).
+     * current.expiryDate o'zgargan bo'lsa (parallel yangilanish) false.
+     */
+    boolean reissue(RefreshSession current, RefreshSession next);
+
+    boolean revoke(RefreshSession session);
+
+    void revokeAllByUser(Long userId);
+
+    void delete(Collection<RefreshSession> sessions);
+
+    void deleteByUser(Long userId);
+
+    void deleteByDevice(Long userId, String deviceId);
+
+    long countActive(Long userId, LocalDateTime now);
+
+    // Expiry daqiqasi -> aktiv sessiyalar soni (ActiveSessionCounter resync uchun)
+    Map<LocalDateTime, Long> countActiveByExpiryMinute(LocalDateTime now);
+
+    // Muddati o'tgan sessiyalarni o'chiradi, o'chirilganlar sonini qaytaradi
+    long purgeExpired(LocalDateTime now);
+
+    // try-with-resources uchun - checked exception siz
+    interface DeviceLock extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,74 @@
+package dev.feruzlabs.springbootauth.services.userManager;
+
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Set;
+
+/**
+ * /api/users keyset pagination cursori: sort ustuni + id bo'yicha oxirgi ko'rilgan qator.
+ * Client uchun opaque (base64url); ichida sort ham bor - boshqa sort bilan ishlatib bo'lmaydi.
+ * Format: {@code v1|sortBy|ASC/DESC|id|value}
+ */
+final class UserCursor {
+
+    // Faqat NOT NULL va indekslangan ustunlar - seek (sort, id) indeks bo'yicha ketadi
+    static final Set<String> SORTABLE = Set.of("id", "username", "email", "createdAt");
+
+    private static final String VERSION = "v1";
+
+    private UserCursor() {
+    }
+
+    /**
+     * Oxirgi ko'rilgan qator: value - sort ustuni qiymati (id bo'yicha saralashda null)
+     */
+    record Position(Object value, Long id) {
+    }
+
+    static void checkSortable(String sortBy) {
+        if (!SORTABLE.contains(sortBy)) {
+            throw new IllegalArgumentException("Cursor paging faqat " + SORTABLE + " bo'yicha saralaydi");
+        }
+    }
+
+    static String encode(String sortBy, Sort.Direction direction, Long id, Object value) {
+        String raw = String.join("|", VERSION, sortBy, direction.name(), String.valueOf(id),
+                "id".equals(sortBy) ? "" : String.valueOf(value));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * null cursor - birinchi sahifa (null qaytadi)
+     */
+    static Position decode(String cursor, String sortBy, Sort.Direction direction) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 5);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor noto'g'ri");
+        }
+        if (parts.length != 5 || !VERSION.equals(parts[0])) {
+            throw new IllegalArgumentException("Cursor noto'g'ri");
+        }
+        if (!parts[1].equals(sortBy) || !parts[2].equals(direction.name())) {
+            throw new IllegalArgumentException("Cursor boshqa saralash uchun berilgan");
+        }
+
+        try {
+            Object value = switch (sortBy) {
+                case "id" -> null;
+                case "createdAt" -> LocalDateTime.parse(parts[4]);
+                default -> parts[4];
+            };
+            return new Position(value, Long.valueOf(parts[3]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor noto'g'ri");
+        }
+    }
+}
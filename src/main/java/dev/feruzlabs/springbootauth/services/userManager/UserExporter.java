@@ -0,0 +1,179 @@
+package dev.feruzlabs.springbootauth.services.userManager;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import dev.feruzlabs.springbootauth.dto.response.UserResponse;
+import dev.feruzlabs.springbootauth.enums.Role;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * users jadvalini xotirani o'stirmasdan eksport qilish (NDJSON yoki CSV).
+ * Forward-only JDBC cursor (fetch-size qatordan olinadi), har qator to'g'ridan-to'g'ri UserResponse ga
+ * va chiqish oqimiga yoziladi - Hibernate entity lari va persistence context yo'q.
+ * PostgreSQL cursor faqat autocommit o'chiq bo'lganda ishlaydi, shuning uchun readOnly tranzaksiya ichida.
+ */
+@Service
+public class UserExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(UserExporter.class);
+
+    private static final String QUERY = "SELECT id, username, email, first_name, last_name, role, enabled, " +
+            "created_at, last_login_at FROM users ORDER BY id";
+
+    private static final String CSV_HEADER = "id,username,email,firstName,lastName,role,enabled,createdAt,lastLoginAt\n";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${users.export.fetch-size:1000}")
+    private int fetchSize;
+
+    /**
+     * Barcha userlarni out ga yozadi, yozilgan qatorlar sonini qaytaradi. out ni yopmaydi.
+     */
+    public long export(UserFileFormat format, OutputStream out) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+
+        long started = System.nanoTime();
+        Long rows = transaction.execute(status -> {
+            try {
+                return format == UserFileFormat.CSV ? writeCsv(out) : writeNdjson(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        log.info("Exported {} users as {} in {} ms", rows, format, (System.nanoTime() - started) / 1_000_000);
+        return rows != null ? rows : 0;
+    }
+
+    private long writeNdjson(OutputStream out) throws IOException {
+        // Har qatordan keyin flush qilinmaydi - chunk lar bufer to'lganda ketadi
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            long rows = stream(rs -> {
+                writer.writeValue(generator, toResponse(rs));
+                generator.writeRaw('\n');
+            });
+            generator.flush();
+            return rows;
+        }
+    }
+
+    private long writeCsv(OutputStream out) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        writer.write(CSV_HEADER);
+        long rows = stream(rs -> {
+            UserResponse user = toResponse(rs);
+            writer.write(String.valueOf(user.getId()));
+            writer.write(',');
+            writeCsvField(writer, user.getUsername());
+            writer.write(',');
+            writeCsvField(writer, user.getEmail());
+            writer.write(',');
+            writeCsvField(writer, user.getFirstName());
+            writer.write(',');
+            writeCsvField(writer, user.getLastName());
+            writer.write(',');
+            writeCsvField(writer, user.getRole() != null ? user.getRole().name() : null);
+            writer.write(',');
+            writer.write(String.valueOf(user.isEnabled()));
+            writer.write(',');
+            writeCsvField(writer, user.getCreatedAt() != null ? user.getCreatedAt().toString() : null);
+            writer.write(',');
+            writeCsvField(writer, user.getLastLoginAt() != null ? user.getLastLoginAt().toString() : null);
+            writer.write('\n');
+        });
+        writer.flush();
+        return rows;
+    }
+
+    private long stream(RowWriter rowWriter) {
+        long[] rows = new long[1];
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(QUERY,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, rs -> {
+            try {
+                rowWriter.write(rs);
+            } catch (IOException e) {
+                // Client uzildi - qolgan qatorlar o'qilmaydi
+                throw new UncheckedIOException(e);
+            }
+            rows[0]++;
+        });
+        return rows[0];
+    }
+
+    private static UserResponse toResponse(ResultSet rs) throws SQLException {
+        String role = rs.getString("role");
+        return UserResponse.builder()
+                .id(rs.getLong("id"))
+                .username(rs.getString("username"))
+                .email(rs.getString("email"))
+                .firstName(rs.getString("first_name"))
+                .lastName(rs.getString("last_name"))
+                .role(role != null ? Role.valueOf(role) : null)
+                .enabled(rs.getBoolean("enabled"))
+                .createdAt(toLocalDateTime(rs.getTimestamp("created_at")))
+                .lastLoginAt(toLocalDateTime(rs.getTimestamp("last_login_at")))
+                .build();
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    // RFC 4180: vergul, qo'shtirnoq yoki yangi qator bo'lsa qo'shtirnoqqa olinadi.
+    // Formula bilan boshlanadigan qiymat (=, +, -, @, tab, CR) oldiga ' - jadval dasturi uni hisoblamasin
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+    }
+}
@@ -0,0 +1,37 @@
+package dev.feruzlabs.springbootauth.services.userManager;
+
+/**
+ * Userlar eksport/import fayl formati
+ */
+public enum UserFileFormat {
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final String mediaType;
+
+    UserFileFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return name().toLowerCase();
+    }
+
+    /**
+     * So'rov parametri yoki fayl nomidan: "csv", "users.csv", "users.csv.gz" -> CSV; qolgani NDJSON
+     */
+    public static UserFileFormat of(String value) {
+        if (value == null) {
+            return NDJSON;
+        }
+        String name = value.toLowerCase();
+        if (name.endsWith(".gz")) {
+            name = name.substring(0, name.length() - 3);
+        }
+        return name.equals("csv") || name.endsWith(".csv") ? CSV : NDJSON;
+    }
+}
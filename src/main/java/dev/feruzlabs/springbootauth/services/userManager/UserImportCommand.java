@@ -0,0 +1,65 @@
+package dev.feruzlabs.springbootauth.services.userManager;
+
+import dev.feruzlabs.springbootauth.dto.response.UserImportResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * CLI import: {@code java -jar app.jar --import-users=users.csv.gz --spring.main.web-application-type=none}.
+ * Format fayl kengaytmasidan (yoki --import-format=csv|ndjson), .gz bo'lsa gunzip.
+ * Operator tomonidan ishga tushiriladi - har qanday rol ruxsat. Tugagach ilova yopiladi
+ * (exit code 0 - xatosiz, 1 - xato qatorlar bor, 2 - import bajarilmadi).
+ */
+@Component
+public class UserImportCommand implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImportCommand.class);
+
+    @Autowired
+    private UserImporter userImporter;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption("import-users")) {
+            return;
+        }
+        Path file = Path.of(args.getOptionValues("import-users").get(0));
+        UserFileFormat format = args.containsOption("import-format")
+                ? UserFileFormat.of(args.getOptionValues("import-format").get(0))
+                : UserFileFormat.of(file.getFileName().toString());
+
+        int exitCode;
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(file), 64 * 1024);
+             InputStream in = file.toString().endsWith(".gz") ? new GZIPInputStream(raw, 64 * 1024) : raw) {
+            UserImportResult result = userImporter.importUsers(format, in, true);
+            result.getErrors().forEach(error ->
+                    log.warn("Line {} ({}): {}", error.getLine(), error.getUsername(), error.getMessage()));
+            if (result.isErrorsTruncated()) {
+                log.warn("... {} more errors not shown", result.getFailed() - result.getErrors().size());
+            }
+            log.info("Import of {} finished: {} imported, {} failed, {} ms",
+                    file, result.getImported(), result.getFailed(), result.getDurationMs());
+            exitCode = result.getFailed() == 0 ? 0 : 1;
+        } catch (Exception e) {
+            log.error("Import of {} failed: {}", file, e.getMessage(), e);
+            exitCode = 2;
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(applicationContext, () -> code));
+    }
+}
@@ -0,0 +1,449 @@
+package dev.feruzlabs.springbootauth.services.userManager;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import dev.feruzlabs.springbootauth.dto.request.ImportUserRequest;
+import dev.feruzlabs.springbootauth.dto.response.UserImportResult;
+import dev.feruzlabs.springbootauth.entities.User;
+import dev.feruzlabs.springbootauth.enums.Role;
+import dev.feruzlabs.springbootauth.services.UsernameAvailabilityIndex;
+import dev.feruzlabs.springbootauth.utils.CsvReader;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Userlarni CSV/NDJSON oqimidan ommaviy import qilish.
+ * Fayl users.import.batch-size qatorli bo'laklarda o'qiladi (xotira fayl hajmiga bog'liq emas), har bo'lak uchun:
+ * <ol>
+ *   <li>validatsiya va bo'lak ichida takrorlarni aniqlash;</li>
+ *   <li>bazadagi band username/email lar - bitta IN so'rov bilan;</li>
+ *   <li>parollar alohida pool da, barcha yadrolarda parallel hashlanadi (passwordHash berilsa hashlanmaydi);</li>
+ *   <li>id lar users_id_seq dan 50 talik bloklar bilan olinadi va bitta tranzaksiyada JDBC batch insert.</li>
+ * </ol>
+ * Oldingi bo'laklar commit qilingan, shuning uchun fayl ichidagi bo'laklararo takror 2-qadamda ushlanadi;
+ * parallel register/import bilan poyga esa unique index (ON CONFLICT DO NOTHING) da.
+ */
+@Service
+public class UserImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImporter.class);
+
+    // SecurityConfig dagi DelegatingPasswordEncoder id si
+    private static final String BCRYPT_PREFIX = "{bcrypt}";
+    private static final Pattern BCRYPT_HASH =
+            Pattern.compile("^(\\{bcrypt})?\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$");
+
+    private static final String INSERT = "INSERT INTO users (id, username, password, email, first_name, last_name, " +
+            "role, enabled, created_at, failed_login_attempts, security_version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 0) ON CONFLICT DO NOTHING";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired(required = false)
+    private UsernameAvailabilityIndex usernameAvailabilityIndex;
+
+    @Value("${users.import.batch-size:1000}")
+    private int batchSize;
+
+    // 0 - CPU soni
+    @Value("${users.import.hash-threads:0}")
+    private int hashThreads;
+
+    // 0 - kalibrlangan cost; pastroq cost dagi hash birinchi login da qayta hashlanadi
+    @Value("${users.import.hash-cost:0}")
+    private int hashCost;
+
+    @Value("${users.import.max-errors:1000}")
+    private int maxErrors;
+
+    private ExecutorService hashPool;
+    private PasswordEncoder importEncoder;
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @PostConstruct
+    void init() {
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.hashPool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "user-import-hash-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (hashCost > 0) {
+            BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(hashCost);
+            this.importEncoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        } else {
+            this.importEncoder = passwordEncoder;
+        }
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashPool.shutdownNow();
+    }
+
+    /**
+     * in ni oxirigacha o'qib import qiladi (yopmaydi).
+     * allowPrivilegedRoles=false bo'lsa USER dan boshqa rolli qatorlar rad etiladi.
+     */
+    public UserImportResult importUsers(UserFileFormat format, InputStream in, boolean allowPrivilegedRoles)
+            throws IOException {
+        long started = System.nanoTime();
+        Report report = new Report();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        RowSource source = format == UserFileFormat.CSV ? new CsvRowSource(reader) : new NdjsonRowSource(reader);
+
+        List<Row> chunk = new ArrayList<>(batchSize);
+        Row row;
+        while ((row = source.next()) != null) {
+            report.total++;
+            if (row.error == null) {
+                row.error = validate(row.request, allowPrivilegedRoles);
+            }
+            if (row.error != null) {
+                report.fail(row);
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() == batchSize) {
+                importChunk(chunk, report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, report);
+        }
+
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+        log.info("Imported {} of {} users ({} failed) as {} in {} ms",
+                report.imported, report.total, report.failed, format, durationMs);
+        return new UserImportResult(report.total, report.imported, report.failed, report.errors,
+                report.failed > report.errors.size(), durationMs);
+    }
+
+    private String validate(ImportUserRequest request, boolean allowPrivilegedRoles) {
+        Set<ConstraintViolation<ImportUserRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.iterator().next().getMessage();
+        }
+        if (request.getPasswordHash() != null && !request.getPasswordHash().isEmpty()) {
+            if (!BCRYPT_HASH.matcher(request.getPasswordHash()).matches()) {
+                return "passwordHash BCrypt formatida emas";
+            }
+        } else if (request.getPassword() == null || request.getPassword().isEmpty()) {
+            return "Parol bo'sh bo'lishi mumkin emas";
+        }
+        Role role;
+        try {
+            role = parseRole(request.getRole());
+        } catch (IllegalArgumentException e) {
+            return "Noto'g'ri rol: " + request.getRole();
+        }
+        if (role != Role.USER && !allowPrivilegedRoles) {
+            return role + " rolini berish uchun admin:write huquqi kerak";
+        }
+        return null;
+    }
+
+    private void importChunk(List<Row> chunk, Report report) {
+        // 1. Bo'lak ichidagi takrorlar - birinchisi qoladi
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        List<Row> unique = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            if (!usernames.add(normalize(row.request.getUsername()))) {
+                row.error = "Username faylda takrorlangan";
+            } else if (!emails.add(normalize(row.request.getEmail()))) {
+                row.error = "Email faylda takrorlangan";
+            }
+            if (row.error != null) {
+                report.fail(row);
+            } else {
+                unique.add(row);
+            }
+        }
+
+        // 2. Bazada band bo'lganlar - lower() unique index lar bo'yicha
+        Set<String> takenUsernames = new HashSet<>();
+        Set<String> takenEmails = new HashSet<>();
+        namedJdbcTemplate.query("SELECT lower(username), lower(email) FROM users " +
+                        "WHERE lower(username) IN (:usernames) OR lower(email) IN (:emails)",
+                new MapSqlParameterSource().addValue("usernames", usernames).addValue("emails", emails),
+                rs -> {
+                    takenUsernames.add(rs.getString(1));
+                    takenEmails.add(rs.getString(2));
+                });
+        List<Row> fresh = new ArrayList<>(unique.size());
+        for (Row row : unique) {
+            if (takenUsernames.contains(normalize(row.request.getUsername()))) {
+                row.error = "Username allaqachon mavjud!";
+            } else if (takenEmails.contains(normalize(row.request.getEmail()))) {
+                row.error = "Email allaqachon ro'yxatdan o'tgan!";
+            }
+            if (row.error != null) {
+                report.fail(row);
+            } else {
+                fresh.add(row);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return;
+        }
+
+        // 3. Parallel hashlash
+        List<String> hashes = hashAll(fresh);
+
+        // 4. id bloklari + batch insert, bo'lak bitta tranzaksiya
+        long[] ids = allocateIds(fresh.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int[][] counts = transaction.execute(status -> jdbcTemplate.batchUpdate(INSERT, indexes(fresh.size()),
+                fresh.size(), (ps, i) -> {
+                    ImportUserRequest request = fresh.get(i).request;
+                    ps.setLong(1, ids[i]);
+                    ps.setString(2, request.getUsername());
+                    ps.setString(3, hashes.get(i));
+                    ps.setString(4, request.getEmail());
+                    ps.setString(5, emptyToNull(request.getFirstName()));
+                    ps.setString(6, emptyToNull(request.getLastName()));
+                    ps.setString(7, parseRole(request.getRole()).name());
+                    ps.setBoolean(8, request.getEnabled() == null || request.getEnabled());
+                    ps.setTimestamp(9, now);
+                }));
+
+        int i = 0;
+        for (int[] batch : Objects.requireNonNull(counts)) {
+            for (int count : batch) {
+                Row row = fresh.get(i++);
+                // 0 - 2-qadamdan keyin parallel so'rov shu username/email ni olgan
+                if (count == 0) {
+                    row.error = "Username yoki email allaqachon mavjud!";
+                    report.fail(row);
+                } else {
+                    report.imported++;
+                    if (usernameAvailabilityIndex != null) {
+                        usernameAvailabilityIndex.add(row.request.getUsername());
+                    }
+                }
+            }
+        }
+    }
+
+    private List<String> hashAll(List<Row> rows) {
+        List<Future<String>> futures = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            ImportUserRequest request = row.request;
+            if (request.getPasswordHash() != null && !request.getPasswordHash().isEmpty()) {
+                String hash = request.getPasswordHash();
+                futures.add(CompletableFuture.completedFuture(hash.startsWith(BCRYPT_PREFIX) ? hash : BCRYPT_PREFIX + hash));
+            } else {
+                futures.add(hashPool.submit(() -> importEncoder.encode(request.getPassword())));
+            }
+        }
+        List<String> hashes = new ArrayList<>(rows.size());
+        try {
+            for (Future<String> future : futures) {
+                hashes.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import to'xtatildi", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Parolni hashlab bo'lmadi", e.getCause());
+        }
+        return hashes;
+    }
+
+    /**
+     * Hibernate pooled optimizer bilan bir xil: nextval() = v bo'lsa (v - 49 .. v] shu chaqiruvchiniki
+     */
+    private long[] allocateIds(int count) {
+        long[] ids = new long[count];
+        int filled = 0;
+        while (filled < count) {
+            Long hi = jdbcTemplate.queryForObject("SELECT nextval('users_id_seq')", Long.class);
+            long lo = Objects.requireNonNull(hi) - User.ID_ALLOCATION_SIZE + 1;
+            for (long id = lo; id <= hi && filled < count; id++) {
+                ids[filled++] = id;
+            }
+        }
+        return ids;
+    }
+
+    private static List<Integer> indexes(int size) {
+        List<Integer> indexes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            indexes.add(i);
+        }
+        return indexes;
+    }
+
+    private static Role parseRole(String role) {
+        return role == null || role.isBlank() ? Role.USER : Role.valueOf(role.trim().toUpperCase());
+    }
+
+    // uq_users_username_lower / uq_users_email_lower bilan bir xil (PostgreSQL lower())
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private static final class Row {
+        final long line;
+        final ImportUserRequest request;
+        String error;
+
+        Row(long line, ImportUserRequest request, String error) {
+            this.line = line;
+            this.request = request;
+            this.error = error;
+        }
+    }
+
+    private final class Report {
+        long total;
+        long imported;
+        long failed;
+        final List<UserImportResult.RowError> errors = new ArrayList<>();
+
+        void fail(Row row) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                String username = row.request != null ? row.request.getUsername() : null;
+                errors.add(new UserImportResult.RowError(row.line, username, row.error));
+            }
+        }
+    }
+
+    private interface RowSource {
+        // Fayl tugasa null; o'qib bo'lmagan qator error bilan qaytadi
+        Row next() throws IOException;
+    }
+
+    private final class NdjsonRowSource implements RowSource {
+        private final BufferedReader reader;
+        private final ObjectReader objectReader = objectMapper.readerFor(ImportUserRequest.class);
+        private long line;
+
+        NdjsonRowSource(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                try {
+                    return new Row(line, objectReader.readValue(text), null);
+                } catch (JsonProcessingException e) {
+                    return new Row(line, null, "JSON formati noto'g'ri: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class CsvRowSource implements RowSource {
+        private final CsvReader reader;
+        private List<String> header;
+
+        CsvRowSource(BufferedReader reader) {
+            this.reader = new CsvReader(reader);
+        }
+
+        @Override
+        public Row next() throws IOException {
+            if (header == null) {
+                header = reader.readRecord();
+                if (header == null) {
+                    return null;
+                }
+                header = header.stream().map(column -> column.trim().toLowerCase()).toList();
+                if (!header.contains("username") || !header.contains("email")) {
+                    throw new IllegalArgumentException("CSV header da username va email ustunlari bo'lishi kerak");
+                }
+            }
+            List<String> fields = reader.readRecord();
+            if (fields == null) {
+                return null;
+            }
+            if (fields.size() != header.size()) {
+                return new Row(reader.getRecordLine(), null,
+                        "Ustunlar soni " + fields.size() + ", header da " + header.size());
+            }
+            ImportUserRequest request = new ImportUserRequest();
+            for (int i = 0; i < header.size(); i++) {
+                String value = fields.get(i);
+                switch (header.get(i)) {
+                    case "username" -> request.setUsername(value);
+                    case "email" -> request.setEmail(value);
+                    case "password" -> request.setPassword(emptyToNull(value));
+                    case "passwordhash" -> request.setPasswordHash(emptyToNull(value));
+                    case "firstname" -> request.setFirstName(value);
+                    case "lastname" -> request.setLastName(value);
+                    case "role" -> request.setRole(value);
+                    case "enabled" -> request.setEnabled(value.isEmpty() ? null : Boolean.parseBoolean(value));
+                    default -> {
+                        // Noma'lum ustunlar e'tiborsiz (masalan eksportdagi id, createdAt)
+                    }
+                }
+            }
+            return new Row(reader.getRecordLine(), request, null);
+        }
+    }
+}
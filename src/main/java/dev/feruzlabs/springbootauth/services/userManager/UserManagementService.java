@@ -1,9 +1,22 @@
 package dev.feruzlabs.springbootauth.services.userManager;
 
+import dev.feruzlabs.springbootauth.dto.response.CursorPage;
 import dev.feruzlabs.springbootauth.dto.response.UserResponse;
+import dev.feruzlabs.springbootauth.enums.Role;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.Optional;
 
 public interface UserManagementService {
     public Page<UserResponse> getAllUsers(Pageable pageable, String search);
+
+    // Keyset pagination: cursor null bo'lsa birinchi sahifa
+    public CursorPage<UserResponse> scrollUsers(String cursor, int size, String sortBy,
+                                                Sort.Direction direction, boolean withTotal);
+
+    public Optional<UserResponse> updateStatus(Long userId, boolean enabled);
+
+    public Optional<UserResponse> updateRole(Long userId, Role role);
 }
@@ -1,12 +1,25 @@
 package dev.feruzlabs.springbootauth.services.userManager;
 
+import dev.feruzlabs.springbootauth.dto.response.CursorPage;
 import dev.feruzlabs.springbootauth.dto.response.UserResponse;
+import dev.feruzlabs.springbootauth.entities.User;
+import dev.feruzlabs.springbootauth.enums.AuthEventType;
+import dev.feruzlabs.springbootauth.enums.Role;
+import dev.feruzlabs.springbootauth.events.UserSecurityChangedEvent;
 import dev.feruzlabs.springbootauth.repositories.UserRepository;
+import dev.feruzlabs.springbootauth.services.RefreshTokenService;
+import dev.feruzlabs.springbootauth.services.audit.AuthAuditLog;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -14,13 +27,93 @@ public class UserManagementServiceImpl implements UserManagementService {
 
     private UserRepository userRepository;
 
+    private RefreshTokenService refreshTokenService;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private AuthAuditLog authAuditLog;
+
     @Autowired
-    public UserManagementServiceImpl(UserRepository userRepository) {
+    public UserManagementServiceImpl(UserRepository userRepository,
+                                     RefreshTokenService refreshTokenService,
+                                     ApplicationEventPublisher eventPublisher,
+                                     AuthAuditLog authAuditLog) {
         this.userRepository = userRepository;
+        this.refreshTokenService = refreshTokenService;
+        this.eventPublisher = eventPublisher;
+        this.authAuditLog = authAuditLog;
     }
 
     @Override
     public Page<UserResponse> getAllUsers(Pageable pageable, String search) {
         return userRepository.findAll(pageable).map(UserResponse::fromEntity);
     }
+
+    /**
+     * Har sahifa (sort, id) indeksidan seek - chuqurlikdan qat'i nazar bir xil vaqt, COUNT(*) faqat so'ralsa.
+     * size + 1 qator o'qiladi: ortiqchasi bo'lsa keyingi sahifa bor.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<UserResponse> scrollUsers(String cursor, int size, String sortBy,
+                                                Sort.Direction direction, boolean withTotal) {
+        UserCursor.checkSortable(sortBy);
+        UserCursor.Position after = UserCursor.decode(cursor, sortBy, direction);
+        List<User> rows = userRepository.findPageAfter(sortBy, direction,
+                after != null ? after.value() : null, after != null ? after.id() : null, size + 1);
+
+        String next = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            User last = rows.get(size - 1);
+            next = UserCursor.encode(sortBy, direction, last.getId(), sortValue(last, sortBy));
+        }
+        Long total = withTotal ? userRepository.count() : null;
+        return new CursorPage<>(rows.stream().map(UserResponse::fromEntity).toList(), rows.size(), next, total);
+    }
+
+    private static Object sortValue(User user, String sortBy) {
+        return switch (sortBy) {
+            case "username" -> user.getUsername();
+            case "email" -> user.getEmail();
+            case "createdAt" -> user.getCreatedAt();
+            default -> user.getId();
+        };
+    }
+
+    @Override
+    @Transactional
+    public Optional<UserResponse> updateStatus(Long userId, boolean enabled) {
+        return userRepository.findById(userId).map(user -> {
+            if (user.isEnabled() != enabled) {
+                user.setEnabled(enabled);
+                invalidateSessions(user);
+            }
+            return UserResponse.fromEntity(user);
+        });
+    }
+
+    @Override
+    @Transactional
+    public Optional<UserResponse> updateRole(Long userId, Role role) {
+        return userRepository.findById(userId).map(user -> {
+            if (user.getRole() != role) {
+                user.setRole(role);
+                invalidateSessions(user);
+            }
+            return UserResponse.fromEntity(user);
+        });
+    }
+
+    /**
+     * Status yoki rol o'zgarganda eski access va refresh tokenlar bekor qilinadi
+     */
+    private void invalidateSessions(User user) {
+        user.bumpSecurityVersion();
+        userRepository.save(user);
+        refreshTokenService.revokeAllUserTokens(user);
+        authAuditLog.record(AuthEventType.REVOKE, user.getId(), user.getUsername(), null, null, "admin");
+        eventPublisher.publishEvent(
+                new UserSecurityChangedEvent(user.getId(), user.getUsername(), user.getSecurityVersion()));
+    }
 }
@@ -0,0 +1,112 @@
+package dev.feruzlabs.springbootauth.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Oqimli RFC 4180 CSV o'quvchi: qo'shtirnoqli maydonlar, ichidagi "" va qator ko'chishlari.
+ * Faylni xotiraga yuklamaydi - har chaqiruvda bitta yozuv.
+ */
+public class CsvReader {
+
+    private final Reader reader;
+    private int peeked = -2;
+    private long line = 1;
+    private long recordLine;
+
+    // Reader ni o'zi buferlamaydi - BufferedReader berish kerak
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Keyingi yozuv maydonlari, fayl tugasa null. Bo'sh qatorlar o'tkazib yuboriladi.
+     */
+    public List<String> readRecord() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            if (c == '\n') {
+                line++;
+                continue;
+            }
+            if (c == '\r') {
+                continue;
+            }
+            unread(c);
+            recordLine = line;
+            return readFields();
+        }
+    }
+
+    /**
+     * Oxirgi o'qilgan yozuv boshlangan qator raqami (1 dan)
+     */
+    public long getRecordLine() {
+        return recordLine;
+    }
+
+    private List<String> readFields() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            int c = read();
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("CSV " + recordLine + "-qatorda yopilmagan qo'shtirnoq");
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        unread(next);
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+                continue;
+            }
+            if (c == -1 || c == '\n') {
+                if (c == '\n') {
+                    line++;
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+            if (c == '\r') {
+                continue;
+            }
+            if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (peeked != -2) {
+            int c = peeked;
+            peeked = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        peeked = c;
+    }
+}
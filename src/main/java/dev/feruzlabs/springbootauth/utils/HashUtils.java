@@ -0,0 +1,27 @@
+package dev.feruzlabs.springbootauth.utils;
+
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+@NoArgsConstructor
+public class HashUtils {
+
+    // MessageDigest thread-safe emas - har thread o'z nusxasini ishlatadi
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    /**
+     * 32 baytlik SHA-256 digest (token satrlari ASCII/UTF-8)
+     */
+    public static byte[] sha256(String value) {
+        return SHA256.get().digest(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
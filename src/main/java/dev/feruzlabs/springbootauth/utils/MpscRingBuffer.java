@@ -0,0 +1,106 @@
+package dev.feruzlabs.springbootauth.utils;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Cheklangan, lock-free ring buffer: ko'p yozuvchi, bitta o'quvchi (Vyukov sxemasi).
+ * Har slot o'z sequence iga ega: yozuvchi tail ni CAS bilan band qiladi, elementni qo'yib
+ * sequence ni pos + 1 ga suradi; o'quvchi shu qiymatni ko'rgandagina oladi va slotni
+ * keyingi aylanishga (pos + capacity) bo'shatadi. To'lsa offer darhol false qaytaradi.
+ */
+public class MpscRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final int capacity;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // Faqat o'quvchi yozadi; size() boshqa threadlardan o'qiydi
+    private final AtomicLong head = new AtomicLong();
+
+    public MpscRingBuffer(int requestedCapacity) {
+        if (requestedCapacity < 2) {
+            throw new IllegalArgumentException("Capacity kamida 2 bo'lishi kerak: " + requestedCapacity);
+        }
+        // Index = pos & mask bo'lishi uchun 2 ning darajasiga yaxlitlanadi
+        this.capacity = Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Istalgan threaddan. Joy bo'lmasa kutmaydi - false.
+     */
+    public boolean offer(E element) {
+        long pos = tail.get();
+        while (true) {
+            int index = (int) pos & mask;
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    elements.set(index, element);
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                // Slot hali o'qilmagan - buffer to'la
+                return false;
+            } else {
+                // Boshqa yozuvchi oldinroq o'tib ketgan
+                pos = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Faqat bitta o'quvchi threaddan. Bo'sh bo'lsa null.
+     */
+    public E poll() {
+        long pos = head.get();
+        int index = (int) pos & mask;
+        if (sequences.get(index) != pos + 1) {
+            return null;
+        }
+        E element = elements.get(index);
+        elements.lazySet(index, null);
+        sequences.set(index, pos + capacity);
+        head.lazySet(pos + 1);
+        return element;
+    }
+
+    /**
+     * Faqat o'quvchi threaddan: ko'pi bilan max ta elementni sink ga o'tkazadi.
+     */
+    public int drainTo(Collection<? super E> sink, int max) {
+        int drained = 0;
+        E element;
+        while (drained < max && (element = poll()) != null) {
+            sink.add(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    // Taxminiy - parallel yozuvlar paytida bir-ikki element farq qilishi mumkin
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    // Shu paytgacha qabul qilingan elementlar soni
+    public long offered() {
+        return tail.get();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
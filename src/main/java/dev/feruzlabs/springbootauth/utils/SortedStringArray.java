@@ -0,0 +1,76 @@
+package dev.feruzlabs.springbootauth.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * O'zgarmas, ixcham satrlar to'plami: barcha satrlar UTF-8 baytlarda bitta massivga ketma-ket yozilgan,
+ * offsets bo'yicha bayt tartibida saralangan. contains - binary search, obyekt va String yaratmaydi
+ * (taqqoslash uchun so'ralgan satr bir marta baytga o'giriladi).
+ * 1M ta o'rtacha 10 belgili satr ~14 MB (String[] da ~60 MB).
+ */
+public class SortedStringArray {
+
+    private final byte[] data;
+    // i-satr data[offsets[i] .. offsets[i + 1])
+    private final int[] offsets;
+
+    private SortedStringArray(byte[] data, int[] offsets) {
+        this.data = data;
+        this.offsets = offsets;
+    }
+
+    /**
+     * values tartibsiz bo'lishi mumkin; takrorlar bitta bo'lib qoladi. Ro'yxat o'zgartiriladi (saralanadi).
+     */
+    public static SortedStringArray of(List<byte[]> values) {
+        values.sort(Arrays::compareUnsigned);
+        long total = 0;
+        for (byte[] value : values) {
+            total += value.length;
+        }
+        byte[] data = new byte[Math.toIntExact(total)];
+        int[] offsets = new int[values.size() + 1];
+        int count = 0;
+        int position = 0;
+        byte[] previous = null;
+        for (byte[] value : values) {
+            if (previous != null && Arrays.equals(previous, value)) {
+                continue;
+            }
+            offsets[count++] = position;
+            System.arraycopy(value, 0, data, position, value.length);
+            position += value.length;
+            previous = value;
+        }
+        offsets[count] = position;
+        return new SortedStringArray(data, Arrays.copyOf(offsets, count + 1));
+    }
+
+    public boolean contains(String value) {
+        byte[] key = value.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = Arrays.compareUnsigned(data, offsets[mid], offsets[mid + 1], key, 0, key.length);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    public long sizeInBytes() {
+        return data.length + (long) offsets.length * Integer.BYTES;
+    }
+}
@@ -0,0 +1,75 @@
+package dev.feruzlabs.springbootauth;
+
+import dev.feruzlabs.springbootauth.dto.request.RegisterRequest;
+import dev.feruzlabs.springbootauth.dto.response.MessageResponse;
+import dev.feruzlabs.springbootauth.dto.response.UserImportResult;
+import dev.feruzlabs.springbootauth.services.AuthService;
+import dev.feruzlabs.springbootauth.services.userManager.UserFileFormat;
+import dev.feruzlabs.springbootauth.services.userManager.UserImporter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * h2 profili (load test shu profilda): PostgreSQL-only changesetlarning H2 variantlari
+ * registratsiya va import bilan bir xil natija berishi kerak.
+ */
+@SpringBootTest(properties = {"security.password.min-cost=4", "security.password.max-cost=4"})
+@ActiveProfiles("h2")
+class H2ProfileTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserImporter userImporter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void takenUsernameAndEmailAreRejectedIgnoringCase() {
+        assertThat(authService.register(request("h2-Ann", "h2-ann@example.com")).isSuccess()).isTrue();
+
+        MessageResponse exact = authService.register(request("h2-Ann", "h2-other@example.com"));
+        assertThat(exact.getMessage()).isEqualTo("Username allaqachon mavjud!");
+
+        MessageResponse username = authService.register(request("H2-ANN", "h2-other@example.com"));
+        assertThat(username.isSuccess()).isFalse();
+        assertThat(username.getMessage()).isEqualTo("Username allaqachon mavjud!");
+
+        MessageResponse email = authService.register(request("h2-bob", "H2-ANN@EXAMPLE.COM"));
+        assertThat(email.isSuccess()).isFalse();
+        assertThat(email.getMessage()).isEqualTo("Email allaqachon ro'yxatdan o'tgan!");
+    }
+
+    @Test
+    void registeredAndImportedUsersShareTheUsersIdSequence() throws Exception {
+        assertThat(authService.register(request("h2-seq-a", "h2-seq-a@example.com")).isSuccess()).isTrue();
+        String ndjson = "{\"username\":\"h2-seq-b\",\"email\":\"h2-seq-b@example.com\",\"password\":\"secret123\"}\n" +
+                "{\"username\":\"h2-seq-c\",\"email\":\"h2-seq-c@example.com\",\"password\":\"secret123\"}\n";
+        UserImportResult result = userImporter.importUsers(UserFileFormat.NDJSON,
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), false);
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(authService.register(request("h2-seq-d", "h2-seq-d@example.com")).isSuccess()).isTrue();
+
+        // v1 dagi seed userlardan yuqorida va bir-biri bilan to'qnashmaydi
+        Long seededMax = jdbcTemplate.queryForObject(
+                "SELECT MAX(id) FROM users WHERE username NOT LIKE 'h2-%'", Long.class);
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE username LIKE 'h2-seq-%' ORDER BY username", Long.class);
+        assertThat(ids).hasSize(4).doesNotHaveDuplicates().allMatch(id -> id > seededMax);
+    }
+
+    private static RegisterRequest request(String username, String email) {
+        return new RegisterRequest(username, "secret123", email);
+    }
+}
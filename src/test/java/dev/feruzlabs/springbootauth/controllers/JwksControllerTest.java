@@ -0,0 +1,65 @@
+package dev.feruzlabs.springbootauth.controllers;
+
+import dev.feruzlabs.springbootauth.securities.JwtKeyRing;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class JwksControllerTest {
+
+    @TempDir
+    Path keyDir;
+
+    private MockMvc mockMvc;
+    private String etag;
+
+    @BeforeEach
+    void setUp() {
+        JwtKeyRing keyRing = new JwtKeyRing();
+        ReflectionTestUtils.setField(keyRing, "secretKey",
+                "myVeryLongSecretKeyThatIsAtLeast64CharactersLongForHS512AlgorithmSecurity123456789");
+        ReflectionTestUtils.setField(keyRing, "jwtExpiration", Duration.ofDays(1).toMillis());
+        ReflectionTestUtils.setField(keyRing, "algorithm", SignatureAlgorithm.ES256);
+        ReflectionTestUtils.setField(keyRing, "keyDir", keyDir.toString());
+        ReflectionTestUtils.setField(keyRing, "rotationInterval", Duration.ofDays(7));
+        ReflectionTestUtils.setField(keyRing, "reloadInterval", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(keyRing, "jwksMaxAge", Duration.ofMinutes(5));
+        ReflectionTestUtils.invokeMethod(keyRing, "init");
+        etag = keyRing.getJwksEtag();
+
+        JwksController controller = new JwksController();
+        ReflectionTestUtils.setField(controller, "keyRing", keyRing);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void matchingIfNoneMatchFormsReturnNotModified() throws Exception {
+        for (String ifNoneMatch : new String[]{etag, "W/" + etag, "\"other\", " + etag, "*"}) {
+            mockMvc.perform(get("/.well-known/jwks.json").header("If-None-Match", ifNoneMatch))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string("ETag", etag))
+                    .andExpect(header().string("Cache-Control", "max-age=300, public"));
+        }
+    }
+
+    @Test
+    void staleOrMissingEtagGetsKeys() throws Exception {
+        mockMvc.perform(get("/.well-known/jwks.json").header("If-None-Match", "\"other\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etag));
+        mockMvc.perform(get("/.well-known/jwks.json"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=300, public"));
+    }
+}
@@ -0,0 +1,40 @@
+package dev.feruzlabs.springbootauth.controllers;
+
+import dev.feruzlabs.springbootauth.services.userManager.UserManagementServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Cursor xatolari repository ga yetmasdan 400 bo'ladi - shuning uchun DB siz, standalone MockMvc
+ */
+class UserControllerCursorTest {
+
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(
+            new UserController(new UserManagementServiceImpl(null, null, null, null), null, null)).build();
+
+    @Test
+    void cursorFromAnotherSortIsBadRequest() throws Exception {
+        String cursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("v1|username|ASC|7|alice".getBytes(StandardCharsets.UTF_8));
+
+        mockMvc.perform(get("/api/users").param("cursor", cursor).param("sortBy", "email"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Cursor boshqa saralash uchun berilgan"));
+        mockMvc.perform(get("/api/users").param("cursor", cursor).param("sortBy", "username").param("order", "desc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void unsortableColumnIsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/users").param("paging", "cursor").param("sortBy", "password"))
+                .andExpect(status().isBadRequest());
+    }
+}
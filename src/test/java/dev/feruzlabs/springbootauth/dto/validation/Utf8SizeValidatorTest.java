@@ -0,0 +1,40 @@
+package dev.feruzlabs.springbootauth.dto.validation;
+
+import dev.feruzlabs.springbootauth.dto.request.LoginRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Utf8SizeValidatorTest {
+
+    private static final ValidatorFactory FACTORY = Validation.buildDefaultValidatorFactory();
+    private static final Validator VALIDATOR = FACTORY.getValidator();
+
+    @AfterAll
+    static void close() {
+        FACTORY.close();
+    }
+
+    @Test
+    void deviceIdIsLimitedInBytesNotCharacters() {
+        assertThat(violations("a".repeat(64))).isEmpty();
+        assertThat(violations("т".repeat(32))).isEmpty();
+        assertThat(violations(null)).isEmpty();
+
+        // 64 belgi, lekin 128 bayt - @Size(max = 64) buni o'tkazib yuborardi
+        assertThat(violations("т".repeat(64))).singleElement()
+                .satisfies(violation -> assertThat(violation.getPropertyPath().toString()).isEqualTo("deviceId"));
+        assertThat(violations("a".repeat(65))).hasSize(1);
+    }
+
+    private static Set<ConstraintViolation<LoginRequest>> violations(String deviceId) {
+        return VALIDATOR.validate(new LoginRequest("alice", "secret123", deviceId));
+    }
+}
@@ -0,0 +1,163 @@
+package dev.feruzlabs.springbootauth.securities;
+
+import dev.feruzlabs.springbootauth.events.AccessTokenRevokedEvent;
+import dev.feruzlabs.springbootauth.events.UserSecurityChangedEvent;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * DB siz: jti lar remote event orqali (faqat xotiraga) qo'shiladi, sweep dagi DELETE hech narsa qilmaydi.
+ */
+class AccessTokenDenylistTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AccessTokenDenylist denylist;
+
+    @BeforeEach
+    void setUp() {
+        denylist = denylist(100);
+    }
+
+    private AccessTokenDenylist denylist(long expectedEntries) {
+        AccessTokenDenylist created = new AccessTokenDenylist();
+        ReflectionTestUtils.setField(created, "jdbcTemplate", new JdbcTemplate() {
+            @Override
+            public int update(String sql, Object... args) {
+                return 0;
+            }
+        });
+        ReflectionTestUtils.setField(created, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(created, "expectedEntries", expectedEntries);
+        ReflectionTestUtils.setField(created, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(created, "jwtExpiration", 86_400_000L);
+        created.init();
+        return created;
+    }
+
+    @Test
+    void revokedJtiIsFoundThroughFilterAndExactMap() {
+        revoke(denylist, "jti-1", System.currentTimeMillis() + HOUR);
+
+        assertThat(denylist.isRevoked(token("jti-1", 1L, new Date()))).isTrue();
+        assertThat(denylist.isRevoked(token("jti-2", 1L, new Date()))).isFalse();
+        assertThat(meterRegistry.counter("auth.denylist.rejected").count()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredEntryIsNotRevokedEvenIfFilterStillHasIt() throws InterruptedException {
+        revoke(denylist, "short", System.currentTimeMillis() + 50);
+        Thread.sleep(100);
+
+        // Filterda bit qoladi, lekin aniq xaritadagi exp o'tgan
+        assertThat(denylist.isRevoked(token("short", 1L, new Date()))).isFalse();
+
+        denylist.sweep();
+        assertThat(denylist.size()).isZero();
+    }
+
+    @Test
+    void filterCapacityDoublesWhenFull() {
+        AccessTokenDenylist small = denylist(16);
+        long expiresAt = System.currentTimeMillis() + HOUR;
+        for (int i = 0; i < 100; i++) {
+            revoke(small, "jti-" + i, expiresAt);
+        }
+
+        assertThat((long) ReflectionTestUtils.getField(small, "filterCapacity")).isEqualTo(128);
+        for (int i = 0; i < 100; i++) {
+            assertThat(small.isRevoked(token("jti-" + i, 1L, new Date()))).isTrue();
+        }
+    }
+
+    @Test
+    void sweepRebuildDoesNotLoseConcurrentAdds() throws Exception {
+        AccessTokenDenylist small = denylist(64);
+        int writers = 3;
+        int perWriter = 5_000;
+        long expiresAt = System.currentTimeMillis() + HOUR;
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int base = w * perWriter;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perWriter; i++) {
+                        revoke(small, "jti-" + (base + i), expiresAt);
+                        // Darhol eskiradigan yozuv - har sweep filterni qayta quradi
+                        revoke(small, "tmp-" + (base + i), System.currentTimeMillis() + 1);
+                    }
+                    return null;
+                }));
+            }
+            Future<?> sweeper = executor.submit(() -> {
+                start.await();
+                while (writing.get()) {
+                    small.sweep();
+                }
+                return null;
+            });
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            writing.set(false);
+            sweeper.get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int i = 0; i < writers * perWriter; i++) {
+            assertThat(small.isRevoked(token("jti-" + i, 1L, new Date()))).isTrue();
+        }
+    }
+
+    @Test
+    void revokedBeforeSparesTokensIssuedInTheSameSecond() {
+        Instant changedAt = Instant.ofEpochSecond(1_800_000_000L, 700_000_000);
+        denylist.onUserSecurityChanged(new UserSecurityChangedEvent(7L, "alice", 2, changedAt, true));
+
+        // JWT iat butun soniya: o'zgarish soniyasida berilgan token (qayta login) o'tadi,
+        // undan oldingi soniyadagisi rad etiladi (shu soniyadagi eskisini security version ushlaydi)
+        Date sameSecond = Date.from(Instant.ofEpochSecond(1_800_000_000L));
+        Date secondBefore = Date.from(Instant.ofEpochSecond(1_799_999_999L));
+        assertThat(denylist.isRevoked(token("a", 7L, sameSecond))).isFalse();
+        assertThat(denylist.isRevoked(token("b", 7L, secondBefore))).isTrue();
+        assertThat(denylist.isRevoked(token("c", 8L, secondBefore))).isFalse();
+    }
+
+    private static void revoke(AccessTokenDenylist target, String jti, long expiresAt) {
+        target.onAccessTokenRevoked(new AccessTokenRevokedEvent(jti, expiresAt, true));
+    }
+
+    private static VerifiedToken token(String jti, Long userId, Date issuedAt) {
+        Claims claims = Jwts.claims();
+        claims.setId(jti);
+        claims.put("userId", userId);
+        claims.setIssuedAt(issuedAt);
+        claims.setExpiration(new Date(System.currentTimeMillis() + HOUR));
+        return VerifiedToken.from(claims);
+    }
+}
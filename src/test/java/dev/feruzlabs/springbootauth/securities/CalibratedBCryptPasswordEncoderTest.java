@@ -0,0 +1,33 @@
+package dev.feruzlabs.springbootauth.securities;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CalibratedBCryptPasswordEncoderTest {
+
+    @Test
+    void onlyHashesOutsideToleranceBandAreUpgraded() {
+        CalibratedBCryptPasswordEncoder encoder = new CalibratedBCryptPasswordEncoder(5);
+
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret"))).isTrue();
+        assertThat(encoder.upgradeEncoding(encoder.encode("secret"))).isFalse();
+        // Qo'shni node bir pog'ona yuqori tanlagan - qayta yozilmaydi
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret"))).isFalse();
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(7).encode("secret"))).isTrue();
+        assertThat(encoder.upgradeEncoding("plain-text")).isTrue();
+        assertThat(encoder.upgradeEncoding(null)).isFalse();
+    }
+
+    @Test
+    void calibrationStaysWithinBounds() {
+        CalibratedBCryptPasswordEncoder encoder =
+                CalibratedBCryptPasswordEncoder.calibrate(Duration.ofSeconds(10), 4, 5);
+
+        assertThat(encoder.getStrength()).isBetween(4, 5);
+        assertThat(encoder.matches("secret", encoder.encode("secret"))).isTrue();
+    }
+}
@@ -0,0 +1,91 @@
+package dev.feruzlabs.springbootauth.securities;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtKeyRingTest {
+
+    private static final DateTimeFormatter KID_TIME = DateTimeFormatter.ofPattern("yyyyMMddHHmmss").withZone(ZoneOffset.UTC);
+
+    @TempDir
+    Path keyDir;
+
+    @Test
+    void newKeyIsPublishedBeforeItSigns() throws IOException {
+        JwtKeyRing keyRing = keyRing(SignatureAlgorithm.ES256);
+        keyRing.init();
+        String first = age(keyRing.current().getKid(), Duration.ofDays(8));
+
+        // Rotatsiya muddati o'tdi: yangi kalit JWKS da bor, lekin hali eskisi imzolaydi
+        keyRing.rotate();
+        assertThat(keyRing.current().getKid()).isEqualTo(first);
+        String second = Files.list(keyDir).map(p -> p.getFileName().toString())
+                .filter(name -> name.endsWith(".pub") && !name.startsWith(first))
+                .map(name -> name.replace(".pub", ""))
+                .findFirst().orElseThrow();
+        assertThat(keyRing.getJwksJson()).contains(first).contains(second);
+
+        // reload-interval (1m) + max-age (5m) o'tgach yangisi imzolaydi, eskisi tekshirish uchun qoladi
+        String activated = age(second, Duration.ofMinutes(7));
+        keyRing.rotate();
+        assertThat(keyRing.current().getKid()).isEqualTo(activated);
+        assertThat(keyRing.getJwksJson()).contains(first);
+    }
+
+    @Test
+    void kidlessTokensAreAcceptedOnlyForOneExpirationAfterSwitch() throws IOException {
+        JwtKeyRing fresh = keyRing(SignatureAlgorithm.ES256);
+        fresh.init();
+        assertThat(fresh.resolveSigningKey(Jwts.jwsHeader(), Jwts.claims())).isNotNull();
+
+        // Asimmetrik rejim 2 kun oldin yoqilgan, jwt.expiration - 1 kun
+        Files.writeString(keyDir.resolve("asymmetric-since"),
+                Long.toString(Instant.now().minus(Duration.ofDays(2)).toEpochMilli()));
+        JwtKeyRing expired = keyRing(SignatureAlgorithm.ES256);
+        expired.init();
+        assertThatThrownBy(() -> expired.resolveSigningKey(Jwts.jwsHeader(), Jwts.claims()))
+                .isInstanceOf(SignatureException.class);
+
+        JwtKeyRing hmac = keyRing(SignatureAlgorithm.HS512);
+        hmac.init();
+        assertThat(hmac.resolveSigningKey(Jwts.jwsHeader(), Jwts.claims())).isNotNull();
+    }
+
+    private JwtKeyRing keyRing(SignatureAlgorithm algorithm) {
+        JwtKeyRing keyRing = new JwtKeyRing();
+        ReflectionTestUtils.setField(keyRing, "secretKey",
+                "myVeryLongSecretKeyThatIsAtLeast64CharactersLongForHS512AlgorithmSecurity123456789");
+        ReflectionTestUtils.setField(keyRing, "jwtExpiration", Duration.ofDays(1).toMillis());
+        ReflectionTestUtils.setField(keyRing, "algorithm", algorithm);
+        ReflectionTestUtils.setField(keyRing, "keyDir", keyDir.toString());
+        ReflectionTestUtils.setField(keyRing, "rotationInterval", Duration.ofDays(7));
+        ReflectionTestUtils.setField(keyRing, "reloadInterval", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(keyRing, "jwksMaxAge", Duration.ofMinutes(5));
+        return keyRing;
+    }
+
+    // kid ichidagi yaratilgan vaqtni orqaga suradi (fayllar qayta nomlanadi) - yangi kid ni qaytaradi
+    private String age(String kid, Duration by) throws IOException {
+        String[] parts = kid.split("-");
+        Instant createdAt = KID_TIME.parse(parts[1], Instant::from);
+        String aged = parts[0] + "-" + KID_TIME.format(createdAt.minus(by)) + "-" + parts[2];
+        Files.move(keyDir.resolve(kid + ".key"), keyDir.resolve(aged + ".key"));
+        Files.move(keyDir.resolve(kid + ".pub"), keyDir.resolve(aged + ".pub"));
+        return aged;
+    }
+}
@@ -0,0 +1,117 @@
+package dev.feruzlabs.springbootauth.securities;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginAttemptTrackerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // flush yozgan qatorlar: {failed_login_attempts, account_locked_until, id}
+    private final List<Object[]> written = new ArrayList<>();
+
+    private LoginAttemptTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        PrincipalCache principalCache = new PrincipalCache();
+        ReflectionTestUtils.setField(principalCache, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(principalCache, "maxSize", 100L);
+        ReflectionTestUtils.setField(principalCache, "ttl", Duration.ofMinutes(5));
+        principalCache.init();
+
+        tracker = new LoginAttemptTracker();
+        ReflectionTestUtils.setField(tracker, "jdbcTemplate", new JdbcTemplate() {
+            @Override
+            public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+                written.addAll(batchArgs);
+                return new int[batchArgs.size()];
+            }
+        });
+        ReflectionTestUtils.setField(tracker, "principalCache", principalCache);
+        ReflectionTestUtils.setField(tracker, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(tracker, "maxAttempts", 5);
+        ReflectionTestUtils.setField(tracker, "window", Duration.ofMinutes(15));
+        ReflectionTestUtils.setField(tracker, "lockDuration", Duration.ofMinutes(15));
+        tracker.init();
+    }
+
+    @Test
+    void fifthFailureLocksAndSuccessClears() {
+        for (int i = 0; i < 4; i++) {
+            assertThat(tracker.recordFailure(1L, "alice", 0)).isFalse();
+        }
+        assertThat(tracker.recordFailure(1L, "alice", 0)).isTrue();
+        assertThat(tracker.isLocked(1L)).isTrue();
+        assertThat(meterRegistry.counter("auth.login.lockouts").count()).isEqualTo(1);
+
+        tracker.flush();
+        assertThat(written).singleElement().satisfies(row -> {
+            assertThat(row[0]).isEqualTo(5);
+            assertThat(row[1]).isInstanceOf(Timestamp.class);
+        });
+
+        tracker.recordSuccess(1L, 5);
+        assertThat(tracker.isLocked(1L)).isFalse();
+        tracker.flush();
+        assertThat(written).hasSize(2);
+        assertThat(written.get(1)).containsExactly(0, null, 1L);
+    }
+
+    @Test
+    void successRacingLockingFailureIsNotOverwrittenByStaleLock() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            tracker.recordFailure(1L, "alice", 0);
+        }
+        // Xato urinish threadi o'z holatini pending ga yozishdan oldin to'xtaydi - shu orada to'g'ri login o'tadi
+        CountDownLatch successDone = new CountDownLatch(1);
+        Thread[] failing = new Thread[1];
+        ReflectionTestUtils.setField(tracker, "pending", new ConcurrentHashMap<Long, Object>() {
+            @Override
+            public Object put(Long key, Object value) {
+                if (Thread.currentThread() == failing[0]) {
+                    try {
+                        // Tuzatilgan kodda success compute da kutadi - shuning uchun cheklangan kutish
+                        successDone.await(200, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.put(key, value);
+            }
+        });
+
+        CompletableFuture<Boolean> failure = CompletableFuture.supplyAsync(() -> {
+            failing[0] = Thread.currentThread();
+            return tracker.recordFailure(1L, "alice", 0);
+        });
+        CompletableFuture<Void> success = CompletableFuture.runAsync(() -> {
+            while (failing[0] == null || !tracker.isLocked(1L)) {
+                Thread.onSpinWait();
+            }
+            tracker.recordSuccess(1L, 4);
+            successDone.countDown();
+        });
+        assertThat(failure.get(5, TimeUnit.SECONDS)).isTrue();
+        success.get(5, TimeUnit.SECONDS);
+
+        // Oxirgi hodisa - muvaffaqiyatli login: DB ga lock yozilmasligi kerak
+        assertThat(tracker.isLocked(1L)).isFalse();
+        tracker.flush();
+        assertThat(written).singleElement().satisfies(row -> assertThat(row).containsExactly(0, null, 1L));
+    }
+}
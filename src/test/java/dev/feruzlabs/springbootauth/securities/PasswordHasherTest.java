@@ -0,0 +1,122 @@
+package dev.feruzlabs.springbootauth.securities;
+
+import dev.feruzlabs.springbootauth.controllers.AuthController;
+import dev.feruzlabs.springbootauth.dto.request.LoginRequest;
+import dev.feruzlabs.springbootauth.services.AuthService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Bitta worker, bitta navbat joyi; "BCrypt" release ochilguncha bloklanadi
+ */
+class PasswordHasherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger hashed = new AtomicInteger();
+
+    private PasswordHasher hasher;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        hasher = new PasswordHasher();
+        ReflectionTestUtils.setField(hasher, "passwordEncoder", new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                hashed.incrementAndGet();
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        });
+        ReflectionTestUtils.setField(hasher, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(hasher, "poolSize", 1);
+        ReflectionTestUtils.setField(hasher, "queueCapacity", 1);
+        ReflectionTestUtils.setField(hasher, "maxWait", Duration.ofMillis(100));
+        hasher.init();
+
+        AuthService authService = new AuthService() {
+            @Override
+            public Object login(LoginRequest request, String clientIp) {
+                hasher.matches(request.getPassword(), "stored");
+                return null;
+            }
+        };
+        AuthController controller = new AuthController();
+        ReflectionTestUtils.setField(controller, "authService", authService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        hasher.shutdown();
+    }
+
+    @Test
+    void saturatedPoolRejectsWithoutStartingStaleWork() throws Exception {
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> hasher.matches("a", "stored"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> hasher.matches("b", "stored"));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.get("auth.password.queue.size").gauge().value() < 1
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(meterRegistry.get("auth.password.queue.size").gauge().value()).isEqualTo(1);
+
+        // Navbat to'la - darhol 503
+        mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"alice\",\"password\":\"secret123\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+        assertThat(rejected()).isEqualTo(1);
+
+        // Ishlayotgan hash max-wait dan uzoq davom etadi, lekin uning natijasi kutiladi
+        Thread.sleep(200);
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isTrue();
+
+        // Navbatdagisi max-wait dan ko'p kutgan - BCrypt boshlanmaydi
+        assertThatThrownBy(() -> queued.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(PasswordWorkRejectedException.class);
+        assertThat(hashed.get()).isEqualTo(1);
+        assertThat(rejected()).isEqualTo(2);
+    }
+
+    private double rejected() {
+        return meterRegistry.counter("auth.password.rejected").count();
+    }
+}
@@ -0,0 +1,52 @@
+package dev.feruzlabs.springbootauth.securities;
+
+import dev.feruzlabs.springbootauth.events.UserSecurityChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Security o'zgarishi tranzaksiya ichida publish qilinsa, kesh commit dan keyingina tozalanadi.
+ */
+@SpringBootTest
+class PrincipalCacheTest {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void evictionWaitsForCommit() {
+        double before = invalidations();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(new UserSecurityChangedEvent(-1L, "principal-cache-test", 1));
+            assertThat(invalidations()).isEqualTo(before);
+        });
+
+        assertThat(invalidations()).isEqualTo(before + 1);
+    }
+
+    @Test
+    void eventOutsideTransactionEvictsImmediately() {
+        double before = invalidations();
+
+        eventPublisher.publishEvent(new UserSecurityChangedEvent(-1L, "principal-cache-test", 1));
+
+        assertThat(invalidations()).isEqualTo(before + 1);
+    }
+
+    private double invalidations() {
+        return meterRegistry.get("auth.principal.cache.invalidations").counter().count();
+    }
+}
@@ -0,0 +1,90 @@
+package dev.feruzlabs.springbootauth.services;
+
+import dev.feruzlabs.springbootauth.dto.request.LoginRequest;
+import dev.feruzlabs.springbootauth.dto.request.RegisterRequest;
+import dev.feruzlabs.springbootauth.dto.response.JwtResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Login va refresh bosqichlari o'z tag lari bilan yoziladi - tag qiymatlari cheklangan to'plamdan.
+ */
+@SpringBootTest(properties = {"security.password.min-cost=4", "security.password.max-cost=4"})
+class AuthServiceMetricsTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String username = "metrics-" + UUID.randomUUID().toString().substring(0, 6);
+
+    @AfterEach
+    void deleteUser() {
+        jdbcTemplate.update("DELETE FROM refresh_tokens WHERE user_id IN (SELECT id FROM users WHERE username = ?)", username);
+        jdbcTemplate.update("DELETE FROM users WHERE username = ?", username);
+    }
+
+    @Test
+    void loginAndRefreshStagesAreTimedByOutcome() {
+        authService.register(new RegisterRequest(username, "secret123", username + "@example.com"));
+        long matchBefore = timerCount("auth.login.password", "outcome", "match");
+        long mismatchBefore = timerCount("auth.login.password", "outcome", "mismatch");
+        double successBefore = counter("auth.login.attempts", "outcome", "success");
+        long issueBefore = timerCount("auth.refresh-token", "op", "issue", "outcome", "success");
+        long rotateBefore = timerCount("auth.refresh-token", "op", "rotate", "outcome", "success");
+        long notFoundBefore = timerCount("auth.refresh-token", "op", "rotate", "outcome", "not_found");
+
+        Object wrong = authService.login(new LoginRequest(username, "wrong-password", "metrics"), "127.0.0.1");
+        assertThat(wrong).isNotInstanceOf(JwtResponse.class);
+        JwtResponse login = (JwtResponse) authService.login(new LoginRequest(username, "secret123", "metrics"), "127.0.0.1");
+        refreshTokenService.refreshToken(login.getRefreshToken());
+        assertThatThrownBy(() -> refreshTokenService.refreshToken(login.getRefreshToken()))
+                .hasMessage("Refresh token topilmadi!");
+
+        assertThat(timerCount("auth.login.password", "outcome", "match")).isEqualTo(matchBefore + 1);
+        assertThat(timerCount("auth.login.password", "outcome", "mismatch")).isEqualTo(mismatchBefore + 1);
+        assertThat(counter("auth.login.attempts", "outcome", "success")).isEqualTo(successBefore + 1);
+        assertThat(timerCount("auth.refresh-token", "op", "issue", "outcome", "success")).isEqualTo(issueBefore + 1);
+        assertThat(timerCount("auth.refresh-token", "op", "rotate", "outcome", "success")).isEqualTo(rotateBefore + 1);
+        assertThat(timerCount("auth.refresh-token", "op", "rotate", "outcome", "not_found")).isEqualTo(notFoundBefore + 1);
+    }
+
+    @Test
+    void cleanupRecordsDurationAndDeletedRows() {
+        long before = meterRegistry.get("auth.refresh-token.cleanup").timer().count();
+
+        refreshTokenService.cleanupExpiredTokens();
+
+        assertThat(meterRegistry.get("auth.refresh-token.cleanup").timer().count()).isEqualTo(before + 1);
+        assertThat(meterRegistry.find("auth.refresh-token.cleanup.deleted").counter()).isNotNull();
+    }
+
+    private long timerCount(String name, String... tags) {
+        Timer timer = meterRegistry.find(name).tags(tags).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private double counter(String name, String... tags) {
+        Counter counter = meterRegistry.find(name).tags(tags).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
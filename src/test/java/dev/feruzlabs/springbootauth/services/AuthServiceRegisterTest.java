@@ -0,0 +1,88 @@
+package dev.feruzlabs.springbootauth.services;
+
+import dev.feruzlabs.springbootauth.dto.request.RegisterRequest;
+import dev.feruzlabs.springbootauth.dto.response.MessageResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Registratsiya faqat unique index larga tayanadi: poyga va katta-kichik harf farqi ham bitta INSERT da ushlanadi.
+ * BCrypt cost 4 - parallel so'rovlar hashing navbatiga sig'sin.
+ */
+@SpringBootTest(properties = {"security.password.min-cost=4", "security.password.max-cost=4"})
+class AuthServiceRegisterTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String prefix = "reg-" + UUID.randomUUID().toString().substring(0, 6);
+
+    @AfterEach
+    void deleteUsers() {
+        jdbcTemplate.update("DELETE FROM users WHERE lower(username) LIKE ?", prefix + "%");
+    }
+
+    @Test
+    void takenUsernameAndEmailAreRejectedIgnoringCase() {
+        assertThat(authService.register(request(prefix + "-a", prefix + "-a@example.com")).isSuccess()).isTrue();
+
+        MessageResponse username = authService.register(request(prefix.toUpperCase() + "-A", prefix + "-b@example.com"));
+        assertThat(username.isSuccess()).isFalse();
+        assertThat(username.getMessage()).isEqualTo("Username allaqachon mavjud!");
+
+        MessageResponse email = authService.register(request(prefix + "-b", prefix.toUpperCase() + "-A@EXAMPLE.COM"));
+        assertThat(email.isSuccess()).isFalse();
+        assertThat(email.getMessage()).isEqualTo("Email allaqachon ro'yxatdan o'tgan!");
+    }
+
+    @Test
+    void concurrentRegistrationsOfOneUsernameCreateExactlyOneUser() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<MessageResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                String email = prefix + "-" + i + "@example.com";
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return authService.register(request(prefix + "-same", email));
+                }));
+            }
+            start.countDown();
+
+            List<MessageResponse> responses = new ArrayList<>();
+            for (Future<MessageResponse> future : futures) {
+                responses.add(future.get());
+            }
+            assertThat(responses).filteredOn(MessageResponse::isSuccess).hasSize(1);
+            assertThat(responses).filteredOn(response -> !response.isSuccess())
+                    .extracting(MessageResponse::getMessage)
+                    .containsOnly("Username allaqachon mavjud!");
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE username = ?",
+                    Integer.class, prefix + "-same")).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static RegisterRequest request(String username, String email) {
+        return new RegisterRequest(username, "secret123", email);
+    }
+}
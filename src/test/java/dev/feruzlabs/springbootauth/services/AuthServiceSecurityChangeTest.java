@@ -0,0 +1,62 @@
+package dev.feruzlabs.springbootauth.services;
+
+import dev.feruzlabs.springbootauth.dto.request.LoginRequest;
+import dev.feruzlabs.springbootauth.dto.request.RegisterRequest;
+import dev.feruzlabs.springbootauth.dto.response.JwtResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Parol o'zgarishi va hamma devicelardan logout faqat o'z ustunlarini yangilaydi:
+ * login statistikasi va lockout holati eski entity bilan ustidan yozilmaydi.
+ */
+@SpringBootTest(properties = {"security.password.min-cost=4", "security.password.max-cost=4"})
+class AuthServiceSecurityChangeTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String username = "sec-" + UUID.randomUUID().toString().substring(0, 6);
+
+    @AfterEach
+    void deleteUser() {
+        jdbcTemplate.update("DELETE FROM refresh_tokens WHERE user_id IN (SELECT id FROM users WHERE username = ?)", username);
+        jdbcTemplate.update("DELETE FROM users WHERE username = ?", username);
+    }
+
+    @Test
+    void securityChangesTouchOnlyPasswordAndVersion() {
+        authService.register(new RegisterRequest(username, "secret123", username + "@example.com"));
+        LocalDateTime lastLogin = LocalDateTime.now().minusHours(1).truncatedTo(ChronoUnit.SECONDS);
+        jdbcTemplate.update("UPDATE users SET last_login_at = ?, last_login_ip = ?, failed_login_attempts = 2 " +
+                "WHERE username = ?", Timestamp.valueOf(lastLogin), "10.0.0.9", username);
+
+        assertThat(authService.changePassword(username, "secret123", "secret456").isSuccess()).isTrue();
+        assertThat(authService.logoutFromAllDevices(username).isSuccess()).isTrue();
+
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT security_version, last_login_at, last_login_ip, " +
+                "failed_login_attempts FROM users WHERE username = ?", username);
+        assertThat(((Number) row.get("security_version")).intValue()).isEqualTo(2);
+        assertThat(((Timestamp) row.get("last_login_at")).toLocalDateTime()).isEqualTo(lastLogin);
+        assertThat(row).containsEntry("last_login_ip", "10.0.0.9");
+        assertThat(((Number) row.get("failed_login_attempts")).intValue()).isEqualTo(2);
+
+        // Yangi parol kuchda
+        assertThat(authService.login(new LoginRequest(username, "secret456", "laptop"), "10.0.0.1"))
+                .isInstanceOf(JwtResponse.class);
+    }
+}
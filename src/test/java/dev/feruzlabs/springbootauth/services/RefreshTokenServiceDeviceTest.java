@@ -0,0 +1,85 @@
+package dev.feruzlabs.springbootauth.services;
+
+import dev.feruzlabs.springbootauth.entities.User;
+import dev.feruzlabs.springbootauth.enums.Role;
+import dev.feruzlabs.springbootauth.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Partitionlangan refresh_tokens da (user_id, device_id) unique emas - bitta device dan parallel birinchi
+ * loginlar baribir bitta qator qoldirishi kerak.
+ */
+@SpringBootTest
+class RefreshTokenServiceDeviceTest {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void createUser() {
+        String name = "dev-" + UUID.randomUUID().toString().substring(0, 8);
+        User created = new User();
+        created.setUsername(name);
+        created.setPassword("{noop}secret");
+        created.setEmail(name + "@example.com");
+        created.setRole(Role.USER);
+        created.setCreatedAt(LocalDateTime.now());
+        user = userRepository.save(created);
+    }
+
+    @AfterEach
+    void deleteUser() {
+        jdbcTemplate.update("DELETE FROM refresh_tokens WHERE user_id = ?", user.getId());
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void concurrentFirstLoginsFromOneDeviceKeepOneRow() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return refreshTokenService.createRefreshToken(user, "phone");
+                }));
+            }
+            start.countDown();
+            for (Future<String> future : futures) {
+                assertThat(future.get()).isNotBlank();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM refresh_tokens WHERE user_id = ? AND device_id = 'phone'",
+                Integer.class, user.getId())).isEqualTo(1);
+    }
+}
@@ -0,0 +1,103 @@
+package dev.feruzlabs.springbootauth.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sozlangan PostgreSQL ustida: indeks users dan yuklanadi, keyin DB dagi o'zgarishlar faqat add() yoki
+ * qayta qurish orqali ko'rinadi.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(UsernameAvailabilityIndex.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UsernameAvailabilityIndexTest {
+
+    @Autowired
+    private UsernameAvailabilityIndex index;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void insertUsers() {
+        // ApplicationReadyEvent da yuklangan - har test o'zi rebuild() qiladi
+        ReflectionTestUtils.setField(index, "snapshot", null);
+        insertUser("uai-Alice");
+        insertUser("uai-joe");
+        insertUser("uai-joe1");
+        insertUser("uai-abcdefghijklmnop");
+    }
+
+    @AfterEach
+    void deleteUsers() {
+        jdbcTemplate.update("DELETE FROM users WHERE username LIKE 'uai-%'");
+    }
+
+    @Test
+    void answersFromLoadedNamesIgnoringCase() {
+        index.rebuild();
+
+        assertThat(index.isTaken("UAI-alice")).isTrue();
+        assertThat(index.isTaken("uai-bob")).isFalse();
+
+        // Indeksdan keyin DB ga to'g'ridan-to'g'ri yozilgan nom qayta qurishgacha ko'rinmaydi
+        insertUser("uai-late");
+        assertThat(index.isTaken("uai-late")).isFalse();
+        index.rebuild();
+        assertThat(index.isTaken("uai-late")).isTrue();
+    }
+
+    @Test
+    void addedNamesAreTakenAndSurviveRebuild() {
+        index.rebuild();
+
+        index.add("uai-New");
+        assertThat(index.isTaken("uai-new")).isTrue();
+
+        index.rebuild();
+        assertThat(index.isTaken("UAI-NEW")).isTrue();
+    }
+
+    @Test
+    void suggestsFreeAlternativesForTakenNames() {
+        index.rebuild();
+
+        UsernameAvailabilityIndex.Availability joe = index.check("uai-joe");
+        assertThat(joe.available()).isFalse();
+        assertThat(joe.suggestions()).containsExactly("uai-joe2", "uai-joe3", "uai-joe4");
+
+        // 20 belgidan oshmasligi uchun asos qisqartiriladi
+        UsernameAvailabilityIndex.Availability longName = index.check("uai-abcdefghijklmnop");
+        assertThat(longName.suggestions()).containsExactly(
+                "uai-abcdefghijklmno1", "uai-abcdefghijklmno2", "uai-abcdefghijklmno3");
+
+        assertThat(index.check("uai-free")).isEqualTo(
+                new UsernameAvailabilityIndex.Availability(true, List.of()));
+    }
+
+    @Test
+    void fallsBackToDatabaseUntilLoaded() {
+        assertThat(index.isTaken("uai-alice")).isTrue();
+        assertThat(index.isTaken("uai-bob")).isFalse();
+    }
+
+    private void insertUser(String username) {
+        jdbcTemplate.update("INSERT INTO users (username, password, email, role, enabled, created_at, " +
+                "failed_login_attempts, security_version) VALUES (?, 'x', ?, 'USER', true, now(), 0, 0)",
+                username, username + "@example.com");
+    }
+}
@@ -0,0 +1,73 @@
+package dev.feruzlabs.springbootauth.services.audit;
+
+import dev.feruzlabs.springbootauth.dto.request.LoginRequest;
+import dev.feruzlabs.springbootauth.dto.request.RegisterRequest;
+import dev.feruzlabs.springbootauth.dto.response.JwtResponse;
+import dev.feruzlabs.springbootauth.services.AuthService;
+import dev.feruzlabs.springbootauth.services.RefreshTokenService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Auth eventlari request threadida faqat navbatga tushadi, writer ularni auth_events ga yozadi.
+ */
+@SpringBootTest(properties = {"security.password.min-cost=4", "security.password.max-cost=4"})
+class AuthAuditLogTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private AuthAuditLog authAuditLog;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String username = "audit-" + UUID.randomUUID().toString().substring(0, 6);
+
+    @AfterEach
+    void deleteUser() {
+        jdbcTemplate.update("DELETE FROM refresh_tokens WHERE user_id IN (SELECT id FROM users WHERE username = ?)", username);
+        jdbcTemplate.update("DELETE FROM users WHERE username = ?", username);
+        jdbcTemplate.update("DELETE FROM auth_events WHERE username = ?", username);
+    }
+
+    @Test
+    void authFlowIsWrittenToAuthEvents() {
+        authService.register(new RegisterRequest(username, "secret123", username + "@example.com"));
+        authService.login(new LoginRequest(username, "wrong-password", "laptop"), "10.0.0.1");
+        JwtResponse login = (JwtResponse) authService.login(new LoginRequest(username, "secret123", "laptop"), "10.0.0.1");
+        JwtResponse refreshed = refreshTokenService.refreshToken(login.getRefreshToken());
+        assertThatThrownBy(() -> refreshTokenService.refreshToken(login.getRefreshToken()));
+        refreshTokenService.revokeToken(refreshed.getRefreshToken());
+        authService.changePassword(username, "secret123", "secret456");
+
+        authAuditLog.flush(Duration.ofSeconds(10));
+
+        List<Map<String, Object>> events = jdbcTemplate.queryForList(
+                "SELECT event_type, device_id, client_ip, detail FROM auth_events WHERE username = ? ORDER BY id",
+                username);
+        assertThat(events).extracting(row -> row.get("event_type")).containsExactly(
+                "LOGIN_FAILURE", "LOGIN_SUCCESS", "REFRESH", "REVOKE", "PASSWORD_CHANGE");
+        assertThat(events.get(0)).containsEntry("detail", "bad_password").containsEntry("client_ip", "10.0.0.1");
+        assertThat(events.get(1)).containsEntry("device_id", "laptop");
+        // Topilmagan token uchun user noma'lum - username siz yoziladi
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM auth_events WHERE event_type = 'REFRESH_FAILURE' AND detail = 'not_found'",
+                Integer.class)).isPositive();
+    }
+}
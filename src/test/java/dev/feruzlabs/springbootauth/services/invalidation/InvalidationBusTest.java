@@ -0,0 +1,174 @@
+package dev.feruzlabs.springbootauth.services.invalidation;
+
+import dev.feruzlabs.springbootauth.events.AccessTokenRevokedEvent;
+import dev.feruzlabs.springbootauth.events.InvalidationResyncEvent;
+import dev.feruzlabs.springbootauth.events.UserSecurityChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ikki "node" bitta JVM ichidagi LocalInvalidationTransport orqali
+ */
+class InvalidationBusTest {
+
+    private final List<Object> eventsA = new CopyOnWriteArrayList<>();
+    private final List<Object> eventsB = new CopyOnWriteArrayList<>();
+    private InvalidationBus nodeA;
+    private InvalidationBus nodeB;
+
+    @BeforeEach
+    void setUp() {
+        nodeA = bus(eventsA);
+        nodeB = bus(eventsB);
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeA.stop();
+        nodeB.stop();
+    }
+
+    private static InvalidationBus bus(List<Object> events) {
+        return bus(events, new LocalInvalidationTransport());
+    }
+
+    private static InvalidationBus bus(List<Object> events, InvalidationTransport transport) {
+        InvalidationBus bus = new InvalidationBus();
+        ReflectionTestUtils.setField(bus, "transport", transport);
+        ReflectionTestUtils.setField(bus, "eventPublisher", (ApplicationEventPublisher) events::add);
+        ReflectionTestUtils.setField(bus, "debounce", Duration.ofMillis(20));
+        ReflectionTestUtils.setField(bus, "maxBatch", 200);
+        ReflectionTestUtils.setField(bus, "retryBackoff", Duration.ofMillis(50));
+        ReflectionTestUtils.setField(bus, "retryMaxBackoff", Duration.ofSeconds(1));
+        bus.start();
+        return bus;
+    }
+
+    @Test
+    void localChangesReachOtherNodesAsRemoteEvents() throws Exception {
+        UserSecurityChangedEvent change = new UserSecurityChangedEvent(7L, "alice|x", 3);
+        nodeA.onUserSecurityChanged(change);
+        nodeA.onAccessTokenRevoked(new AccessTokenRevokedEvent("jti-1", 123456789L, false));
+
+        awaitSize(eventsB, 2);
+
+        UserSecurityChangedEvent user = (UserSecurityChangedEvent) eventsB.get(0);
+        assertThat(user.getUserId()).isEqualTo(7L);
+        assertThat(user.getUsername()).isEqualTo("alice|x");
+        assertThat(user.getSecurityVersion()).isEqualTo(3);
+        // revoked-before chegarasi qabul qilgan node vaqti emas, o'zgarish bo'lgan node niki
+        assertThat(user.getChangedAt()).isEqualTo(change.getChangedAt().truncatedTo(ChronoUnit.MILLIS));
+        assertThat(user.isRemote()).isTrue();
+        AccessTokenRevokedEvent token = (AccessTokenRevokedEvent) eventsB.get(1);
+        assertThat(token.getTokenId()).isEqualTo("jti-1");
+        assertThat(token.getExpiresAt()).isEqualTo(123456789L);
+        assertThat(token.isRemote()).isTrue();
+        // O'z xabarini qayta olmaydi
+        assertThat(eventsA).isEmpty();
+    }
+
+    @Test
+    void remoteEventsAreNotForwardedAgain() throws Exception {
+        nodeB.onUserSecurityChanged(new UserSecurityChangedEvent(7L, "alice", 3, Instant.now(), true));
+        nodeA.onUserSecurityChanged(new UserSecurityChangedEvent(8L, "bob", 1));
+
+        awaitSize(eventsB, 1);
+        Thread.sleep(100);
+
+        assertThat(eventsA).isEmpty();
+        assertThat(eventsB).hasSize(1);
+    }
+
+    @Test
+    void changesWithinDebounceWindowAreCoalesced() throws Exception {
+        for (int version = 1; version <= 50; version++) {
+            nodeA.onUserSecurityChanged(new UserSecurityChangedEvent(7L, "alice", version));
+        }
+
+        awaitSize(eventsB, 1);
+        Thread.sleep(100);
+
+        assertThat(eventsB).hasSize(1);
+        assertThat(((UserSecurityChangedEvent) eventsB.get(0)).getSecurityVersion()).isEqualTo(50);
+    }
+
+    @Test
+    void largeBatchesAreSplitIntoSeveralMessages() throws Exception {
+        String longName = "u".repeat(90);
+        for (long userId = 1; userId <= 150; userId++) {
+            nodeA.onUserSecurityChanged(new UserSecurityChangedEvent(userId, longName + userId, 1));
+        }
+
+        awaitSize(eventsB, 150);
+
+        assertThat(eventsB).extracting(event -> ((UserSecurityChangedEvent) event).getUserId())
+                .doesNotHaveDuplicates();
+    }
+
+    @Test
+    void failedSendIsRetriedAndNewerChangeWins() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        // Birinchi yuborish uziladi, keyingilari odatdagi local kanal orqali
+        InvalidationBus flaky = bus(new CopyOnWriteArrayList<>(), new LocalInvalidationTransport() {
+            @Override
+            public void send(String payload) {
+                if (attempts.incrementAndGet() == 1) {
+                    throw new IllegalStateException("connection reset");
+                }
+                super.send(payload);
+            }
+        });
+        try {
+            flaky.onUserSecurityChanged(new UserSecurityChangedEvent(7L, "alice", 1));
+            flaky.onAccessTokenRevoked(new AccessTokenRevokedEvent("jti-1", 123456789L, false));
+            while (attempts.get() == 0) {
+                Thread.sleep(5);
+            }
+            // Qayta urinishdan oldin kelgan yangiroq versiya eskisini almashtiradi
+            flaky.onUserSecurityChanged(new UserSecurityChangedEvent(7L, "alice", 2));
+
+            awaitSize(eventsB, 2);
+            Thread.sleep(100);
+
+            assertThat(eventsB).hasSize(2);
+            assertThat(eventsB).filteredOn(UserSecurityChangedEvent.class::isInstance)
+                    .singleElement()
+                    .extracting(event -> ((UserSecurityChangedEvent) event).getSecurityVersion())
+                    .isEqualTo(2);
+            assertThat(eventsB).filteredOn(AccessTokenRevokedEvent.class::isInstance)
+                    .singleElement()
+                    .extracting(event -> ((AccessTokenRevokedEvent) event).getTokenId())
+                    .isEqualTo("jti-1");
+            assertThat(attempts.get()).isGreaterThanOrEqualTo(2);
+        } finally {
+            flaky.stop();
+        }
+    }
+
+    @Test
+    void reconnectRequestsResync() {
+        nodeA.onReconnect();
+
+        assertThat(eventsA).singleElement().isInstanceOf(InvalidationResyncEvent.class);
+    }
+
+    private static void awaitSize(List<Object> events, int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (events.size() < size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(events).hasSize(size);
+    }
+}
@@ -0,0 +1,21 @@
+package dev.feruzlabs.springbootauth.services.refreshToken;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryRefreshTokenStoreTest extends RefreshTokenStoreContractTest {
+
+    @Override
+    protected RefreshTokenStore createStore() {
+        return new InMemoryRefreshTokenStore();
+    }
+
+    @Test
+    void purgeRemovesExpiredSessions() {
+        RefreshSession expired = insert(newUser(), "old", now.minusMinutes(5));
+
+        assertThat(store.purgeExpired(now)).isEqualTo(1);
+        assertThat(store.findByTokenHash(expired.tokenHash())).isEmpty();
+    }
+}
@@ -0,0 +1,100 @@
+package dev.feruzlabs.springbootauth.services.refreshToken;
+
+import dev.feruzlabs.springbootauth.entities.User;
+import dev.feruzlabs.springbootauth.enums.Role;
+import dev.feruzlabs.springbootauth.repositories.UserRepository;
+import dev.feruzlabs.springbootauth.services.RefreshTokenRetention;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sozlangan PostgreSQL ustida (partitionlangan jadval bilan). Store ning har bir chaqiruvi
+ * o'z tranzaksiyasida - parallel rotation haqiqiy qator lock lari bilan tekshiriladi.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({JpaRefreshTokenStore.class, RefreshTokenRetention.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JpaRefreshTokenStoreTest extends RefreshTokenStoreContractTest {
+
+    @Autowired
+    private JpaRefreshTokenStore jpaRefreshTokenStore;
+
+    @Autowired
+    private RefreshTokenRetention refreshTokenRetention;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<User> users = new ArrayList<>();
+
+    @Override
+    protected RefreshTokenStore createStore() {
+        refreshTokenRetention.ensurePartitions();
+        return jpaRefreshTokenStore;
+    }
+
+    @Override
+    protected <T> T inTransaction(Supplier<T> action) {
+        return new TransactionTemplate(transactionManager).execute(status -> action.get());
+    }
+
+    @Override
+    protected User newUser() {
+        String name = "rt-" + UUID.randomUUID().toString().substring(0, 8);
+        User user = new User();
+        user.setUsername(name);
+        user.setPassword("{noop}secret");
+        user.setEmail(name + "@example.com");
+        user.setRole(Role.USER);
+        user.setCreatedAt(LocalDateTime.now());
+        user.setSecurityVersion(3);
+        User saved = userRepository.save(user);
+        users.add(saved);
+        return saved;
+    }
+
+    @Test
+    void fullyExpiredWeekPartitionIsDropped() {
+        // Jadval bilan bir vaqtda yaratilmagan o'tmish haftasi (dushanba) - ichida bitta eskirgan token
+        LocalDate weekStart = LocalDate.of(2020, 1, 6);
+        String partition = "refresh_tokens_p20200106";
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF refresh_tokens FOR VALUES FROM ('"
+                + weekStart + "') TO ('" + weekStart.plusWeeks(1) + "')");
+        insert(newUser(), "old", weekStart.atTime(12, 0));
+        jdbcTemplate.execute("ANALYZE " + partition);
+
+        assertThat(store.purgeExpired(now)).isGreaterThanOrEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NULL", Boolean.class, partition)).isTrue();
+    }
+
+    @AfterEach
+    void deleteUsers() {
+        users.forEach(user -> jpaRefreshTokenStore.deleteByUser(user.getId()));
+        userRepository.deleteAll(users);
+    }
+}
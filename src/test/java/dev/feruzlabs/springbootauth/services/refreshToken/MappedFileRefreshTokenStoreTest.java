@@ -0,0 +1,159 @@
+package dev.feruzlabs.springbootauth.services.refreshToken;
+
+import dev.feruzlabs.springbootauth.entities.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MappedFileRefreshTokenStoreTest extends RefreshTokenStoreContractTest {
+
+    @TempDir
+    Path directory;
+
+    private final List<MappedFileRefreshTokenStore> opened = new ArrayList<>();
+
+    @Override
+    protected RefreshTokenStore createStore() {
+        return open(DataSize.ofMegabytes(4));
+    }
+
+    private MappedFileRefreshTokenStore open(DataSize maxSize) {
+        MappedFileRefreshTokenStore store = new MappedFileRefreshTokenStore();
+        ReflectionTestUtils.setField(store, "path", directory.resolve("refresh-sessions.log"));
+        ReflectionTestUtils.setField(store, "maxSize", maxSize);
+        ReflectionTestUtils.setField(store, "sync", false);
+        store.open();
+        opened.add(store);
+        return store;
+    }
+
+    @AfterEach
+    void closeStores() {
+        opened.forEach(MappedFileRefreshTokenStore::close);
+    }
+
+    @Test
+    void sessionsSurviveReopen() {
+        User user = newUser();
+        RefreshSession rotated = insert(user, "phone", now.plusDays(7));
+        RefreshSession deleted = insert(user, "laptop", now.plusDays(7));
+        RefreshSession revoked = insert(user, "tablet", now.plusDays(7));
+        byte[] newHash = newHash();
+        store.rotate(rotated, newHash, now.plusDays(8));
+        store.delete(List.of(deleted));
+        store.revoke(revoked);
+        ((MappedFileRefreshTokenStore) store).close();
+
+        RefreshTokenStore reopened = open(DataSize.ofMegabytes(4));
+
+        assertThat(reopened.findByTokenHash(rotated.tokenHash())).isEmpty();
+        RefreshSession found = reopened.findByTokenHash(newHash).orElseThrow();
+        assertThat(found.expiryDate()).isEqualTo(now.plusDays(8));
+        assertThat(found.createdAt()).isEqualTo(rotated.createdAt());
+        assertThat(reopened.findByTokenHash(deleted.tokenHash())).isEmpty();
+        assertThat(reopened.findByTokenHash(revoked.tokenHash()).orElseThrow().revoked()).isTrue();
+        // O'chirilgan sessiyaning id si qayta berilmaydi
+        assertThat(reopened.insert(RefreshSession.issue(user, "tv", newHash(), now.plusDays(7))).id())
+                .isGreaterThan(revoked.id());
+    }
+
+    @Test
+    void tornRecordIsIgnoredOnReopen() throws Exception {
+        User user = newUser();
+        RefreshSession kept = insert(user, "phone", now.plusDays(7));
+        RefreshSession torn = insert(user, "laptop", now.plusDays(7));
+        ((MappedFileRefreshTokenStore) store).close();
+
+        // Oxirgi yozuvning o'rtasini buzish - CRC mos kelmaydi
+        try (FileChannel channel = FileChannel.open(directory.resolve("refresh-sessions.log"), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{42, 42, 42, 42}),
+                    2L * MappedFileRefreshTokenStore.RECORD_SIZE + 100);
+        }
+
+        RefreshTokenStore reopened = open(DataSize.ofMegabytes(4));
+
+        assertThat(reopened.findByTokenHash(kept.tokenHash())).isPresent();
+        assertThat(reopened.findByTokenHash(torn.tokenHash())).isEmpty();
+    }
+
+    @Test
+    void fullLogIsCompacted() {
+        ((MappedFileRefreshTokenStore) store).close();
+        // 32 yozuv sig'adi; 200 ta rotation compaction siz sig'maydi
+        RefreshTokenStore small = open(DataSize.ofBytes(32L * MappedFileRefreshTokenStore.RECORD_SIZE));
+        User user = newUser();
+        RefreshSession session = small.insert(RefreshSession.issue(user, "phone", newHash(), now.plusDays(7)));
+
+        for (int i = 1; i <= 200; i++) {
+            byte[] hash = newHash();
+            assertThat(small.rotate(session, hash, now.plusDays(7).plusSeconds(i))).isTrue();
+            session = small.findByTokenHash(hash).orElseThrow();
+        }
+
+        assertThat(small.findActiveSessions(user.getId(), now)).extracting(RefreshSession::id)
+                .containsExactly(session.id());
+    }
+
+    @Test
+    void deleteOnFullLogRemovesSessionAfterCompaction() {
+        MappedFileRefreshTokenStore small = fullLog();
+        User user = newUser();
+        RefreshSession kept = small.insert(RefreshSession.issue(user, "phone", newHash(), now.plusDays(7)));
+        RefreshSession deleted = moved(small, small.insert(
+                RefreshSession.issue(user, "laptop", newHash(), now.plusDays(7))));
+        fill(small, kept);
+
+        // DELETE yozuvi compaction ni boshlaydi
+        small.delete(List.of(deleted));
+
+        assertThat(small.findByTokenHash(deleted.tokenHash())).isEmpty();
+        assertThat(small.findActiveSessions(user.getId(), now)).hasSize(1);
+    }
+
+    @Test
+    void purgeOnFullLogRemovesSessionsAfterCompaction() {
+        MappedFileRefreshTokenStore small = fullLog();
+        User user = newUser();
+        RefreshSession kept = small.insert(RefreshSession.issue(user, "phone", newHash(), now.plusDays(7)));
+        RefreshSession expired = moved(small, small.insert(
+                RefreshSession.issue(user, "laptop", newHash(), now.minusMinutes(1))));
+        fill(small, kept);
+
+        assertThat(small.purgeExpired(now)).isEqualTo(1);
+
+        assertThat(small.findByTokenHash(expired.tokenHash())).isEmpty();
+        assertThat(small.countActive(user.getId(), now)).isEqualTo(1);
+    }
+
+    private MappedFileRefreshTokenStore fullLog() {
+        ((MappedFileRefreshTokenStore) store).close();
+        return open(DataSize.ofBytes(32L * MappedFileRefreshTokenStore.RECORD_SIZE));
+    }
+
+    // Bir marta rotation: compaction dan keyin sessiya boshqa offset ga tushadi
+    private RefreshSession moved(MappedFileRefreshTokenStore small, RefreshSession session) {
+        byte[] hash = newHash();
+        assertThat(small.rotate(session, hash, session.expiryDate())).isTrue();
+        return small.findByTokenHash(hash).orElseThrow();
+    }
+
+    // Sarlavha + 3 ta yozuvdan keyin qolgan 28 tasini rotation bilan to'ldiradi
+    private void fill(MappedFileRefreshTokenStore small, RefreshSession session) {
+        for (int i = 1; i <= 28; i++) {
+            byte[] hash = newHash();
+            assertThat(small.rotate(session, hash, now.plusDays(7))).isTrue();
+            session = small.findByTokenHash(hash).orElseThrow();
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package dev.feruzlabs.springbootauth.services.refreshToken;
+
+import dev.feruzlabs.springbootauth.entities.User;
+import dev.feruzlabs.springbootauth.enums.Role;
+import dev.feruzlabs.springbootauth.services.ActiveSessionCounter;
+import dev.feruzlabs.springbootauth.services.RefreshTokenService;
+import dev.feruzlabs.springbootauth.utils.HashUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Har bir RefreshTokenStore implementatsiyasi o'tishi shart bo'lgan umumiy testlar
+ */
+abstract class RefreshTokenStoreContractTest {
+
+    private static final AtomicLong USER_IDS = new AtomicLong(1_000_000);
+
+    protected RefreshTokenStore store;
+    protected LocalDateTime now;
+
+    protected abstract RefreshTokenStore createStore() throws Exception;
+
+    // Store user ni saqlashni talab qilsa (JPA) override qilinadi
+    protected User newUser() {
+        long id = USER_IDS.incrementAndGet();
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user" + id);
+        user.setEmail("user" + id + "@example.com");
+        user.setRole(Role.USER);
+        user.setSecurityVersion(3);
+        return user;
+    }
+
+    // Service proxy siz chaqiriladi; JPA store lock i commit gacha turishi uchun tranzaksiya ochadi
+    protected <T> T inTransaction(Supplier<T> action) {
+        return action.get();
+    }
+
+    @BeforeEach
+    void setUpStore() throws Exception {
+        // Barcha store lar kamida millisekund aniqligida saqlaydi
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        store = createStore();
+    }
+
+    protected RefreshSession insert(User user, String deviceId, LocalDateTime expiryDate) {
+        return store.insert(RefreshSession.issue(user, deviceId, newHash(), expiryDate));
+    }
+
+    protected static byte[] newHash() {
+        return HashUtils.sha256(UUID.randomUUID().toString());
+    }
+
+    @Test
+    void insertAssignsIdAndIsFoundByHash() {
+        User user = newUser();
+        RefreshSession session = insert(user, "phone", now.plusDays(7));
+
+        assertThat(session.id()).isNotNull();
+        RefreshSession found = store.findByTokenHash(session.tokenHash()).orElseThrow();
+        assertThat(found.id()).isEqualTo(session.id());
+        assertThat(found.tokenHash()).isEqualTo(session.tokenHash());
+        assertThat(found.userId()).isEqualTo(user.getId());
+        assertThat(found.username()).isEqualTo(user.getUsername());
+        assertThat(found.email()).isEqualTo(user.getEmail());
+        assertThat(found.role()).isEqualTo(user.getRole());
+        assertThat(found.securityVersion()).isEqualTo(user.getSecurityVersion());
+        assertThat(found.deviceId()).isEqualTo("phone");
+        assertThat(found.expiryDate()).isEqualTo(now.plusDays(7));
+        assertThat(found.revoked()).isFalse();
+    }
+
+    @Test
+    void unknownHashIsNotFound() {
+        insert(newUser(), "phone", now.plusDays(7));
+
+        assertThat(store.findByTokenHash(newHash())).isEmpty();
+    }
+
+    @Test
+    void rotateReplacesHashOnlyOnce() {
+        RefreshSession session = insert(newUser(), "phone", now.plusDays(7));
+        byte[] first = newHash();
+        byte[] second = newHash();
+
+        assertThat(store.rotate(session, first, now.plusDays(8))).isTrue();
+        // Eski hash bilan qayta rotation (replay) - rad etiladi
+        assertThat(store.rotate(session, second, now.plusDays(9))).isFalse();
+
+        assertThat(store.findByTokenHash(session.tokenHash())).isEmpty();
+        assertThat(store.findByTokenHash(second)).isEmpty();
+        RefreshSession rotated = store.findByTokenHash(first).orElseThrow();
+        assertThat(rotated.id()).isEqualTo(session.id());
+        assertThat(rotated.expiryDate()).isEqualTo(now.plusDays(8));
+    }
+
+    @Test
+    void rotateOfRevokedSessionFails() {
+        RefreshSession session = insert(newUser(), "phone", now.plusDays(7));
+        assertThat(store.revoke(session)).isTrue();
+
+        assertThat(store.rotate(session, newHash(), now.plusDays(8))).isFalse();
+        assertThat(store.findByTokenHash(session.tokenHash()).orElseThrow().revoked()).isTrue();
+    }
+
+    @Test
+    void concurrentRotationHasSingleWinner() throws Exception {
+        RefreshSession session = insert(newUser(), "phone", now.plusDays(7));
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger winners = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                int attempt = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        if (store.rotate(session, newHash(), now.plusDays(8).plusSeconds(attempt))) {
+                            winners.incrementAndGet();
+                        }
+                    } catch (ConcurrencyFailureException e) {
+                        // Yutqazgan - false bilan bir xil
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(winners.get()).isEqualTo(1);
+    }
+
+    @Test
+    void reissueReplacesSessionOfDevice() {
+        User user = newUser();
+        RefreshSession session = insert(user, "phone", now.plusDays(7));
+        store.revoke(session);
+        RefreshSession revoked = store.findByDevice(user.getId(), "phone").orElseThrow();
+        RefreshSession next = RefreshSession.issue(user, "phone", newHash(), now.plusDays(10));
+
+        assertThat(store.reissue(revoked, next)).isTrue();
+        // Eskirgan expiryDate bilan - parallel yangilanish deb hisoblanadi
+        assertThat(store.reissue(revoked, RefreshSession.issue(user, "phone", newHash(), now.plusDays(11)))).isFalse();
+
+        RefreshSession found = store.findByDevice(user.getId(), "phone").orElseThrow();
+        assertThat(found.id()).isEqualTo(session.id());
+        assertThat(found.tokenHash()).isEqualTo(next.tokenHash());
+        assertThat(found.expiryDate()).isEqualTo(now.plusDays(10));
+        assertThat(found.revoked()).isFalse();
+        assertThat(store.findByTokenHash(session.tokenHash())).isEmpty();
+    }
+
+    @Test
+    void concurrentFirstLoginsFromOneDeviceKeepOneSession() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ActiveSessionCounter counter = new ActiveSessionCounter();
+        ReflectionTestUtils.setField(counter, "refreshTokenStore", store);
+        ReflectionTestUtils.setField(counter, "meterRegistry", meterRegistry);
+        RefreshTokenService service = new RefreshTokenService();
+        ReflectionTestUtils.setField(service, "refreshTokenStore", store);
+        ReflectionTestUtils.setField(service, "activeSessionCounter", counter);
+        ReflectionTestUtils.setField(service, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(service, "maxSessionsPerUser", 5);
+
+        User user = newUser();
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return inTransaction(() -> service.createRefreshToken(user, "phone"));
+                }));
+            }
+            start.countDown();
+            for (Future<String> future : futures) {
+                assertThat(future.get(30, TimeUnit.SECONDS)).isNotBlank();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(store.findActiveSessions(user.getId(), LocalDateTime.now()))
+                .extracting(RefreshSession::deviceId).containsExactly("phone");
+    }
+
+    @Test
+    void activeSessionsAreOrderedByExpiryAndCounted() {
+        User user = newUser();
+        RefreshSession older = insert(user, "laptop", now.plusDays(2));
+        RefreshSession newer = insert(user, "phone", now.plusDays(5));
+        RefreshSession revoked = insert(user, "tablet", now.plusDays(6));
+        store.revoke(revoked);
+        insert(user, "tv", now.minusMinutes(1));
+        insert(newUser(), "phone", now.plusDays(3));
+
+        List<RefreshSession> active = store.findActiveSessions(user.getId(), now);
+
+        assertThat(active).extracting(RefreshSession::id).containsExactly(newer.id(), older.id());
+        assertThat(store.countActive(user.getId(), now)).isEqualTo(2);
+    }
+
+    @Test
+    void findByDeviceIsScopedToUser() {
+        User user = newUser();
+        User other = newUser();
+        RefreshSession phone = insert(user, "phone", now.plusDays(7));
+        insert(other, "phone", now.plusDays(7));
+
+        assertThat(store.findByDevice(user.getId(), "phone")).map(RefreshSession::id).contains(phone.id());
+        assertThat(store.findByDevice(user.getId(), "laptop")).isEmpty();
+    }
+
+    @Test
+    void multiByteDeviceIdUpToSixtyFourBytesRoundTrips() {
+        User user = newUser();
+        // 32 kirill harfi = 64 bayt, emoji - 4 baytli (surrogate juftlik)
+        String cyrillic = "т".repeat(32);
+        String emoji = "телефон-\uD83D\uDCF1";
+        RefreshSession first = insert(user, cyrillic, now.plusDays(7));
+        RefreshSession second = insert(user, emoji, now.plusDays(7));
+
+        assertThat(store.findByTokenHash(first.tokenHash()).orElseThrow().deviceId()).isEqualTo(cyrillic);
+        assertThat(store.findByDevice(user.getId(), cyrillic)).map(RefreshSession::id).contains(first.id());
+        assertThat(store.findByDevice(user.getId(), emoji)).map(RefreshSession::id).contains(second.id());
+    }
+
+    @Test
+    void deleteByDeviceKeepsOtherDevices() {
+        User user = newUser();
+        RefreshSession phone = insert(user, "phone", now.plusDays(7));
+        RefreshSession laptop = insert(user, "laptop", now.plusDays(7));
+
+        store.deleteByDevice(user.getId(), "phone");
+
+        assertThat(store.findByTokenHash(phone.tokenHash())).isEmpty();
+        assertThat(store.findByTokenHash(laptop.tokenHash())).isPresent();
+    }
+
+    @Test
+    void revokeAllAndDeleteAreScopedToUser() {
+        User user = newUser();
+        User other = newUser();
+        insert(user, "phone", now.plusDays(7));
+        insert(user, "laptop", now.plusDays(7));
+        RefreshSession otherSession = insert(other, "phone", now.plusDays(7));
+
+        store.revokeAllByUser(user.getId());
+        assertThat(store.countActive(user.getId(), now)).isZero();
+        assertThat(store.countActive(other.getId(), now)).isEqualTo(1);
+
+        store.deleteByUser(user.getId());
+        assertThat(store.findByDevice(user.getId(), "phone")).isEmpty();
+        assertThat(store.findByDevice(user.getId(), "laptop")).isEmpty();
+
+        store.delete(List.of(otherSession));
+        assertThat(store.findByTokenHash(otherSession.tokenHash())).isEmpty();
+    }
+
+    @Test
+    void activeSessionsAreGroupedByExpiryMinute() {
+        User user = newUser();
+        LocalDateTime minute = now.plusDays(1).truncatedTo(ChronoUnit.MINUTES);
+        insert(user, "a", minute.plusSeconds(5));
+        insert(user, "b", minute.plusSeconds(50));
+        insert(user, "c", minute.plusMinutes(1));
+        store.revoke(insert(user, "d", minute.plusSeconds(10)));
+
+        Map<LocalDateTime, Long> counts = store.countActiveByExpiryMinute(now);
+
+        assertThat(counts).containsEntry(minute, 2L).containsEntry(minute.plusMinutes(1), 1L);
+    }
+
+    @Test
+    void purgeKeepsActiveSessions() {
+        User user = newUser();
+        RefreshSession expired = insert(user, "old", now.minusMinutes(5));
+        RefreshSession active = insert(user, "phone", now.plusDays(7));
+
+        store.purgeExpired(now);
+
+        // Partitionlangan jadval faqat to'liq eskirgan haftalarni o'chiradi - qolganlari baribir aktiv emas
+        assertThat(store.findByTokenHash(expired.tokenHash()).filter(session -> session.isActive(now))).isEmpty();
+        assertThat(store.findByTokenHash(active.tokenHash())).isPresent();
+    }
+}
@@ -0,0 +1,58 @@
+package dev.feruzlabs.springbootauth.services.userManager;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserCursorTest {
+
+    @Test
+    void cursorRoundTripsSortValueAndId() {
+        LocalDateTime createdAt = LocalDateTime.of(2026, 3, 1, 10, 15, 30, 123456000);
+        String cursor = UserCursor.encode("createdAt", Sort.Direction.DESC, 42L, createdAt);
+
+        UserCursor.Position position = UserCursor.decode(cursor, "createdAt", Sort.Direction.DESC);
+        assertThat(position.value()).isEqualTo(createdAt);
+        assertThat(position.id()).isEqualTo(42L);
+
+        // '|' qiymat ichida bo'lsa ham oxirgi maydon sifatida butun qoladi
+        String byName = UserCursor.encode("username", Sort.Direction.ASC, 7L, "a|b");
+        assertThat(UserCursor.decode(byName, "username", Sort.Direction.ASC))
+                .isEqualTo(new UserCursor.Position("a|b", 7L));
+
+        String byId = UserCursor.encode("id", Sort.Direction.ASC, 9L, 9L);
+        assertThat(UserCursor.decode(byId, "id", Sort.Direction.ASC)).isEqualTo(new UserCursor.Position(null, 9L));
+        assertThat(UserCursor.decode(null, "id", Sort.Direction.ASC)).isNull();
+    }
+
+    @Test
+    void cursorIsBoundToItsSort() {
+        String cursor = UserCursor.encode("username", Sort.Direction.ASC, 7L, "alice");
+
+        assertThatThrownBy(() -> UserCursor.decode(cursor, "email", Sort.Direction.ASC))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cursor boshqa saralash uchun berilgan");
+        assertThatThrownBy(() -> UserCursor.decode(cursor, "username", Sort.Direction.DESC))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cursor boshqa saralash uchun berilgan");
+    }
+
+    @Test
+    void malformedCursorsAndColumnsAreRejected() {
+        String badId = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("v1|username|ASC|x|alice".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> UserCursor.decode("%%%", "id", Sort.Direction.ASC))
+                .hasMessage("Cursor noto'g'ri");
+        assertThatThrownBy(() -> UserCursor.decode(badId, "username", Sort.Direction.ASC))
+                .hasMessage("Cursor noto'g'ri");
+        assertThatThrownBy(() -> UserCursor.checkSortable("password"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
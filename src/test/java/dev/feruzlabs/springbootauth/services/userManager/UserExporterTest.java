@@ -0,0 +1,114 @@
+package dev.feruzlabs.springbootauth.services.userManager;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.feruzlabs.springbootauth.controllers.UserController;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Sozlangan PostgreSQL ustida, haqiqiy JDBC cursor bilan. Jadvalda boshqa userlar ham bor -
+ * tekshiruvlar faqat exp- bilan boshlanuvchilarga qaraydi.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import(UserExporter.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserExporterTest {
+
+    @Autowired
+    private UserExporter userExporter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void insertUsers() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new UserController(null, userExporter, null)).build();
+        insert("exp-ann", "Ann \"A\"", "Lee,\nJr.");
+        insert("exp-bob", "=HYPERLINK(\"http://x\")", "@cmd");
+    }
+
+    @AfterEach
+    void deleteUsers() {
+        jdbcTemplate.update("DELETE FROM users WHERE username LIKE 'exp-%'");
+    }
+
+    private void insert(String username, String firstName, String lastName) {
+        jdbcTemplate.update("INSERT INTO users (username, email, password, first_name, last_name, role, enabled, " +
+                        "created_at) VALUES (?, ?, '{noop}x', ?, ?, 'USER', true, TIMESTAMP '2024-01-02 03:04:05')",
+                username, username + "@example.com", firstName, lastName);
+    }
+
+    @Test
+    void ndjsonHasOneObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = userExporter.export(UserFileFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize((int) rows);
+        List<JsonNode> exported = new ArrayList<>();
+        for (String line : lines) {
+            JsonNode node = objectMapper.readTree(line);
+            if (node.get("username").asText().startsWith("exp-")) {
+                exported.add(node);
+            }
+        }
+        assertThat(exported).extracting(node -> node.get("username").asText()).containsExactly("exp-ann", "exp-bob");
+        JsonNode ann = exported.get(0);
+        assertThat(ann.get("firstName").asText()).isEqualTo("Ann \"A\"");
+        assertThat(ann.get("lastName").asText()).isEqualTo("Lee,\nJr.");
+        assertThat(ann.get("role").asText()).isEqualTo("USER");
+        assertThat(ann.has("password")).isFalse();
+    }
+
+    @Test
+    void gzipCsvResponseQuotesFieldsAndNeutralizesFormulas() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/users/export").param("format", "csv").param("gzip", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"users.csv\""))
+                .andReturn();
+
+        String csv;
+        try (GZIPInputStream in = new GZIPInputStream(
+                new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        assertThat(csv).startsWith("id,username,email,firstName,lastName,role,enabled,createdAt,lastLoginAt\n");
+        assertThat(csv).contains(",exp-ann,exp-ann@example.com,\"Ann \"\"A\"\"\",\"Lee,\nJr.\",USER,true,2024-01-02T03:04:05,\n");
+        assertThat(csv).contains(",exp-bob,exp-bob@example.com,\"'=HYPERLINK(\"\"http://x\"\")\",'@cmd,USER,true,");
+    }
+}
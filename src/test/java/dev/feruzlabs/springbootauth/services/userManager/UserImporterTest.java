@@ -0,0 +1,157 @@
+package dev.feruzlabs.springbootauth.services.userManager;
+
+import dev.feruzlabs.springbootauth.dto.response.UserImportResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Sozlangan PostgreSQL ustida: users_id_seq bloklari va unique index lar haqiqiy.
+ * Importer bo'laklarni o'zi commit qiladi, shuning uchun test tranzaksiyasi yo'q - yozuvlar @AfterEach da o'chiriladi.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+@Import({UserImporter.class, UserImporterTest.Config.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserImporterTest {
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        PasswordEncoder passwordEncoder() {
+            return new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", new BCryptPasswordEncoder(4)));
+        }
+    }
+
+    @Autowired
+    private UserImporter userImporter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @AfterEach
+    void deleteImported() {
+        jdbcTemplate.update("DELETE FROM users WHERE username LIKE 'imp-%'");
+    }
+
+    @Test
+    void csvImportsValidRowsAndReportsEachBadOne() throws Exception {
+        String csv = """
+                username,email,password,firstName,lastName,role
+                imp-ann,imp-ann@example.com,secret123,Ann,"Lee, Jr.",
+                imp-bob,not-an-email,secret123,Bob,,
+                imp-ann,imp-other@example.com,secret123,,,
+                imp-eve,imp-eve@example.com,secret123,,,ADMIN
+                admin,imp-admin@example.com,secret123,,,
+                imp-joe,imp-joe@example.com,,,,
+                """;
+
+        UserImportResult result = importCsv(csv, false);
+
+        assertThat(result.getTotal()).isEqualTo(6);
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(5);
+        assertThat(result.getErrors())
+                .extracting(UserImportResult.RowError::getLine, UserImportResult.RowError::getMessage)
+                .containsExactlyInAnyOrder(
+                        tuple(3L, "Email formati noto'g'ri"),
+                        tuple(5L, "ADMIN rolini berish uchun admin:write huquqi kerak"),
+                        tuple(7L, "Parol bo'sh bo'lishi mumkin emas"),
+                        tuple(4L, "Username faylda takrorlangan"),
+                        tuple(6L, "Username allaqachon mavjud!"));
+
+        Map<String, Object> ann = jdbcTemplate.queryForMap(
+                "SELECT password, last_name, role, enabled FROM users WHERE username = 'imp-ann'");
+        assertThat(ann.get("last_name")).isEqualTo("Lee, Jr.");
+        assertThat(ann.get("role")).isEqualTo("USER");
+        assertThat(ann.get("enabled")).isEqualTo(true);
+        assertThat(passwordEncoder.matches("secret123", (String) ann.get("password"))).isTrue();
+    }
+
+    @Test
+    void ndjsonKeepsPrecomputedHashesAndSkipsMalformedLines() throws Exception {
+        String hash = new BCryptPasswordEncoder(4).encode("secret123");
+        String ndjson = "{\"username\":\"imp-kim\",\"email\":\"imp-kim@example.com\",\"passwordHash\":\"" + hash + "\"," +
+                "\"role\":\"manager\",\"enabled\":false}\n" +
+                "\n" +
+                "{\"username\":\"imp-lee\",\n" +
+                "{\"username\":\"imp-max\",\"email\":\"imp-max@example.com\",\"passwordHash\":\"plain\"}\n";
+
+        UserImportResult result = userImporter.importUsers(UserFileFormat.NDJSON,
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), true);
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(UserImportResult.RowError::getLine).containsExactly(3L, 4L);
+        assertThat(result.getErrors().get(0).getMessage()).startsWith("JSON formati noto'g'ri");
+        assertThat(result.getErrors().get(1).getMessage()).isEqualTo("passwordHash BCrypt formatida emas");
+
+        Map<String, Object> kim = jdbcTemplate.queryForMap(
+                "SELECT password, role, enabled FROM users WHERE username = 'imp-kim'");
+        assertThat(kim.get("password")).isEqualTo("{bcrypt}" + hash);
+        assertThat(kim.get("role")).isEqualTo("MANAGER");
+        assertThat(kim.get("enabled")).isEqualTo(false);
+    }
+
+    @Test
+    void chunksUsePooledIdBlocksAndCatchDuplicatesFromEarlierChunks() throws Exception {
+        ReflectionTestUtils.setField(userImporter, "batchSize", 2);
+        try {
+            String csv = """
+                    username,email,password
+                    imp-a1,imp-a1@example.com,secret123
+                    imp-a2,imp-a2@example.com,secret123
+                    imp-a3,imp-a1@example.com,secret123
+                    imp-a4,imp-a4@example.com,secret123
+                    imp-a5,imp-a5@example.com,secret123
+                    """;
+
+            UserImportResult result = importCsv(csv, false);
+
+            assertThat(result.getImported()).isEqualTo(4);
+            assertThat(result.getErrors())
+                    .extracting(UserImportResult.RowError::getLine, UserImportResult.RowError::getMessage)
+                    .containsExactly(tuple(4L, "Email allaqachon ro'yxatdan o'tgan!"));
+
+            // Bo'lak bitta nextval() bloki ichida - ketma-ket id lar; keyingi bo'laklar yangi blokdan
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "SELECT id FROM users WHERE username LIKE 'imp-a%' ORDER BY username", Long.class);
+            assertThat(ids.get(1)).isEqualTo(ids.get(0) + 1);
+            assertThat(ids.get(2)).isGreaterThan(ids.get(1));
+            assertThat(ids.get(3)).isGreaterThan(ids.get(2));
+        } finally {
+            ReflectionTestUtils.setField(userImporter, "batchSize", 1000);
+        }
+    }
+
+    private UserImportResult importCsv(String csv, boolean allowPrivilegedRoles) throws Exception {
+        return userImporter.importUsers(UserFileFormat.CSV,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), allowPrivilegedRoles);
+    }
+}
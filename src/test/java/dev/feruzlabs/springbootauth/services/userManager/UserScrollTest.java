@@ -0,0 +1,98 @@
+package dev.feruzlabs.springbootauth.services.userManager;
+
+import dev.feruzlabs.springbootauth.dto.response.CursorPage;
+import dev.feruzlabs.springbootauth.dto.response.UserResponse;
+import dev.feruzlabs.springbootauth.entities.User;
+import dev.feruzlabs.springbootauth.enums.Role;
+import dev.feruzlabs.springbootauth.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sozlangan PostgreSQL ustida row-value seek. Test userlari boshqa barcha qatorlardan keyin
+ * (created_at 2999-yil) - cursor ularning oldidan boshlanadi, sahifalar faqat ularni ko'radi.
+ * Test tranzaksiyasi oxirida rollback.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class UserScrollTest {
+
+    private static final LocalDateTime FUTURE = LocalDateTime.of(2999, 1, 1, 0, 0);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private UserManagementServiceImpl service;
+
+    private final String prefix = "scroll-" + UUID.randomUUID().toString().substring(0, 6);
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void createUsers() {
+        service = new UserManagementServiceImpl(userRepository, null, null, null);
+        for (int i = 0; i < 4; i++) {
+            User user = new User();
+            user.setUsername(prefix + "-" + i);
+            user.setPassword("{noop}secret");
+            user.setEmail(prefix + "-" + i + "@example.com");
+            user.setRole(Role.USER);
+            // Ikkitadan bir xil created_at - tie-break id bo'yicha
+            user.setCreatedAt(FUTURE.plusDays(i / 2));
+            ids.add(userRepository.save(user).getId());
+        }
+        userRepository.flush();
+    }
+
+    @Test
+    void lastFullPageHasNoNextCursor() {
+        String start = UserCursor.encode("createdAt", Sort.Direction.ASC, 0L, FUTURE.minusDays(1));
+
+        CursorPage<UserResponse> first = service.scrollUsers(start, 2, "createdAt", Sort.Direction.ASC, false);
+        assertThat(first.getContent()).extracting(UserResponse::getId).containsExactly(ids.get(0), ids.get(1));
+        assertThat(first.getNext()).isNotNull();
+
+        // Qolgan qatorlar soni sahifa hajmiga teng - keyingi sahifa yo'q
+        CursorPage<UserResponse> second = service.scrollUsers(first.getNext(), 2, "createdAt", Sort.Direction.ASC, false);
+        assertThat(second.getContent()).extracting(UserResponse::getId).containsExactly(ids.get(2), ids.get(3));
+        assertThat(second.getNext()).isNull();
+
+        assertThat(service.scrollUsers(start, 3, "createdAt", Sort.Direction.ASC, false).getNext()).isNotNull();
+        assertThat(service.scrollUsers(start, 4, "createdAt", Sort.Direction.ASC, false).getNext()).isNull();
+    }
+
+    @Test
+    void descendingSeekWalksBackwardsWithIdTieBreak() {
+        String start = UserCursor.encode("createdAt", Sort.Direction.DESC, Long.MAX_VALUE, FUTURE.plusYears(1));
+
+        CursorPage<UserResponse> first = service.scrollUsers(start, 3, "createdAt", Sort.Direction.DESC, false);
+        assertThat(first.getContent()).extracting(UserResponse::getId)
+                .containsExactly(ids.get(3), ids.get(2), ids.get(1));
+
+        CursorPage<UserResponse> second = service.scrollUsers(first.getNext(), 1, "createdAt", Sort.Direction.DESC, false);
+        assertThat(second.getContent()).extracting(UserResponse::getId).containsExactly(ids.get(0));
+    }
+
+    @Test
+    void usernameSeekResumesAfterCursor() {
+        String start = UserCursor.encode("username", Sort.Direction.ASC, 0L, prefix + "-1");
+
+        CursorPage<UserResponse> page = service.scrollUsers(start, 2, "username", Sort.Direction.ASC, false);
+        assertThat(page.getContent()).extracting(UserResponse::getUsername)
+                .containsExactly(prefix + "-1", prefix + "-2");
+
+        String back = UserCursor.encode("username", Sort.Direction.DESC, Long.MAX_VALUE, prefix + "-2");
+        assertThat(service.scrollUsers(back, 2, "username", Sort.Direction.DESC, false).getContent())
+                .extracting(UserResponse::getUsername).containsExactly(prefix + "-2", prefix + "-1");
+    }
+}
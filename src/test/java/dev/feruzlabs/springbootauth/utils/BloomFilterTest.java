@@ -0,0 +1,69 @@
+package dev.feruzlabs.springbootauth.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void insertedValuesAreAlwaysFoundAndFalsePositivesStayNearRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("jti-" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("jti-" + i)).isTrue();
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        // 1% kutiladi; tasodifiy tebranish uchun zaxira
+        assertThat(falsePositives).isLessThan(2_000);
+        assertThat(filter.bitSize() % 64).isZero();
+    }
+
+    @Test
+    void concurrentPutsLoseNoBits() throws Exception {
+        int threads = 4;
+        int perThread = 20_000;
+        // Kichik filter - bir xil long so'zlarga parallel CAS lar ko'p to'qnashadi
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int base = t * perThread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        filter.put("jti-" + (base + i));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int i = 0; i < threads * perThread; i++) {
+            assertThat(filter.mightContain("jti-" + i)).isTrue();
+        }
+    }
+}
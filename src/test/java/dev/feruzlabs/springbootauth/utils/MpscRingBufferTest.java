@@ -0,0 +1,86 @@
+package dev.feruzlabs.springbootauth.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MpscRingBufferTest {
+
+    @Test
+    void capacityIsRoundedUpAndFullBufferRejectsOffers() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(5);
+        assertThat(buffer.capacity()).isEqualTo(8);
+
+        for (int i = 0; i < 8; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+        assertThat(buffer.offer(8)).isFalse();
+        assertThat(buffer.size()).isEqualTo(8);
+
+        // Bo'shagan slot keyingi aylanishda qayta ishlatiladi, tartib saqlanadi
+        assertThat(buffer.poll()).isZero();
+        assertThat(buffer.offer(8)).isTrue();
+        List<Integer> rest = new ArrayList<>();
+        assertThat(buffer.drainTo(rest, 100)).isEqualTo(8);
+        assertThat(rest).containsExactly(1, 2, 3, 4, 5, 6, 7, 8);
+        assertThat(buffer.poll()).isNull();
+    }
+
+    @Test
+    void concurrentProducersDeliverEveryElementExactlyOnce() throws Exception {
+        int producers = 4;
+        int perProducer = 50_000;
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(1024);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                int base = p * perProducer;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perProducer; i++) {
+                        while (!buffer.offer(base + i)) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+
+            Set<Integer> received = new HashSet<>();
+            int[] lastPerProducer = new int[producers];
+            Arrays.fill(lastPerProducer, -1);
+            while (received.size() < producers * perProducer) {
+                Integer value = buffer.poll();
+                if (value == null) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                assertThat(received.add(value)).isTrue();
+                // Bitta yozuvchining elementlari o'z tartibida keladi
+                int producer = value / perProducer;
+                assertThat(value).isGreaterThan(lastPerProducer[producer]);
+                lastPerProducer[producer] = value;
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            assertThat(buffer.poll()).isNull();
+            assertThat(buffer.offered()).isEqualTo((long) producers * perProducer);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}